@@ -0,0 +1,37 @@
+package com.unitelmasapienza.asciiart.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The class is the <b>entry point of the benchmarks</b>, the main class of <code>benchmarks.jar</code>.
+ *
+ * It runs the JMH benchmarks of this module with the options given on the command line (the same of the JMH runner,
+ * for example a regular expression of the benchmarks to run), always adding the GC profiler, so every result reports
+ * the allocation rate next to the operations per second. The benchmarks fork headless JVMs, so they run without a display.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiPanelBenchmarks {
+
+	/**
+	 * Runs the benchmarks.
+	 * @param args are the JMH command line options
+	 * @throws CommandLineOptionException if the options are not valid
+	 * @throws RunnerException if a benchmark fails
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,47 @@
+package com.unitelmasapienza.asciiart.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+/**
+ * The class finds the <b>bundled drawings and images</b> used by the benchmarks, in the <code>resources</code> folder of the project.
+ *
+ * The folder is taken from the <code>asciiart.resources</code> system property, if it is set; otherwise it is looked for
+ * in the working directory and in its parent, so the benchmarks can be run both from the project and from this module.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class BenchmarkResources {
+
+	/**
+	 * The system property with the path of the resources folder
+	 *
+	 */
+	public static final String RESOURCES_PROPERTY = "asciiart.resources";
+
+	/**
+	 * Private constructor, the class has only static methods.
+	 *
+	 */
+	private BenchmarkResources() {
+	}
+
+	/**
+	 * Finds a bundled file.
+	 * @param name is the path of the file inside the resources folder
+	 * @return the absolute path of the file
+	 * @throws FileNotFoundException if the file can not be found
+	 */
+	public static String file(String name) throws FileNotFoundException {
+		String folder = System.getProperty(RESOURCES_PROPERTY);
+		String[] folders = folder != null ? new String[] { folder } : new String[] { "resources", "../resources" };
+
+		for (String candidate : folders) {
+			File file = new File(candidate, name);
+			if (file.isFile())
+				return file.getAbsolutePath();
+		}
+		throw new FileNotFoundException(name + " not found, set -D" + RESOURCES_PROPERTY + " to the resources folder of the project.");
+	}
+}
@@ -0,0 +1,105 @@
+package com.unitelmasapienza.asciiart.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
+import com.unitelmasapienza.asciiart.converter.AsciiConverter;
+import com.unitelmasapienza.asciiart.converter.AsciiConverterPaletteMode;
+
+/**
+ * The class benchmarks the <b>conversion of an imported image</b>, the same work done by the <i>Convert</i> button
+ * of the importing frame: the image of <code>resources/img</code> is converted with the {@link AsciiConverter}
+ * and the result is drawn on a cleared canvas, as a single edit.
+ *
+ * The canvas has the size of the one of the editor, 80x60 cells of {@link AsciiFont#CP437_16x16}.
+ *
+ * @see com.unitelmasapienza.asciiart.imageeditor.listeners.ActionConvertListener which does the same work in the application.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ConvertBenchmark {
+
+	/**
+	 * The bundled image
+	 *
+	 */
+	@Param({ "kirby.png", "yoshi.png", "clouds.jpeg", "darkmountains.jpg" })
+	private String image;
+
+	/**
+	 * The palette of the characters colors
+	 *
+	 */
+	@Param({ "DEFAULT_4BIT_COLORS", "ALL_COLORS" })
+	private AsciiConverterPaletteMode paletteMode;
+
+	/**
+	 * The image to convert
+	 *
+	 */
+	private BufferedImage bufferedImage;
+
+	/**
+	 * The converter, with the default threshold
+	 *
+	 */
+	private AsciiConverter converter;
+
+	/**
+	 * The canvas the converted image is drawn on
+	 *
+	 */
+	private AsciiPanel panel;
+
+	/**
+	 * Reads the image and creates the converter and the panel.
+	 * @throws IOException if the image or the font can not be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		bufferedImage = ImageIO.read(new File(BenchmarkResources.file("img/" + image)));
+		panel = new AsciiPanel(80, 60, AsciiFont.CP437_16x16);
+		converter = new AsciiConverter(panel.getAsciiFont(), AsciiConverter.DEFAULT_THRESHOLD, paletteMode);
+	}
+
+	/**
+	 * Converts the image and draws it on the canvas.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel convert() {
+		AsciiRaster raster = converter.convert(bufferedImage);
+
+		panel.beginEdit();
+		panel.clear();
+		panel.paintRaster(raster, 0, 0, false);
+		panel.endEdit();
+		return panel;
+	}
+}
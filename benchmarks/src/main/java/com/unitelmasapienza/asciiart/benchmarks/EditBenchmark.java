@@ -0,0 +1,180 @@
+package com.unitelmasapienza.asciiart.benchmarks;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
+import com.unitelmasapienza.asciiart.asciipanel.CellBuffer;
+import com.unitelmasapienza.asciiart.asciipanel.IntTileTransformer;
+
+/**
+ * The class benchmarks the <b>editing operations of the {@link AsciiPanel}</b>: writing a string, clearing, flood filling
+ * and painting a raster, each next to its bulk counterpart working on primitive arrays, and recoloring the whole canvas
+ * with a primitive transformer, sequentially and in parallel.
+ * Only the cells are changed, the panel is never painted.
+ *
+ * Every operation alternates two characters, so it always changes the cells it touches.
+ * The canvas has the size of the one of the editor, 80x60 cells of {@link AsciiFont#CP437_16x16}.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EditBenchmark {
+
+	/**
+	 * The benchmarked panel
+	 *
+	 */
+	private AsciiPanel panel;
+
+	/**
+	 * The raster painted on the panel, a bundled drawing
+	 *
+	 */
+	private AsciiRaster raster;
+
+	/**
+	 * The characters of the line written by {@link #writeRow()}
+	 *
+	 */
+	private char[] line = "The quick brown fox jumps over the lazy dog".toCharArray();
+
+	/**
+	 * The foreground colors of the line
+	 *
+	 */
+	private int[] lineForeground = new int[line.length];
+
+	/**
+	 * The background colors of the line
+	 *
+	 */
+	private int[] lineBackground = new int[line.length];
+
+	/**
+	 * The transformer that swaps the foreground and the background color of every cell, so it always changes them
+	 *
+	 */
+	private IntTileTransformer swapColors = new IntTileTransformer() {
+		@Override
+		public long transformTile(int x, int y, char character, int foregroundRGB, int backgroundRGB) {
+			return CellBuffer.pack(character, backgroundRGB, foregroundRGB);
+		}
+	};
+
+	/**
+	 * The number of operations done, used to alternate the characters
+	 *
+	 */
+	private int count;
+
+	/**
+	 * Creates the panel and loads the raster.
+	 * @throws IOException if the bundled drawing can not be read
+	 */
+	@Setup
+	public void setup() throws IOException {
+		panel = new AsciiPanel(80, 60, AsciiFont.CP437_16x16);
+		raster = AsciiRaster.createRasterFromFile(BenchmarkResources.file("kirbyEdit.ascii"));
+		Arrays.fill(lineForeground, AsciiPanel.brightGreen.getRGB());
+		Arrays.fill(lineBackground, AsciiPanel.black.getRGB());
+	}
+
+	/**
+	 * Writes a line of text, on a different row every time.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel writeString() {
+		int row = count++ % panel.getPanelHeightInCharacters();
+		return panel.write("The quick brown fox jumps over the lazy dog", 0, row, AsciiPanel.brightGreen, AsciiPanel.black);
+	}
+
+	/**
+	 * Writes the same line of text as {@link #writeString()} with the bulk row write.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel writeRow() {
+		int row = count++ % panel.getPanelHeightInCharacters();
+		return panel.writeRow(0, row, line, lineForeground, lineBackground, 0, line.length);
+	}
+
+	/**
+	 * Clears the whole canvas.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel clear() {
+		return panel.clear((count++ & 1) == 0 ? '.' : ' ');
+	}
+
+	/**
+	 * Clears the whole canvas with the bulk rectangle fill.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel fillRect() {
+		return panel.fillRect(0, 0, panel.getPanelWidthInCharacters(), panel.getPanelHeightInCharacters(), (count++ & 1) == 0 ? '.' : ' ',
+				AsciiPanel.white.getRGB(), AsciiPanel.black.getRGB());
+	}
+
+	/**
+	 * Flood fills the canvas, which is made of a single region, so every cell is filled.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel fill() {
+		return panel.fill((count++ & 1) == 0 ? '#' : '+', 0, 0, AsciiPanel.white, AsciiPanel.black);
+	}
+
+	/**
+	 * Paints the raster on the canvas, alternating it with a cleared canvas.
+	 * @return the panel
+	 */
+	@Benchmark
+	public AsciiPanel paintRaster() {
+		if ((count++ & 1) == 0)
+			return panel.paintRaster(raster, 0, 0, false);
+		return panel.clear();
+	}
+
+	/**
+	 * Swaps the colors of every cell on the calling thread.
+	 * @return the bounds of the changed cells
+	 */
+	@Benchmark
+	public Rectangle transformSequential() {
+		return panel.withEachTile(swapColors, false);
+	}
+
+	/**
+	 * Swaps the colors of every cell in parallel stripes of rows.
+	 * @return the bounds of the changed cells
+	 */
+	@Benchmark
+	public Rectangle transformParallel() {
+		return panel.withEachTile(swapColors, true);
+	}
+}
@@ -0,0 +1,124 @@
+package com.unitelmasapienza.asciiart.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFileFormat;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
+
+/**
+ * The class benchmarks <b>loading and saving the drawings</b> with {@link AsciiRaster#createRasterFromFile(String)}
+ * and {@link AsciiRaster#save(String, AsciiFileFormat)}, on the bundled <code>resources/*.ascii</code> files, in every file format.
+ *
+ * The binary files are written from the bundled text files when the benchmark starts; the saved files go to temporary files.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FileBenchmark {
+
+	/**
+	 * The bundled drawing
+	 *
+	 */
+	@Param({ "kirbyEdit.ascii", "clouds8025.ascii", "darkmountains8060.ascii" })
+	private String drawing;
+
+	/**
+	 * The format of the loaded and saved files
+	 *
+	 */
+	@Param({ "TEXT", "BINARY" })
+	private AsciiFileFormat format;
+
+	/**
+	 * The raster of the drawing
+	 *
+	 */
+	private AsciiRaster raster;
+
+	/**
+	 * The absolute path of the loaded file
+	 *
+	 */
+	private String loadedFile;
+
+	/**
+	 * The temporary file with the drawing in binary format, null for the text format
+	 *
+	 */
+	private File binaryFile;
+
+	/**
+	 * The temporary file the drawing is saved to
+	 *
+	 */
+	private File savedFile;
+
+	/**
+	 * Loads the drawing and creates the temporary files.
+	 * @throws IOException if the drawing can not be read or the temporary files can not be written
+	 */
+	@Setup
+	public void setup() throws IOException {
+		loadedFile = BenchmarkResources.file(drawing);
+		raster = AsciiRaster.createRasterFromFile(loadedFile);
+		savedFile = File.createTempFile("benchmark", "." + format.getExtension());
+
+		if (format == AsciiFileFormat.BINARY) {
+			binaryFile = File.createTempFile("benchmark", "." + format.getExtension());
+			raster.save(binaryFile.getAbsolutePath(), format);
+			loadedFile = binaryFile.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * Deletes the temporary files.
+	 *
+	 */
+	@TearDown
+	public void tearDown() {
+		savedFile.delete();
+		if (binaryFile != null)
+			binaryFile.delete();
+	}
+
+	/**
+	 * Loads the drawing.
+	 * @return the loaded raster
+	 * @throws IOException if the file can not be read
+	 */
+	@Benchmark
+	public AsciiRaster load() throws IOException {
+		return AsciiRaster.createRasterFromFile(loadedFile);
+	}
+
+	/**
+	 * Saves the drawing.
+	 * @throws IOException if the file can not be written
+	 */
+	@Benchmark
+	public void save() throws IOException {
+		raster.save(savedFile.getAbsolutePath(), format);
+	}
+}
@@ -0,0 +1,155 @@
+package com.unitelmasapienza.asciiart.benchmarks;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanelCanvasMode;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanelRenderingMode;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
+import com.unitelmasapienza.asciiart.asciipanel.CellBuffer;
+
+/**
+ * The class benchmarks <b>{@link AsciiPanel#paint(java.awt.Graphics)}</b> on an offscreen image, for every rendering engine and canvas mode.
+ *
+ * The panel paints only the cells that changed since the last paint, so every operation first changes the cells and then paints them:
+ * the whole canvas, alternating two random frames, or a single short line of text, alternating two colors.
+ * The canvas has the size of the one of the editor, 80x60 cells of {@link AsciiFont#CP437_16x16}.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+
+	/**
+	 * The width of the canvas, in cells
+	 *
+	 */
+	private static final int WIDTH = 80;
+
+	/**
+	 * The height of the canvas, in cells
+	 *
+	 */
+	private static final int HEIGHT = 60;
+
+	/**
+	 * The rendering engine of the panel
+	 *
+	 */
+	@Param({ "TINTED_GLYPHS", "RASTER_BLIT", "GLYPH_ATLAS" })
+	private AsciiPanelRenderingMode renderingMode;
+
+	/**
+	 * The canvas mode of the panel
+	 *
+	 */
+	@Param({ "FULL_FRAME", "TILED" })
+	private AsciiPanelCanvasMode canvasMode;
+
+	/**
+	 * The benchmarked panel
+	 *
+	 */
+	private AsciiPanel panel;
+
+	/**
+	 * The two frames painted in turn on the whole canvas
+	 *
+	 */
+	private AsciiRaster[] frames;
+
+	/**
+	 * The image the panel is painted on
+	 *
+	 */
+	private BufferedImage target;
+
+	/**
+	 * The graphics of the target image
+	 *
+	 */
+	private Graphics2D graphics;
+
+	/**
+	 * The number of operations done, used to alternate the frames and the colors
+	 *
+	 */
+	private int count;
+
+	/**
+	 * Creates the panel, paints a first frame and creates the frames with random characters and colors.
+	 *
+	 */
+	@Setup
+	public void setup() {
+		panel = new AsciiPanel(WIDTH, HEIGHT, AsciiFont.CP437_16x16, renderingMode, canvasMode);
+		target = new BufferedImage(WIDTH * panel.getCharWidth(), HEIGHT * panel.getCharHeight(), BufferedImage.TYPE_INT_RGB);
+		graphics = target.createGraphics();
+
+		Random random = new Random(42);
+		frames = new AsciiRaster[2];
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = new AsciiRaster(WIDTH, HEIGHT);
+			for (int y = 0; y < HEIGHT; y++)
+				for (int x = 0; x < WIDTH; x++)
+					frames[i].getRasterCells().set(x, y, CellBuffer.pack((char) random.nextInt(256), random.nextInt(), random.nextInt()));
+		}
+		panel.paint(graphics);
+	}
+
+	/**
+	 * Releases the graphics of the target image.
+	 *
+	 */
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	/**
+	 * Changes every cell of the canvas and paints it.
+	 * @return the target image
+	 */
+	@Benchmark
+	public BufferedImage paintFull() {
+		panel.paintRaster(frames[count++ & 1], 0, 0, false);
+		panel.paint(graphics);
+		return target;
+	}
+
+	/**
+	 * Changes a short line of text in the middle of the canvas and paints it.
+	 * @return the target image
+	 */
+	@Benchmark
+	public BufferedImage paintPartial() {
+		Color foreground = (count++ & 1) == 0 ? AsciiPanel.brightYellow : AsciiPanel.brightCyan;
+		panel.write("benchmark", WIDTH / 2, HEIGHT / 2, foreground, AsciiPanel.black);
+		panel.paint(graphics);
+		return target;
+	}
+}
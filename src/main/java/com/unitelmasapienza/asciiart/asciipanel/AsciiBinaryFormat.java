@@ -0,0 +1,251 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The class reads and writes the <b>compact binary format of the ascii drawings</b>.
+ *
+ * The file starts with a 16 bytes header, all the values are big-endian:
+ * <ul>
+ * <li>bytes 0-3: the magic bytes <code>ASCB</code></li>
+ * <li>bytes 4-5: the version of the format, currently 1</li>
+ * <li>bytes 6-7: the flags, bit 0 tells that the cells are run-length encoded</li>
+ * <li>bytes 8-11: the width in cells</li>
+ * <li>bytes 12-15: the height in cells</li>
+ * </ul>
+ * The cells follow in row-major order, packed as in {@link CellBuffer}: 8 bytes each, or, when they are run-length encoded,
+ * a sequence of runs made of a 4 bytes count and the 8 bytes cell repeated.
+ *
+ * The files are read by mapping them in memory; the plain cells are copied with a single bulk read straight into the cells of the raster.
+ * The size in the header is checked against the content of the file before the raster is allocated.
+ *
+ * @see AsciiRaster#createRasterFromFile(String) which recognizes the format by its magic bytes.
+ * @see AsciiPanel#save(String, AsciiFileFormat) which writes it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiBinaryFormat {
+
+	/**
+	 * The magic bytes at the start of every binary file: <code>ASCB</code>
+	 *
+	 */
+	public static final int MAGIC = 0x41534342;
+
+	/**
+	 * The version of the format written by this class
+	 *
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * The flag telling that the cells are run-length encoded
+	 *
+	 */
+	public static final int FLAG_RUN_LENGTH_ENCODED = 1;
+
+	/**
+	 * The size of the header, in bytes
+	 *
+	 */
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * The class only has static methods.
+	 *
+	 */
+	private AsciiBinaryFormat() {}
+
+	/**
+	 * Tells if a file is in the binary format, by reading its magic bytes.
+	 * @param filename is the absolute path of the file
+	 * @return true if the file starts with the magic bytes
+	 * @throws IOException if the file can not be read
+	 */
+	public static boolean isBinary(String filename) throws IOException {
+		FileInputStream in = new FileInputStream(filename);
+		try {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			FileChannel channel = in.getChannel();
+			while (magic.hasRemaining())
+				if (channel.read(magic) < 0)
+					break;
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads a binary file.
+	 * @param filename is the absolute path of the file
+	 * @return the raster with the cells of the file
+	 * @throws IOException if the file can not be read or it is not a valid binary file
+	 */
+	public static AsciiRaster read(String filename) throws IOException {
+		FileInputStream in = new FileInputStream(filename);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			if (size < HEADER_SIZE)
+				throw new IOException(filename + " is too short for a binary ascii file.");
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt() != MAGIC)
+				throw new IOException(filename + " is not a binary ascii file.");
+
+			int version = buffer.getShort() & 0xFFFF;
+			if (version != VERSION)
+				throw new IOException(filename + " has version " + version + ", only version " + VERSION + " is supported.");
+
+			int flags = buffer.getShort() & 0xFFFF;
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE)
+				throw new IOException(filename + " has an invalid size " + width + "x" + height + ".");
+
+			long cellCount = (long) width * height;
+			if ((flags & FLAG_RUN_LENGTH_ENCODED) == 0) {
+				if (size - HEADER_SIZE != cellCount * 8)
+					throw new IOException(filename + " does not contain " + cellCount + " cells.");
+			} else {
+				checkRuns(filename, buffer.duplicate(), cellCount);
+			}
+
+			AsciiRaster raster = new AsciiRaster(width, height);
+			long[] cells = raster.getRasterCells().getCells();
+
+			if ((flags & FLAG_RUN_LENGTH_ENCODED) == 0) {
+				buffer.asLongBuffer().get(cells);
+			} else {
+				int index = 0;
+				while (index < cells.length) {
+					int count = buffer.getInt();
+					long cell = buffer.getLong();
+					for (int end = index + count; index < end; index++)
+						cells[index] = cell;
+				}
+			}
+			return raster;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Checks the runs of a run-length encoded file before the raster is allocated: every run must be valid and the runs
+	 * must add up exactly to the cells of the drawing, so a corrupted header can not make the reader allocate a huge raster.
+	 * @param filename is the name of the file, used in the error messages
+	 * @param runs is the content of the file after the header; its position is moved
+	 * @param cellCount is the number of cells of the drawing
+	 * @throws IOException if the runs do not match the size of the drawing
+	 */
+	private static void checkRuns(String filename, ByteBuffer runs, long cellCount) throws IOException {
+		long index = 0;
+		while (index < cellCount) {
+			if (runs.remaining() < 12)
+				throw new IOException(filename + " ends after " + index + " of " + cellCount + " cells.");
+			int count = runs.getInt();
+			runs.getLong();
+			if (count < 1 || count > cellCount - index)
+				throw new IOException(filename + " has an invalid run of " + count + " cells at cell " + index + ".");
+			index += count;
+		}
+	}
+
+	/**
+	 * Writes cells in a binary file, atomically. The cells are run-length encoded only when this makes the file smaller.
+	 * @param cells are the cells to write
+	 * @param filename is the absolute path of the file
+	 * @throws IOException if the file can not be written; the destination is not changed
+	 * @see AsciiFileWriter which writes the file.
+	 */
+	public static void write(CellBuffer cells, String filename) throws IOException {
+		AsciiFileWriter.write(cells, filename, AsciiFileFormat.BINARY);
+	}
+
+	/**
+	 * Writes cells in a binary file, atomically.
+	 * @param cells are the cells to write
+	 * @param filename is the absolute path of the file
+	 * @param runLengthEncoded tells if the cells have to be run-length encoded
+	 * @throws IOException if the file can not be written; the destination is not changed
+	 * @see AsciiFileWriter which writes the file.
+	 */
+	public static void write(CellBuffer cells, String filename, boolean runLengthEncoded) throws IOException {
+		if (cells == null)
+			throw new NullPointerException("cells must not be null.");
+
+		AsciiFileWriter.write(cells, filename, AsciiFileFormat.BINARY, runLengthEncoded);
+	}
+
+	/**
+	 * Tells if run-length encoding the cells makes the file smaller.
+	 * @param cells are the cells to write
+	 * @return true if the cells should be run-length encoded
+	 */
+	static boolean isRunLengthEncodingSmaller(CellBuffer cells) {
+		return countRuns(cells) * 12L < (long) cells.getWidth() * cells.getHeight() * 8L;
+	}
+
+	/**
+	 * Writes the header and the cells in the channel of a binary file.
+	 * @param cells are the cells to write
+	 * @param channel is the channel of the file
+	 * @param buffer is the buffer the file is written through, empty and big-endian
+	 * @param runLengthEncoded tells if the cells have to be run-length encoded
+	 * @throws IOException if the file can not be written
+	 */
+	static void write(CellBuffer cells, FileChannel channel, ByteBuffer buffer, boolean runLengthEncoded) throws IOException {
+		buffer.putInt(MAGIC);
+		buffer.putShort((short) VERSION);
+		buffer.putShort((short) (runLengthEncoded ? FLAG_RUN_LENGTH_ENCODED : 0));
+		buffer.putInt(cells.getWidth());
+		buffer.putInt(cells.getHeight());
+
+		int size = cells.getWidth() * cells.getHeight();
+		if (!runLengthEncoded) {
+			for (int i = 0; i < size; i++) {
+				if (buffer.remaining() < 8)
+					AsciiFileWriter.flush(channel, buffer);
+				buffer.putLong(cells.get(i));
+			}
+		} else {
+			int i = 0;
+			while (i < size) {
+				int start = i;
+				long cell = cells.get(i);
+				while (i < size && cells.get(i) == cell)
+					i++;
+				if (buffer.remaining() < 12)
+					AsciiFileWriter.flush(channel, buffer);
+				buffer.putInt(i - start);
+				buffer.putLong(cell);
+			}
+		}
+		AsciiFileWriter.flush(channel, buffer);
+	}
+
+	/**
+	 * Counts the runs of equal consecutive cells.
+	 * @param cells are the cells
+	 * @return the number of runs
+	 */
+	private static int countRuns(CellBuffer cells) {
+		int size = cells.getWidth() * cells.getHeight();
+		int runs = 1;
+		long previous = cells.get(0);
+		for (int i = 1; i < size; i++) {
+			long cell = cells.get(i);
+			if (cell != previous)
+				runs++;
+			previous = cell;
+		}
+		return runs;
+	}
+}
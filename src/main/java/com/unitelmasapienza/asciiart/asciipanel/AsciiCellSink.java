@@ -0,0 +1,36 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.io.IOException;
+
+/**
+ * It is the <b>destination of the cells read from a drawing file</b>.
+ * A parser calls {@link #begin(int, int)} once, as soon as it knows the size of the drawing, and then
+ * {@link #putCell(int, int, long)} for every cell, in the order of the file.
+ * Since the cells are handed over one at a time, a sink that keeps them in tiles (or on disk) can receive drawings
+ * larger than the memory.
+ * 
+ * @see AsciiTextParser which streams the text files into a sink.
+ * @see TiledCellSink which keeps the cells in tiles paged to a file.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public interface AsciiCellSink {
+
+	/**
+	 * Called before the first cell with the size of the drawing.
+	 * @param width is the width in cells
+	 * @param height is the height in cells
+	 * @throws IOException if the sink can not receive a drawing of this size
+	 */
+	public void begin(int width, int height) throws IOException;
+
+	/**
+	 * Receives one cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @param cell is the cell, packed as in {@link CellBuffer}
+	 * @throws IOException if the sink can not store the cell
+	 */
+	public void putCell(int x, int y, long cell) throws IOException;
+}
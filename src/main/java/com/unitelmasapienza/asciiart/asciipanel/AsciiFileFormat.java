@@ -0,0 +1,48 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * This enumeration lists the <b>file formats in which a drawing can be saved</b>.
+ * Both formats are recognized when a file is loaded, whatever its name.
+ * 
+ * @see AsciiPanel#save(String, AsciiFileFormat) which saves the drawing in the chosen format.
+ * @see AsciiRaster#createRasterFromFile(String) which loads both formats.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum AsciiFileFormat {
+
+	/**
+	 * The original text format: the width and the height on the first two lines,
+	 * then one line for every cell, column by column, with the character and the two colors separated by tabs.
+	 */
+	TEXT("ascii"),
+
+	/**
+	 * The compact binary format written by {@link AsciiBinaryFormat}: a small header and 8 bytes for every cell,
+	 * or less when the cells are run-length encoded.
+	 */
+	BINARY("ascb");
+
+	/**
+	 * The usual extension of the files, without the dot
+	 *
+	 */
+	private String extension;
+
+	/**
+	 * Enumeration constructor.
+	 * @param extension is the usual extension of the files
+	 */
+	private AsciiFileFormat(String extension) {
+		this.extension = extension;
+	}
+
+	/**
+	 * The extension getter
+	 * @return the usual extension of the files, without the dot
+	 */
+	public String getExtension() {
+		return extension;
+	}
+}
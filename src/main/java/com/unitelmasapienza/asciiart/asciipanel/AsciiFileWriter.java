@@ -0,0 +1,203 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The class <b>writes the drawing files atomically</b>, in any of the {@link AsciiFileFormat}s.
+ *
+ * The cells are written in a temporary file next to the destination, through a large direct buffer, then the file is forced
+ * to the disk and renamed over the destination in a single step. If anything fails the temporary file is deleted and the
+ * destination is left as it was, so a drawing is never truncated by a failed or interrupted save. Overwriting a drawing
+ * keeps its permissions.
+ *
+ * The text format is serialized by hand, directly in the buffer, so writing a cell creates no object.
+ * The cells are only read, so they can be written by any thread as long as nobody changes them: the editor writes a copy
+ * of its cells in background.
+ *
+ * @see AsciiTextParser which reads the text format.
+ * @see AsciiBinaryFormat which describes the binary format.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiFileWriter {
+
+	/**
+	 * The size of the direct buffer the file is written through, in bytes
+	 *
+	 */
+	private static final int BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * The longest line of a cell in the text format: three signed ints, two tabs and the end of the line
+	 *
+	 */
+	private static final int MAX_TEXT_CELL_SIZE = 3 * 11 + 3;
+
+	/**
+	 * The class only has static methods.
+	 *
+	 */
+	private AsciiFileWriter() {}
+
+	/**
+	 * Writes cells in a file. In the binary format the cells are run-length encoded only when this makes the file smaller.
+	 * @param cells are the cells to write
+	 * @param filename is the absolute path of the file
+	 * @param format is the format of the file
+	 * @throws IOException if the file can not be written; the destination is not changed
+	 */
+	public static void write(CellBuffer cells, String filename, AsciiFileFormat format) throws IOException {
+		if (cells == null)
+			throw new NullPointerException("cells must not be null.");
+
+		if (format == null)
+			throw new NullPointerException("format must not be null.");
+
+		write(cells, filename, format, format == AsciiFileFormat.BINARY && AsciiBinaryFormat.isRunLengthEncodingSmaller(cells));
+	}
+
+	/**
+	 * Writes cells in a temporary file, then renames it over the destination.
+	 * @param cells are the cells to write
+	 * @param filename is the absolute path of the file
+	 * @param format is the format of the file
+	 * @param runLengthEncoded tells if the cells have to be run-length encoded, only for the binary format
+	 * @throws IOException if the file can not be written; the destination is not changed
+	 */
+	static void write(CellBuffer cells, String filename, AsciiFileFormat format, boolean runLengthEncoded) throws IOException {
+		Path target = Paths.get(filename).toAbsolutePath();
+		Path temporary = createTemporaryFile(target);
+		boolean written = false;
+		try {
+			FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			try {
+				ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+				if (format == AsciiFileFormat.BINARY)
+					AsciiBinaryFormat.write(cells, channel, buffer, runLengthEncoded);
+				else
+					writeText(cells, channel, buffer);
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+
+			try {
+				Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			written = true;
+		} finally {
+			if (!written)
+				Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Creates the temporary file a drawing is written in, next to the destination.
+	 * The file is created with the default permissions of a new file, like the destination would be; if the destination exists,
+	 * its POSIX permissions are copied on the temporary file, so the rename keeps them.
+	 * @param target is the destination
+	 * @return the path of the new, empty, temporary file
+	 * @throws IOException if the file can not be created
+	 */
+	private static Path createTemporaryFile(Path target) throws IOException {
+		Path temporary;
+		while (true) {
+			temporary = target.resolveSibling(target.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 16) + ".tmp");
+			try {
+				Files.createFile(temporary);
+				break;
+			} catch (FileAlreadyExistsException e) {
+				// another save picked the same name, try again
+			}
+		}
+
+		if (Files.exists(target) && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+			try {
+				Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(target));
+			} catch (IOException e) {
+				Files.deleteIfExists(temporary);
+				throw e;
+			}
+		}
+		return temporary;
+	}
+
+	/**
+	 * Writes cells in the text format: the width and the height on the first two lines, then one line for every cell,
+	 * column by column, with the character code, the foreground ARGB and the background ARGB separated by tabs.
+	 * @param cells are the cells to write
+	 * @param channel is the channel of the file
+	 * @param buffer is the buffer the file is written through, empty
+	 * @throws IOException if the file can not be written
+	 */
+	private static void writeText(CellBuffer cells, FileChannel channel, ByteBuffer buffer) throws IOException {
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+		putInt(buffer, width);
+		buffer.put((byte) '\n');
+		putInt(buffer, height);
+		buffer.put((byte) '\n');
+
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (buffer.remaining() < MAX_TEXT_CELL_SIZE)
+					flush(channel, buffer);
+
+				long cell = cells.get(x, y);
+				putInt(buffer, CellBuffer.characterOf(cell));
+				buffer.put((byte) '\t');
+				putInt(buffer, CellBuffer.foregroundOf(cell));
+				buffer.put((byte) '\t');
+				putInt(buffer, CellBuffer.backgroundOf(cell));
+				buffer.put((byte) '\n');
+			}
+		}
+		flush(channel, buffer);
+	}
+
+	/**
+	 * Puts the decimal digits of an int in the buffer, with a leading minus if it is negative.
+	 * @param buffer is the buffer to write
+	 * @param value is the value to write
+	 */
+	private static void putInt(ByteBuffer buffer, int value) {
+		long remaining = value;
+		if (remaining < 0) {
+			buffer.put((byte) '-');
+			remaining = -remaining;
+		}
+
+		long divisor = 1;
+		while (divisor * 10 <= remaining)
+			divisor *= 10;
+		for (; divisor > 0; divisor /= 10)
+			buffer.put((byte) ('0' + remaining / divisor % 10));
+	}
+
+	/**
+	 * Writes the content of the buffer in the channel and empties the buffer.
+	 * @param channel is the channel to write
+	 * @param buffer is the buffer to write
+	 * @throws IOException if the channel can not be written
+	 */
+	static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -1,5 +1,12 @@
 package com.unitelmasapienza.asciiart.asciipanel;
 
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
 /**
  * This class holds provides <b>all available Fonts for the AsciiPanel</b>.
  * Some graphics are from the Dwarf Fortress Tileset Wiki Page
@@ -77,4 +84,58 @@ public class AsciiFont {
 	public int getFontHeight() {
 		return fontHeight;
 	}
+
+	/**
+	 * Two fonts are equal when they use the same sprite with the same glyph size,
+	 * so the caches keyed by font are shared by equal instances.
+	 * @param obj is the object to compare
+	 * @return true if the object is an equal font
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof AsciiFont))
+			return false;
+		AsciiFont other = (AsciiFont) obj;
+		return fontWidth == other.fontWidth && fontHeight == other.fontHeight
+				&& (fontFilename == null ? other.fontFilename == null : fontFilename.equals(other.fontFilename));
+	}
+
+	/**
+	 * Computes the hash code from the sprite and the glyph size.
+	 * @return the hash code
+	 */
+	@Override
+	public int hashCode() {
+		int hash = fontFilename == null ? 0 : fontFilename.hashCode();
+		hash = 31 * hash + fontWidth;
+		return 31 * hash + fontHeight;
+	}
+
+	/**
+	 * Loads the font sprite from the classpath and cuts it into its 256 glyphs.
+	 * The sprite is a grid of 16 by 16 glyphs, the glyph <i>i</i> is at column <code>i % 16</code> and row <code>i / 16</code>.
+	 * It does not need a display, so it can be used also when the application runs headless.
+	 * @return the 256 glyphs of the font, as <code>TYPE_INT_ARGB</code> images
+	 * @throws IOException if the sprite can not be found or read
+	 */
+	public BufferedImage[] loadGlyphs() throws IOException {
+		URL spriteUrl = AsciiFont.class.getClassLoader().getResource(getFontFilename());
+		if (spriteUrl == null)
+			throw new IOException("font sprite " + getFontFilename() + " not found in the classpath.");
+
+		BufferedImage sprite = ImageIO.read(spriteUrl);
+		BufferedImage[] glyphs = new BufferedImage[256];
+		for (int i = 0; i < 256; i++) {
+			int sx = (i % 16) * getFontWidth();
+			int sy = (i / 16) * getFontHeight();
+
+			glyphs[i] = new BufferedImage(getFontWidth(), getFontHeight(), BufferedImage.TYPE_INT_ARGB);
+			Graphics graphics = glyphs[i].getGraphics();
+			graphics.drawImage(sprite, 0, 0, getFontWidth(), getFontHeight(), sx, sy, sx + getFontWidth(), sy + getFontHeight(), null);
+			graphics.dispose();
+		}
+		return glyphs;
+	}
 }
@@ -2,17 +2,19 @@ package com.unitelmasapienza.asciiart.asciipanel;
 
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
-import java.awt.image.LookupOp;
-import java.awt.image.ShortLookupTable;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
-import javax.imageio.ImageIO;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 import com.unitelmasapienza.asciiart.asciipanel.factories.AsciiPanelFactoryConcrete;
 
@@ -128,6 +130,30 @@ public class AsciiPanel extends JPanel {
      */
     public static Color brightWhite = new Color(255, 255, 255);
 
+    /**
+     * The minimum time between two repaints caused by the mouse cursor, in milliseconds: about one frame at 60 frames per second
+     * 
+     */
+    private static final int CURSOR_REPAINT_DELAY = 16;
+
+    /**
+     * The interval, in milliseconds, between two refreshes of the render metrics overlay
+     * 
+     */
+    private static final int METRICS_OVERLAY_REFRESH_DELAY = 500;
+
+    /**
+     * The font of the render metrics overlay
+     * 
+     */
+    private static final Font METRICS_OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    /**
+     * The background of the render metrics overlay, a translucent black
+     * 
+     */
+    private static final Color METRICS_OVERLAY_BACKGROUND = new Color(0, 0, 0, 192);
+
     /**
      * Is the base for graphic context that allow to draw 
      * 
@@ -189,55 +215,78 @@ public class AsciiPanel extends JPanel {
     private int cursorDistanceFromTop;
 
     /**
-     * Is the buffered image of the font table that will be drawn in the font selection frame
+     * Is the character list of the table character selection frame. 
+     * It contains at each index a character that can be selected
      * 
      */
-    private BufferedImage glyphSprite;
+    private BufferedImage[] glyphsList;
 
     /**
-     * Is the character list of the table character selection frame. 
-     * It contains at each index a character that can be selected
+     * Is the cache of the glyphs already tinted with the colors of the drawn characters.
+     * It is rebuilt every time the font changes.
      * 
      */
-    private BufferedImage[] glyphsList;
+    private GlyphTintCache glyphTintCache;
+
+    /**
+     * Is the engine of the fill functionality. It is kept to reuse its work stack and visited bitset.
+     * 
+     */
+    private FloodFiller floodFiller = new FloodFiller();
+
+    /**
+     * Is the undo and redo history of the canvas. Only the changes made inside an edit are recorded.
+     * @see #beginEdit()
+     * 
+     */
+    private EditHistory editHistory = new EditHistory();
 
     /**
-     * The <i>x</i> and <i>y</i> coordinates matrix that identifies the entire drawing space. 
-     * At each point [x]-[y] the chosen character can be drawn.
+     * Is the rendering engine used to draw the cells in the offscreen buffer
      * 
      */
-    private char[][] panelCharsMatrix;
+    private AsciiPanelRenderingMode renderingMode = AsciiPanelRenderingMode.TINTED_GLYPHS;
 
     /**
-     * Represents the background color of a specific character identified by its x and y coordinates
+     * Is the way the pixels of the canvas are kept: one offscreen buffer for the whole canvas or bitmaps of the visible tiles
      * 
      */
-    private Color[][] panelCharsBackgroundColors;
+    private AsciiPanelCanvasMode canvasMode = AsciiPanelCanvasMode.FULL_FRAME;
 
+    /**
+     * Is the engine that draws the visible tiles of the canvas.
+     * It is used only with the {@link AsciiPanelCanvasMode#TILED} canvas mode.
+     * 
+     */
+    private TiledCanvasRenderer tiledCanvasRenderer;
 
     /**
-     * Represents the color of a specific character identified by its x and y coordinates
+     * Is the engine that writes the glyphs directly in the offscreen buffer pixels.
+     * It is used only with the {@link AsciiPanelRenderingMode#RASTER_BLIT} rendering mode.
      * 
      */
-    private Color[][] panelCharsForegroundColors;
+    private GlyphMaskRenderer glyphMaskRenderer;
 
     /**
-     * Is the old character at position [x]-[y]. 
+     * Is the engine that draws the glyphs copying them from the atlas of the font.
+     * It is used only with the {@link AsciiPanelRenderingMode#GLYPH_ATLAS} rendering mode.
      * 
      */
-    private char[][] panelOldChars;
+    private GlyphAtlasRenderer glyphAtlasRenderer;
 
     /**
-     * Is the old background color at position [x]-[y]. 
+     * The cells that identify the entire drawing space: at each point [x]-[y] the chosen character 
+     * is stored with its foreground and background color.
      * 
      */
-    private Color[][] panelOldCharsBackgroundColors;
+    private CellBuffer panelCells;
 
     /**
-     * Is the old foreground color at position [x]-[y]. 
+     * The cells as they were the last time they have been drawn in the offscreen buffer.
+     * It is null in {@link AsciiPanelCanvasMode#TILED} canvas mode.
      * 
      */
-    private Color[][] panelOldCharsForegroundColors;
+    private CellBuffer panelOldCells;
 
     /**
      * Is the selected Font
@@ -251,12 +300,68 @@ public class AsciiPanel extends JPanel {
      */
     private int mouseCursorX,mouseCursorY;
 
+    /**
+     * Tells if the mouse cursor is over the canvas, in which case its cell is outlined
+     * 
+     */
+    private boolean mouseCursorVisible;
+
+    /**
+     * The region, in pixels, to repaint because of the mouse cursor moves since the last cursor repaint, or null
+     * 
+     */
+    private Rectangle cursorRepaintRegion;
+
+    /**
+     * The timer that coalesces the repaints caused by the mouse cursor, so that there is at most one every frame
+     * 
+     */
+    private Timer cursorRepaintTimer;
+
+    /**
+     * The registry where every paint is recorded, or null if the render metrics are not collected
+     * 
+     */
+    private RenderMetrics renderMetrics;
+
+    /**
+     * The work done by the paint in progress, reused by every paint while the render metrics are collected
+     * 
+     */
+    private FrameSample frameSample = new FrameSample();
+
+    /**
+     * Tells if the render metrics are drawn over the canvas
+     * 
+     */
+    private boolean metricsOverlayVisible;
+
+    /**
+     * The timer that refreshes the render metrics overlay while it is visible
+     * 
+     */
+    private Timer metricsOverlayTimer;
+
 	/**
 	 * The image to be drawn
 	 * 
 	 */
 	private Image offscreenBuffer;
 
+	/**
+	 * The dirty region is the rectangle of cells changed since the last paint.
+	 * These are its left (inclusive) and right (exclusive) limits, in characters.
+	 * When <i>dirtyRight</i> is not greater than <i>dirtyLeft</i> the region is empty.
+	 * 
+	 */
+	private int dirtyLeft, dirtyRight;
+
+	/**
+	 * These are the top (inclusive) and bottom (exclusive) limits of the dirty region, in characters.
+	 * 
+	 */
+	private int dirtyTop, dirtyBottom;
+
     /**
      * Class constructor.
      * Default size is 80x24.
@@ -281,6 +386,29 @@ public class AsciiPanel extends JPanel {
      * @param font if passing null, standard font CP437_9x16 will be used
      */
     public AsciiPanel(int width, int height, AsciiFont font) {
+    	this(width, height, font, null);
+    }
+
+    /**
+     * Class constructor specifying the width and height in characters, the AsciiFont and the rendering engine
+     * @param width is the width
+     * @param height is the height
+     * @param font if passing null, standard font CP437_9x16 will be used
+     * @param renderingMode if passing null, the standard {@link AsciiPanelRenderingMode#TINTED_GLYPHS} will be used
+     */
+    public AsciiPanel(int width, int height, AsciiFont font, AsciiPanelRenderingMode renderingMode) {
+    	this(width, height, font, renderingMode, null);
+    }
+
+    /**
+     * Class constructor specifying the width and height in characters, the AsciiFont, the rendering engine and the canvas mode
+     * @param width is the width
+     * @param height is the height
+     * @param font if passing null, standard font CP437_9x16 will be used
+     * @param renderingMode if passing null, the standard {@link AsciiPanelRenderingMode#TINTED_GLYPHS} will be used
+     * @param canvasMode if passing null, the standard {@link AsciiPanelCanvasMode#FULL_FRAME} will be used
+     */
+    public AsciiPanel(int width, int height, AsciiFont font, AsciiPanelRenderingMode renderingMode, AsciiPanelCanvasMode canvasMode) {
         super();
 
         if (width < 1) {
@@ -297,16 +425,13 @@ public class AsciiPanel extends JPanel {
         setDefaultBackgroundColor(getBlack());
         setDefaultForegroundColor(getWhite());
 
-        setPanelCharsMatrix(new char[getPanelWidthInCharacters()][getPanelHeightInCharacters()]);
-        setPanelCharsBackgroundColors(new Color[getPanelWidthInCharacters()][getPanelHeightInCharacters()]);
-        setPanelCharsForegroundColors(new Color[getPanelWidthInCharacters()][getPanelHeightInCharacters()]);
-
-        setPanelOldCharsBackgroundColors(new Color[getPanelWidthInCharacters()][getPanelHeightInCharacters()]);
-        setPanelOldCharsForegroundColors(new Color[getPanelWidthInCharacters()][getPanelHeightInCharacters()]);
+        setPanelCells(new CellBuffer(getPanelWidthInCharacters(), getPanelHeightInCharacters(), canvasMode == AsciiPanelCanvasMode.TILED));
 
         if(font == null) {
         	font = AsciiFont.CP437_9x16;
         }
+        setRenderingMode(renderingMode);
+        setCanvasMode(canvasMode);
         setAsciiFont(font);
     }
     
@@ -320,31 +445,82 @@ public class AsciiPanel extends JPanel {
      * @param width is the panel width in characters
      * @param height is the panel height in characters
      * @param font is the Ascii Font
+     * @param renderingMode is the rendering engine
+     * @param canvasMode is the canvas mode
      * @param defaultBackgroundColor is the default color for background
      * @param defaultForegroundColor is the default color for foreground
-     * @param panelCharsMatrix is matrix [x][y]
-     * @param panelCharsBackgroundColors is the color for panel chars background
-     * @param panelCharsForegroundColors is the color for panel chars foreground
-     * @param panelOldCharsBackgroundColors is the old color for panel chars background
-     * @param panelOldCharsForegroundColors is the old color for panel chars foreground
+     * @param panelCells are the cells of the drawing space
+     * @param panelOldCells are the cells last drawn in the offscreen buffer, null in {@link AsciiPanelCanvasMode#TILED} canvas mode
      * 
      */
-    public AsciiPanel(int width, int height, AsciiFont font, Color defaultBackgroundColor, Color defaultForegroundColor, char[][] panelCharsMatrix,
-    		Color[][] panelCharsBackgroundColors, Color[][] panelCharsForegroundColors, Color[][] panelOldCharsBackgroundColors, Color[][] panelOldCharsForegroundColors) {
+    public AsciiPanel(int width, int height, AsciiFont font, AsciiPanelRenderingMode renderingMode, AsciiPanelCanvasMode canvasMode,
+    		Color defaultBackgroundColor, Color defaultForegroundColor, CellBuffer panelCells, CellBuffer panelOldCells) {
     	super();
     	setPanelWidthInCharacters(width);
     	setPanelHeightInCharacters(height);
+    	setRenderingMode(renderingMode);
+    	setCanvasMode(canvasMode);
     	setAsciiFont(font);
     	
     	setDefaultBackgroundColor(defaultBackgroundColor);
     	setDefaultForegroundColor(defaultForegroundColor);
     	
-    	setPanelCharsMatrix(panelCharsMatrix);
-    	setPanelCharsBackgroundColors(panelCharsBackgroundColors);
-    	setPanelCharsForegroundColors(panelCharsForegroundColors);
-    	
-    	setPanelOldCharsBackgroundColors(panelOldCharsBackgroundColors);
-    	setPanelOldCharsForegroundColors(panelOldCharsForegroundColors);
+    	setPanelCells(panelCells);
+    	setPanelOldCells(panelOldCells);
+    }
+
+    /**
+     * Class constructor specifying all fields with the character and color matrices of the first versions of the panel.
+     * The panel uses the {@link AsciiPanelRenderingMode#TINTED_GLYPHS} rendering mode and the {@link AsciiPanelCanvasMode#FULL_FRAME}
+     * canvas mode; the matrices are copied in the cells, a null color taking the default one (0 for the old cells).
+     * 
+     * @param width is the panel width in characters
+     * @param height is the panel height in characters
+     * @param font is the Ascii Font
+     * @param defaultBackgroundColor is the default color for background
+     * @param defaultForegroundColor is the default color for foreground
+     * @param panelCharsMatrix is matrix [x][y]
+     * @param panelCharsBackgroundColors is the color for panel chars background
+     * @param panelCharsForegroundColors is the color for panel chars foreground
+     * @param panelOldCharsBackgroundColors is the old color for panel chars background
+     * @param panelOldCharsForegroundColors is the old color for panel chars foreground
+     * @deprecated use {@link #AsciiPanel(int, int, AsciiFont, AsciiPanelRenderingMode, AsciiPanelCanvasMode, Color, Color, CellBuffer, CellBuffer)}
+     * or the {@link AsciiPanelBuilder}, which keep the cells in a {@link CellBuffer}.
+     */
+    @Deprecated
+    public AsciiPanel(int width, int height, AsciiFont font, Color defaultBackgroundColor, Color defaultForegroundColor, char[][] panelCharsMatrix,
+    		Color[][] panelCharsBackgroundColors, Color[][] panelCharsForegroundColors, Color[][] panelOldCharsBackgroundColors, Color[][] panelOldCharsForegroundColors) {
+    	this(width, height, font, AsciiPanelRenderingMode.TINTED_GLYPHS, AsciiPanelCanvasMode.FULL_FRAME, defaultBackgroundColor, defaultForegroundColor,
+    			toCellBuffer(width, height, panelCharsMatrix, panelCharsForegroundColors, panelCharsBackgroundColors, defaultForegroundColor, defaultBackgroundColor),
+    			toCellBuffer(width, height, null, panelOldCharsForegroundColors, panelOldCharsBackgroundColors, null, null));
+    }
+
+    /**
+     * Packs the character and color matrices of the first versions of the panel in a new {@link CellBuffer}.
+     * The part of the matrices outside the buffer is ignored, the cells they do not cover are left to 0.
+     * @param width is the width of the buffer, in characters
+     * @param height is the height of the buffer, in characters
+     * @param characters is the matrix of the characters, indexed [x][y], or null for the character 0
+     * @param foregroundColors is the matrix of the foreground colors, indexed [x][y], or null for the default one
+     * @param backgroundColors is the matrix of the background colors, indexed [x][y], or null for the default one
+     * @param defaultForeground is the color of a null foreground, or null for 0
+     * @param defaultBackground is the color of a null background, or null for 0
+     * @return the buffer with the packed cells
+     */
+    private static CellBuffer toCellBuffer(int width, int height, char[][] characters, Color[][] foregroundColors, Color[][] backgroundColors,
+    		Color defaultForeground, Color defaultBackground) {
+    	CellBuffer cells = new CellBuffer(width, height);
+    	for (int x = 0; x < width; x++) {
+    		for (int y = 0; y < height; y++) {
+    			char character = characters != null && x < characters.length && y < characters[x].length ? characters[x][y] : 0;
+    			Color foreground = foregroundColors != null && x < foregroundColors.length && y < foregroundColors[x].length ? foregroundColors[x][y] : null;
+    			Color background = backgroundColors != null && x < backgroundColors.length && y < backgroundColors[x].length ? backgroundColors[x][y] : null;
+    			if (foreground == null) foreground = defaultForeground;
+    			if (background == null) background = defaultBackground;
+    			cells.set(x, y, character, foreground != null ? foreground.getRGB() : 0, background != null ? background.getRGB() : 0);
+    		}
+    	}
+    	return cells;
     }
 
     /**
@@ -362,6 +538,15 @@ public class AsciiPanel extends JPanel {
      * The method is called every time some event (even the moving mouse cursor) happens on the canvas. 
      * 
      * If there are no changes to be made (characters to be drawn or replaced) it does nothing, otherwise it updates the drawing canvas.
+     * Only the cells inside both the dirty region (see {@link #markDirty(int, int, int, int)}) and the clip of the graphics are checked,
+     * and only the clipped part of the offscreen buffer is copied, so the cost depends on the size of the changes and of the viewport
+     * and not on the size of the canvas. The dirty cells outside the clip stay dirty until a paint reaches them.
+     * The tinted glyphs are taken from the {@link GlyphTintCache}, so repeated color pairs are drawn without creating new images.
+     * 
+     * In {@link AsciiPanelCanvasMode#TILED} canvas mode only the tiles inside the clip are drawn, by the {@link TiledCanvasRenderer},
+     * whose cache of tile bitmaps is first grown to fit the visible region of the panel.
+     * 
+     * When the render metrics are collected (see {@link #setRenderMetrics(RenderMetrics)}) every paint is measured and recorded.
      * 
      */
     @Override
@@ -369,28 +554,335 @@ public class AsciiPanel extends JPanel {
         if (g == null)
             throw new NullPointerException();
 
-        for (int x = 0; x < getPanelWidthInCharacters(); x++) {
-            for (int y = 0; y < getPanelHeightInCharacters(); y++) {
-            	if (getPanelOldCharsBackgroundColors()[x][y] == getPanelCharsBackgroundColors()[x][y]
-            	 && getPanelOldCharsForegroundColors()[x][y] == getPanelCharsForegroundColors()[x][y]
-            	 && getPanelOldChars()[x][y] == getPanelCharsMatrix()[x][y])
+        Rectangle clip = getPaintBounds(g);
+        if (clip.isEmpty())
+        	return;
+
+        RenderMetrics metrics = getRenderMetrics();
+        FrameSample sample = null;
+        long frameStart = 0, cacheHits = 0, cacheMisses = 0;
+        if (metrics != null) {
+        	sample = frameSample;
+        	sample.reset();
+        	cacheHits = getGlyphCacheHits();
+        	cacheMisses = getGlyphCacheMisses();
+        	frameStart = System.nanoTime();
+        }
+
+        if (getCanvasMode() == AsciiPanelCanvasMode.TILED) {
+        	Rectangle viewport = getVisibleRect();
+        	getTiledCanvasRenderer().fitViewport(viewport.isEmpty() ? clip : viewport);
+        	getTiledCanvasRenderer().paint(g, getPanelCells(), clip, sample);
+        	clearDirty();
+        } else {
+        	paintFullFrame(g, clip, sample);
+        }
+        paintMouseCursor(g);
+
+        if (metrics != null) {
+        	metrics.recordFrame(sample, getGlyphCacheHits() - cacheHits, getGlyphCacheMisses() - cacheMisses,
+        			System.nanoTime() - frameStart);
+        	if (isMetricsOverlayVisible())
+        		paintMetricsOverlay(g, metrics);
+        }
+    }
+
+    /**
+     * Paints the canvas in {@link AsciiPanelCanvasMode#FULL_FRAME} canvas mode: the changed cells inside both the dirty region and the clip
+     * are drawn in the offscreen buffer, then the clipped part of the buffer is copied on the graphics.
+     * @param g is the graphics to paint on
+     * @param clip is the region to paint, in pixels
+     * @param sample is where the work is added, or null to not measure it
+     */
+    private void paintFullFrame(Graphics g, Rectangle clip, FrameSample sample) {
+        int left = Math.max(dirtyLeft, clip.x / getCharWidth());
+        int top = Math.max(dirtyTop, clip.y / getCharHeight());
+        int right = Math.min(dirtyRight, (clip.x + clip.width + getCharWidth() - 1) / getCharWidth());
+        int bottom = Math.min(dirtyBottom, (clip.y + clip.height + getCharHeight() - 1) / getCharHeight());
+
+        CellBuffer cells = getPanelCells();
+        long[] oldCells = getPanelOldCells().getCells();
+        int redrawn = 0;
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+            	int index = cells.index(x, y);
+            	long cell = cells.get(index);
+            	if (oldCells[index] == cell)
             		continue;
-            	
-                Color bg = getPanelCharsBackgroundColors()[x][y];
-                Color fg = getPanelCharsForegroundColors()[x][y];
-                if (bg==null) bg=Color.BLACK;
-                if (fg==null) fg=Color.BLACK;
-                
-                LookupOp op = setColors(bg, fg);
-                BufferedImage img = op.filter(getGlyphsList()[getPanelCharsMatrix()[x][y]], null);
-                getOffscreenGraphics().drawImage(img, x * getCharWidth(), y * getCharHeight(), null);
-                
-                getPanelOldCharsBackgroundColors()[x][y] = getPanelCharsBackgroundColors()[x][y];
-        	    getPanelOldCharsForegroundColors()[x][y] = getPanelCharsForegroundColors()[x][y];
-        	    getPanelOldChars()[x][y] = getPanelCharsMatrix()[x][y];
+
+            	char character = CellBuffer.characterOf(cell);
+            	int bg = CellBuffer.backgroundOf(cell);
+            	int fg = CellBuffer.foregroundOf(cell);
+
+                if (sample != null)
+                	drawCellMeasured(x, y, character, fg, bg, sample);
+                else if (getRenderingMode() == AsciiPanelRenderingMode.RASTER_BLIT)
+                	getGlyphMaskRenderer().drawGlyph(x, y, character, fg, bg);
+                else if (getRenderingMode() == AsciiPanelRenderingMode.GLYPH_ATLAS)
+                	getGlyphAtlasRenderer().drawGlyph(getOffscreenGraphics(), x, y, character, fg, bg);
+                else
+	                getOffscreenGraphics().drawImage(getTintedGlyph(character, fg, bg), x * getCharWidth(), y * getCharHeight(), null);
+
+                oldCells[index] = cell;
+                redrawn++;
             }
         }
-        g.drawImage(getOffscreenBuffer(), 0, 0, this);
+        if (left == dirtyLeft && top == dirtyTop && right == dirtyRight && bottom == dirtyBottom)
+        	clearDirty();
+
+        long blitStart = sample != null ? System.nanoTime() : 0;
+        g.drawImage(getOffscreenBuffer(), clip.x, clip.y, clip.x + clip.width, clip.y + clip.height,
+        		clip.x, clip.y, clip.x + clip.width, clip.y + clip.height, this);
+        if (sample != null) {
+        	sample.addBlitNanos(System.nanoTime() - blitStart);
+        	sample.addCells(Math.max(right - left, 0) * Math.max(bottom - top, 0), redrawn);
+        }
+    }
+
+    /**
+     * Returns the glyph of a character tinted with the colors of a cell, from the {@link GlyphTintCache}.
+     * The cells keep only opaque colors (see {@link CellBuffer}), so the cache always has an answer.
+     * @param character is the character of the cell
+     * @param fg is the foreground color of the cell
+     * @param bg is the background color of the cell
+     * @return the tinted glyph
+     */
+    private BufferedImage getTintedGlyph(char character, int fg, int bg) {
+    	return getGlyphTintCache().getTintedGlyph(character, fg, bg);
+    }
+
+    /**
+     * Counts the glyphs found already tinted, by the {@link GlyphTintCache} and by the {@link GlyphAtlasRenderer} if there is one.
+     * @return the number of hits of the glyph caches of the panel
+     */
+    private long getGlyphCacheHits() {
+    	long hits = getGlyphTintCache().getHits();
+    	if (getGlyphAtlasRenderer() != null)
+    		hits += getGlyphAtlasRenderer().getHits();
+    	return hits;
+    }
+
+    /**
+     * Counts the glyphs that had to be tinted, by the {@link GlyphTintCache} and by the {@link GlyphAtlasRenderer} if there is one.
+     * @return the number of misses of the glyph caches of the panel
+     */
+    private long getGlyphCacheMisses() {
+    	long misses = getGlyphTintCache().getMisses();
+    	if (getGlyphAtlasRenderer() != null)
+    		misses += getGlyphAtlasRenderer().getMisses();
+    	return misses;
+    }
+
+    /**
+     * Draws a cell in the offscreen buffer, timing the tinting of the glyph and the copy of its pixels.
+     * The {@link GlyphMaskRenderer} does both at once, its time is counted as copy; the {@link GlyphAtlasRenderer} times them itself.
+     * @param x is the <i>x</i>-coordinate of the cell
+     * @param y is the <i>y</i>-coordinate of the cell
+     * @param character is the character of the cell
+     * @param fg is the foreground color of the cell
+     * @param bg is the background color of the cell
+     * @param sample is where the times are added
+     */
+    private void drawCellMeasured(int x, int y, char character, int fg, int bg, FrameSample sample) {
+    	long start = System.nanoTime();
+    	if (getRenderingMode() == AsciiPanelRenderingMode.RASTER_BLIT) {
+    		getGlyphMaskRenderer().drawGlyph(x, y, character, fg, bg);
+    		sample.addBlitNanos(System.nanoTime() - start);
+    		return;
+    	}
+    	if (getRenderingMode() == AsciiPanelRenderingMode.GLYPH_ATLAS) {
+    		getGlyphAtlasRenderer().drawGlyph(getOffscreenGraphics(), x, y, character, fg, bg, sample);
+    		return;
+    	}
+
+    	BufferedImage img = getTintedGlyph(character, fg, bg);
+    	long tinted = System.nanoTime();
+    	getOffscreenGraphics().drawImage(img, x * getCharWidth(), y * getCharHeight(), null);
+    	sample.addTintNanos(tinted - start);
+    	sample.addBlitNanos(System.nanoTime() - tinted);
+    }
+
+    /**
+     * Draws the summary of the render metrics in the top left corner of the visible part of the canvas.
+     * The overlay is drawn only on the graphics, the offscreen buffer and the tiles are not changed.
+     * @param g is the graphics to paint on
+     * @param metrics are the metrics to draw
+     */
+    private void paintMetricsOverlay(Graphics g, RenderMetrics metrics) {
+    	String[] lines = metrics.getSummary();
+    	Rectangle visible = getVisibleRect();
+    	g.setFont(METRICS_OVERLAY_FONT);
+    	FontMetrics fontMetrics = g.getFontMetrics();
+
+    	int width = 0;
+    	for (String line : lines)
+    		width = Math.max(width, fontMetrics.stringWidth(line));
+    	int lineHeight = fontMetrics.getHeight();
+
+    	g.setColor(METRICS_OVERLAY_BACKGROUND);
+    	g.fillRect(visible.x, visible.y, width + 8, lines.length * lineHeight + 8);
+    	g.setColor(brightWhite);
+    	for (int i = 0; i < lines.length; i++)
+    		g.drawString(lines[i], visible.x + 4, visible.y + 4 + i * lineHeight + fontMetrics.getAscent());
+    }
+
+    /**
+     * Outlines the cell under the mouse cursor, if the cursor is over the canvas.
+     * The outline is drawn in XOR mode, so it is visible on any color, and only on the graphics: the offscreen buffer is not changed.
+     * @param g is the graphics to paint on
+     */
+    private void paintMouseCursor(Graphics g) {
+    	if (!mouseCursorVisible)
+    		return;
+
+    	g.setXORMode(brightWhite);
+    	g.drawRect(getMouseCursorX() * getCharWidth(), getMouseCursorY() * getCharHeight(), getCharWidth() - 1, getCharHeight() - 1);
+    	g.setPaintMode();
+    }
+
+    /**
+     * Moves the mouse cursor to the cell under a point of the panel.
+     * Nothing happens if the cell is the same of the last call, so the moves inside a cell cost nothing; otherwise the old and the new
+     * cells of the cursor are repainted, at most once every frame however many moves happen in between.
+     * @param pixelX is the <i>x</i>-coordinate of the point, in pixels
+     * @param pixelY is the <i>y</i>-coordinate of the point, in pixels
+     * @return true if the cursor has moved to another cell
+     */
+    public boolean moveMouseCursor(int pixelX, int pixelY) {
+    	if (pixelX < 0 || pixelY < 0)
+    		return false;
+
+    	int x = pixelX / getCharWidth();
+    	int y = pixelY / getCharHeight();
+    	if (x >= getPanelWidthInCharacters() || y >= getPanelHeightInCharacters())
+    		return false;
+
+    	if (mouseCursorVisible && x == getMouseCursorX() && y == getMouseCursorY())
+    		return false;
+
+    	if (mouseCursorVisible)
+    		scheduleCursorRepaint(getMouseCursorX(), getMouseCursorY());
+    	setMouseCursorX(x);
+    	setMouseCursorY(y);
+    	mouseCursorVisible = true;
+    	scheduleCursorRepaint(x, y);
+    	return true;
+    }
+
+    /**
+     * Removes the outline of the mouse cursor, when the cursor leaves the canvas.
+     * 
+     */
+    public void hideMouseCursor() {
+    	if (!mouseCursorVisible)
+    		return;
+
+    	mouseCursorVisible = false;
+    	scheduleCursorRepaint(getMouseCursorX(), getMouseCursorY());
+    }
+
+    /**
+     * Adds a cell to the region repainted by the next frame of the cursor, starting the frame timer if it is not running.
+     * @param x is the <i>x</i>-coordinate of the cell
+     * @param y is the <i>y</i>-coordinate of the cell
+     */
+    private void scheduleCursorRepaint(int x, int y) {
+    	Rectangle cell = new Rectangle(x * getCharWidth(), y * getCharHeight(), getCharWidth(), getCharHeight());
+    	if (cursorRepaintRegion == null)
+    		cursorRepaintRegion = cell;
+    	else
+    		cursorRepaintRegion.add(cell);
+
+    	if (cursorRepaintTimer == null) {
+    		cursorRepaintTimer = new Timer(CURSOR_REPAINT_DELAY, new ActionListener() {
+    			@Override
+    			public void actionPerformed(ActionEvent e) {
+    				Rectangle region = cursorRepaintRegion;
+    				cursorRepaintRegion = null;
+    				if (region != null)
+    					repaint(region.x, region.y, region.width, region.height);
+    			}
+    		});
+    		cursorRepaintTimer.setRepeats(false);
+    	}
+    	if (!cursorRepaintTimer.isRunning())
+    		cursorRepaintTimer.start();
+    }
+
+    /**
+     * Computes the region to paint: the clip of the graphics or, if there is none, the visible rectangle of the panel,
+     * limited to the pixels of the canvas.
+     * @param g is the graphics to paint on
+     * @return the region to paint, in pixels
+     */
+    private Rectangle getPaintBounds(Graphics g) {
+    	Rectangle canvas = new Rectangle(0, 0, getPanelWidthInCharacters() * getCharWidth(), getPanelHeightInCharacters() * getCharHeight());
+    	Rectangle clip = g.getClipBounds();
+    	if (clip == null) {
+    		clip = getVisibleRect();
+    		if (clip.isEmpty())
+    			return canvas;
+    	}
+    	return clip.intersection(canvas);
+    }
+
+    /**
+     * Adds a rectangle of cells to the dirty region, which is the region checked and redrawn by the next {@link #paint(Graphics)}.
+     * All the methods that change the cells call it, it must be called only when the cells are changed directly through the
+     * buffer returned by {@link #getPanelCells()}.
+     * The rectangle is clipped to the panel limits.
+     * 
+     * @param x is the <i>x</i>-coordinate of the first cell
+     * @param y is the <i>y</i>-coordinate of the first cell
+     * @param width is the width in characters of the rectangle
+     * @param height is the height in characters of the rectangle
+     */
+    public void markDirty(int x, int y, int width, int height) {
+    	int left = Math.max(x, 0);
+    	int top = Math.max(y, 0);
+    	int right = Math.min(x + width, getPanelWidthInCharacters());
+    	int bottom = Math.min(y + height, getPanelHeightInCharacters());
+    	if (right <= left || bottom <= top)
+    		return;
+
+    	if (getTiledCanvasRenderer() != null)
+    		getTiledCanvasRenderer().markDirty(left, top, right - left, bottom - top);
+
+    	if (dirtyRight <= dirtyLeft || dirtyBottom <= dirtyTop) {
+    		dirtyLeft = left;
+    		dirtyTop = top;
+    		dirtyRight = right;
+    		dirtyBottom = bottom;
+    	} else {
+    		dirtyLeft = Math.min(dirtyLeft, left);
+    		dirtyTop = Math.min(dirtyTop, top);
+    		dirtyRight = Math.max(dirtyRight, right);
+    		dirtyBottom = Math.max(dirtyBottom, bottom);
+    	}
+    }
+
+    /**
+     * Schedules a repaint of the pixels covered by the dirty region only.
+     * If nothing has changed since the last paint, it does nothing.
+     * 
+     */
+    public void repaintDirty() {
+    	if (dirtyRight <= dirtyLeft || dirtyBottom <= dirtyTop)
+    		return;
+
+    	repaint(dirtyLeft * getCharWidth(), dirtyTop * getCharHeight(),
+    			(dirtyRight - dirtyLeft) * getCharWidth(), (dirtyBottom - dirtyTop) * getCharHeight());
+    }
+
+    /**
+     * Empties the dirty region. It is called after the changed cells have been drawn.
+     * 
+     */
+    private void clearDirty() {
+    	dirtyLeft = 0;
+    	dirtyTop = 0;
+    	dirtyRight = 0;
+    	dirtyBottom = 0;
     }
     /**
      * The method is called when you want to save a drawing in a file. 
@@ -399,33 +891,23 @@ public class AsciiPanel extends JPanel {
      * @see asciiart.imageeditor.ActionSave which representing the save action.
      * 
      * @param filename is the absolute path, contains file system directory in which file will be saved and filename
+     * @throws IOException if the file can not be written; the file is left as it was
      */
-    public void save(String filename) {
-    	BufferedWriter bw;
-		try {
-			bw = new BufferedWriter(new FileWriter(filename));
-			bw.write(getPanelWidthInCharacters()+"\n");
-			bw.write(getPanelHeightInCharacters()+"\n");
-			
-			for (int x = 0; x < getPanelWidthInCharacters(); x++) {
-		            for (int y = 0; y < getPanelHeightInCharacters(); y++) {
-		            	Color fg=getPanelCharsForegroundColors()[x][y];
-		            	Color bg=getPanelCharsBackgroundColors()[x][y];
-		            	
-		            	if (fg==null) fg=Color.black;
-		            	if (bg==null) bg=Color.black;
-		            	
-		            	
-		            	bw.write((int)getPanelCharsMatrix()[x][y]
-		            			+"\t"+fg.getRGB()
-		            			+"\t"+bg.getRGB()+"\n");
-		            	}
-		            }
-			bw.close();		
-		} catch (Exception e) {
-			System.out.println("Error saving:");
-			System.exit(1);
-		}
+    public void save(String filename) throws IOException {
+    	save(filename, AsciiFileFormat.TEXT);
+    }
+
+    /**
+     * Saves the drawing in a file with the given format, atomically: a failed save leaves the file as it was.
+     * It writes the cells in the calling thread; the editor saves a copy of them in background instead.
+     * @see AsciiFileWriter which writes the file.
+     * 
+     * @param filename is the absolute path, contains file system directory in which file will be saved and filename
+     * @param format is the format of the file
+     * @throws IOException if the file can not be written; the file is left as it was
+     */
+    public void save(String filename, AsciiFileFormat format) throws IOException {
+    	AsciiFileWriter.write(getPanelCells(), filename, format);
     }
 
     /**
@@ -433,74 +915,28 @@ public class AsciiPanel extends JPanel {
      * However it is never called in the application.
      * 
      * @param filename is the filename of resources to load
+     * @throws IOException if the file can not be read or it is malformed
      */
-	public void load(String filename) {
+	public void load(String filename) throws IOException {
 		AsciiRaster img=AsciiRaster.createRasterFromFile(filename);
 		this.paintRaster(img, 0, 0, false);
-		repaint();
+		repaintDirty();
 	}
 
 	/**
 	 * Load the character list of the table character selection frame.
+	 * The glyphs are taken from the {@link GlyphRegistry}, so the font sprite is read only by the first panel that uses the font.
 	 * 
 	 */
     private void loadGlyphsList() {
         try {
-            setGlyphSprite(ImageIO.read(AsciiPanel.class.getClassLoader().getResource(getPanelFontFilename())));
+            setGlyphsList(GlyphRegistry.sharedGlyphs(getAsciiFont()));
         } catch (IOException e) {
             System.err.println("loadGlyphs(): " + e.getMessage());
-        }
-
-        for (int i = 0; i < 256; i++) {
-            int sx = (i % 16) * getCharWidth();
-            int sy = (i / 16) * getCharHeight();
-
-            getGlyphsList()[i] = new BufferedImage(getCharWidth(), getCharHeight(), BufferedImage.TYPE_INT_ARGB);
-            getGlyphsList()[i].getGraphics().drawImage(getGlyphSprite(), 0, 0, getCharWidth(), getCharHeight(), sx, sy, sx + getCharWidth(), sy + getCharHeight(), null);
+            setGlyphsList(new BufferedImage[256]);
         }
     }
         
-    /**
-     * Create a <code>LookupOp</code> object (lookup table) mapping the original 
-     * pixels to the background and foreground colors, respectively. 
-     * @param bgColor the background color
-     * @param fgColor the foreground color
-     * @return the <code>LookupOp</code> object (lookup table)
-     */
-    private LookupOp setColors(Color bgColor, Color fgColor) {
-        short[] a = new short[256];
-        short[] r = new short[256];
-        short[] g = new short[256];
-        short[] b = new short[256];
-
-        byte bga = (byte) (bgColor.getAlpha());
-        byte bgr = (byte) (bgColor.getRed());
-        byte bgg = (byte) (bgColor.getGreen());
-        byte bgb = (byte) (bgColor.getBlue());
-
-        byte fga = (byte) (fgColor.getAlpha());
-        byte fgr = (byte) (fgColor.getRed());
-        byte fgg = (byte) (fgColor.getGreen());
-        byte fgb = (byte) (fgColor.getBlue());
-
-        for (int i = 0; i < 256; i++) {
-            if (i == 0) {
-                a[i] = bga;
-                r[i] = bgr;
-                g[i] = bgg;
-                b[i] = bgb;
-            } else {
-                a[i] = fga;
-                r[i] = fgr;
-                g[i] = fgg;
-                b[i] = fgb;
-            }
-        }
-
-        short[][] table = {r, g, b, a};
-        return new LookupOp(new ShortLookupTable(0, table), null);
-    }
-
     /**
      * Clear the entire screen to whatever the default background color is.
      * @return this for convenient chaining of method calls
@@ -515,8 +951,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel clear(char character) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         return clear(character, 0, 0, getPanelWidthInCharacters(), getPanelHeightInCharacters(), getDefaultForegroundColor(), getDefaultBackgroundColor());
     }
@@ -529,8 +965,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel clear(char character, Color foreground, Color background) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         return clear(character, 0, 0, getPanelWidthInCharacters(), getPanelHeightInCharacters(), foreground, background);
     }
@@ -546,8 +982,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel clear(char character, int x, int y, int width, int height) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         if (x < 0 || x >= getPanelWidthInCharacters())
             throw new IllegalArgumentException("x " + x + " must be within range [0," + getPanelWidthInCharacters() + ")." );
@@ -583,8 +1019,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel clear(char character, int x, int y, int width, int height, Color foreground, Color background) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         if (x < 0 || x >= getPanelWidthInCharacters())
             throw new IllegalArgumentException("x " + x + " must be within range [0," + getPanelWidthInCharacters() + ")" );
@@ -598,21 +1034,19 @@ public class AsciiPanel extends JPanel {
         if (height < 1)
             throw new IllegalArgumentException("height " + height + " must be greater than 0." );
 
-        if (x + width > getPanelWidthInCharacters())
-            throw new IllegalArgumentException("x + width " + (x + width) + " must be less than " + (getPanelWidthInCharacters() + 1) + "." );
+        if (width > getPanelWidthInCharacters() - x)
+            throw new IllegalArgumentException("x + width " + ((long) x + width) + " must be less than " + (getPanelWidthInCharacters() + 1) + "." );
 
-        if (y + height > getPanelHeightInCharacters())
-            throw new IllegalArgumentException("y + height " + (y + height) + " must be less than " + (getPanelHeightInCharacters() + 1) + "." );
+        if (height > getPanelHeightInCharacters() - y)
+            throw new IllegalArgumentException("y + height " + ((long) y + height) + " must be less than " + (getPanelHeightInCharacters() + 1) + "." );
 
-        int originalCursorX = getCursorDistanceFromLeft();
-        int originalCursorY = getCursorDistanceFromTop();
-        for (int xo = x; xo < x + width; xo++) {
-            for (int yo = y; yo < y + height; yo++) {
-                write(character, xo, yo, foreground, background);
-            }
-        }
-        setCursorDistanceFromLeft(originalCursorX);
-        setCursorDistanceFromTop(originalCursorY);
+        if (foreground == null) foreground = getDefaultForegroundColor();
+        if (background == null) background = getDefaultBackgroundColor();
+
+        getEditHistory().markBulkEdit();
+        getPanelCells().fillRectUnchecked(x, y, width, height, CellBuffer.pack(character, foreground.getRGB(), background.getRGB()));
+        getEditHistory().regionChanged(x, y, width, height);
+        markDirty(x, y, width, height);
 
         return this;
     }
@@ -624,8 +1058,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel write(char character) {
-        if (character < 0 || character > getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character > getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         return write(character, getCursorDistanceFromLeft(), getCursorDistanceFromTop(), getDefaultForegroundColor(), getDefaultBackgroundColor());
     }
@@ -638,8 +1072,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel write(char character, Color foreground) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         return write(character, getCursorDistanceFromLeft(), getCursorDistanceFromTop(), foreground, getDefaultBackgroundColor());
     }
@@ -653,8 +1087,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel write(char character, Color foreground, Color background) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         return write(character, getCursorDistanceFromLeft(), getCursorDistanceFromTop(), foreground, background);
     }
@@ -668,8 +1102,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel write(char character, int x, int y) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         if (x < 0 || x >= getPanelWidthInCharacters())
             throw new IllegalArgumentException("x " + x + " must be within range [0," + getPanelWidthInCharacters() + ")" );
@@ -690,8 +1124,8 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel write(char character, int x, int y, Color foreground) {
-        if (character < 0 || character >= getGlyphsList().length)
-            throw new IllegalArgumentException("character " + character + " must be within range [0," + getGlyphsList().length + "]." );
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
 
         if (x < 0 || x >= getPanelWidthInCharacters())
             throw new IllegalArgumentException("x " + x + " must be within range [0," + getPanelWidthInCharacters() + ")" );
@@ -717,7 +1151,7 @@ public class AsciiPanel extends JPanel {
     	if (foreground == null) foreground = getDefaultForegroundColor();
         if (background == null) background = getDefaultBackgroundColor();
 
-    	if (character >= 0 && character < getGlyphsList().length)
+    	if (character >= 0 && character < getSharedGlyphsList().length)
       //      throw new IllegalArgumentException("character " + character + " must be within range [0," + glyphs.length + "]." );
 
         if (x >= 0 && x < getPanelWidthInCharacters())
@@ -727,17 +1161,106 @@ public class AsciiPanel extends JPanel {
           //  throw new IllegalArgumentException("y " + y + " must be within range [0," + getPanelHeightInCharacters() + ")" );
         {
         
-        getPanelCharsMatrix()[x][y] = character;
-        getPanelCharsForegroundColors()[x][y] = foreground;
-        getPanelCharsBackgroundColors()[x][y] = background;
+        setCell(x, y, CellBuffer.pack(character, foreground.getRGB(), background.getRGB()));
+        markDirty(x, y, 1, 1);
         setCursorDistanceFromLeft(x + 1);
         setCursorDistanceFromTop(y);
         }
         return this;
     }
     
+    /**
+     * Writes a packed cell, telling the change to the edit history.
+     * @param x is the <i>x</i>-coordinate of the cell
+     * @param y is the <i>y</i>-coordinate of the cell
+     * @param cell is the packed cell to write
+     */
+    private void setCell(int x, int y, long cell) {
+    	setCell(getPanelCells().index(x, y), cell);
+    }
+
+    /**
+     * Writes a packed cell given its index, telling the change to the edit history. The cell is not marked dirty.
+     * @param index is the index of the cell, in row-major order
+     * @param cell is the packed cell to write
+     */
+    void setCell(int index, long cell) {
+    	CellBuffer cells = getPanelCells();
+    	long before = cells.get(index);
+    	cells.set(index, cell);
+    	getEditHistory().cellChanged(index, before, cell);
+    }
+
+    /**
+     * Starts a stroke painted by dragging the mouse, opening an edit that lasts until {@link AsciiStroke#end()}, and paints its first cell.
+     * @param x is the <i>x</i>-coordinate of the first cell
+     * @param y is the <i>y</i>-coordinate of the first cell
+     * @param character is the character to paint
+     * @param foreground is the foreground color or null to use the default
+     * @param background is the background color or null to use the default
+     * @return the stroke, to be continued with {@link AsciiStroke#lineTo(int, int)}
+     */
+    public AsciiStroke beginStroke(int x, int y, char character, Color foreground, Color background) {
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
+
+        if (foreground == null) foreground = getDefaultForegroundColor();
+        if (background == null) background = getDefaultBackgroundColor();
+
+        beginEdit();
+        return new AsciiStroke(this, x, y, CellBuffer.pack(character, foreground.getRGB(), background.getRGB()));
+    }
+
+    /**
+     * Opens an edit: all the cells changed until the matching {@link #endEdit()} are undone and redone together.
+     * Edits can be nested; only the outermost one is recorded.
+     * An edit that fills, clears or paints a raster is recorded as copy-on-write snapshots of the canvas instead of cell by cell.
+     * @return this for convenient chaining of method calls
+     */
+    public AsciiPanel beginEdit() {
+    	getEditHistory().beginEdit();
+    	return this;
+    }
+
+    /**
+     * Closes the edit opened by {@link #beginEdit()}, recording it in the history if it changed something.
+     * @return this for convenient chaining of method calls
+     */
+    public AsciiPanel endEdit() {
+    	getEditHistory().endEdit();
+    	return this;
+    }
+
+    /**
+     * Undoes the last recorded edit and marks its cells dirty.
+     * @return true if an edit has been undone
+     */
+    public boolean undo() {
+    	EditCommand command = getEditHistory().undo();
+    	if (command == null)
+    		return false;
+    	Rectangle bounds = command.getBounds();
+    	markDirty(bounds.x, bounds.y, bounds.width, bounds.height);
+    	return true;
+    }
+
+    /**
+     * Redoes the last undone edit and marks its cells dirty.
+     * @return true if an edit has been redone
+     */
+    public boolean redo() {
+    	EditCommand command = getEditHistory().redo();
+    	if (command == null)
+    		return false;
+    	Rectangle bounds = command.getBounds();
+    	markDirty(bounds.x, bounds.y, bounds.width, bounds.height);
+    	return true;
+    }
+
     /**
      * The method is used for the filler functionality of the application. It fills the drawing canvas with the selected character.
+     * The filled region is made of the cells connected on the four sides whose character differs by 3 at most from the character
+     * of the clicked cell.
 	 * @see asciiart.imageeditor.ImageEditor#onFill(int button) class that calls this method when the fill functionality is chosen.
      * @param character chosen
      * @param x coordinate from mouse cursor
@@ -747,35 +1270,38 @@ public class AsciiPanel extends JPanel {
      * @return this for convenient chaining of method calls
      */
     public AsciiPanel fill(char character,int x,int y,Color fc,Color bc) {
-    	char oldchar = getPanelCharsMatrix()[x][y];
-    	if (oldchar != character) {
-	        getPanelCharsMatrix()[x][y] = character;
-	        getPanelCharsForegroundColors()[x][y] = fc;
-	        getPanelCharsBackgroundColors()[x][y] = bc;
-	        int diff = 0;
-	        if (x < getPanelWidthInCharacters() -1) {
-	        	diff = Math.abs(getPanelCharsMatrix()[x+1][y] - oldchar);
-	        	if (diff >= 0 && diff <= 3)
-	        		fill(character, x+1, y, fc, bc);
-	        }
-	        if (x > 0) {
-	        	diff = Math.abs(getPanelCharsMatrix()[x-1][y] - oldchar);
-	        	if (diff >= 0 && diff <= 3)
-	        		fill(character, x-1, y, fc, bc);
-	        }
-	        if (y > 0) {
-	        	diff = Math.abs(getPanelCharsMatrix()[x][y-1] - oldchar);
-	        	if (diff >= 0 && diff <= 3)
-	        		fill(character, x, y-1, fc, bc);
-	        }
-	        if (y < getPanelHeightInCharacters()-1) {
-	        	diff = Math.abs(getPanelCharsMatrix()[x][y+1] - oldchar);
-	        	if (diff >= 0 && diff <= 3)
-	        		fill(character, x, y+1, fc, bc);
-	        }
-    	}
+    	fill(character, x, y, fc, bc, FillConnectivity.FOUR, FillMatchRule.CHARACTER_TOLERANCE);
         return this;
     }
+
+    /**
+     * Fills the region connected to the given cell with the given character and colors.
+     * Only the bounding box of the filled cells is marked dirty, so the next repaint redraws only that area.
+     * @see FloodFiller which is the engine of the fill.
+     * @param character is the character to write
+     * @param x is the <i>x</i>-coordinate of the cell where the fill starts
+     * @param y is the <i>y</i>-coordinate of the cell where the fill starts
+     * @param foreground the foreground color or null to use the default
+     * @param background the background color or null to use the default
+     * @param connectivity tells which cells are neighbours
+     * @param matchRule tells which cells belong to the region
+     * @return the bounding box of the filled cells (in cells), or null if nothing has been filled
+     */
+    public Rectangle fill(char character, int x, int y, Color foreground, Color background, FillConnectivity connectivity, FillMatchRule matchRule) {
+        if (character < 0 || character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + character + " must be within range [0," + getSharedGlyphsList().length + "]." );
+
+        if (foreground == null) foreground = getDefaultForegroundColor();
+        if (background == null) background = getDefaultBackgroundColor();
+
+        long newCell = CellBuffer.pack(character, foreground.getRGB(), background.getRGB());
+        getEditHistory().markBulkEdit();
+        Rectangle filled = getFloodFiller().fill(getPanelCells(), x, y, newCell, connectivity, matchRule, getEditHistory());
+        if (filled != null)
+            markDirty(filled.x, filled.y, filled.width, filled.height);
+        return filled;
+    }
+
     /**
      * Write a string to the cursor's position.
      * This updates the cursor's position.
@@ -989,6 +1515,128 @@ public class AsciiPanel extends JPanel {
         return this;
     }
 
+    /**
+     * Writes a run of characters in a row with their own foreground and background colors, given as RGB values.
+     * Unlike {@link #write(String, int, int, Color, Color)} the arguments are checked once for the whole run, before anything is
+     * recorded in the history, and the cells are packed straight into the canvas, so it is meant for the code that writes thousands
+     * of cells per frame.
+     * The run is recorded as a bulk edit (see {@link EditHistory#markBulkEdit()}).
+     * This updates the cursor's position.
+     * @param x              the distance from the left to begin writing from
+     * @param y              the distance from the top to begin writing from
+     * @param characters     the characters to write
+     * @param foregroundRGB  the foreground colors, one for each character
+     * @param backgroundRGB  the background colors, one for each character
+     * @param offset         the index in the arrays of the first character to write
+     * @param length         the number of characters to write
+     * @return this for convenient chaining of method calls
+     */
+    public AsciiPanel writeRow(int x, int y, char[] characters, int[] foregroundRGB, int[] backgroundRGB, int offset, int length) {
+        if (characters == null)
+            throw new NullPointerException("characters must not be null." );
+
+        if (foregroundRGB == null)
+            throw new NullPointerException("foregroundRGB must not be null." );
+
+        if (backgroundRGB == null)
+            throw new NullPointerException("backgroundRGB must not be null." );
+
+        if (length < 1)
+            throw new IllegalArgumentException("length " + length + " must be greater than 0." );
+
+        if (offset < 0 || length > characters.length - offset || length > foregroundRGB.length - offset || length > backgroundRGB.length - offset)
+            throw new IllegalArgumentException("offset " + offset + " and length " + length + " must be within the arrays." );
+
+        if (x < 0 || length > getPanelWidthInCharacters() - x)
+            throw new IllegalArgumentException("x " + x + " and length " + length + " must be within range [0," + getPanelWidthInCharacters() + "]." );
+
+        if (y < 0 || y >= getPanelHeightInCharacters())
+            throw new IllegalArgumentException("y " + y + " must be within range [0," + getPanelHeightInCharacters() + ")." );
+
+        for (int i = offset; i < offset + length; i++)
+            if (characters[i] >= getSharedGlyphsList().length)
+                throw new IllegalArgumentException("character " + (int) characters[i] + " must be within range [0," + getSharedGlyphsList().length + "]." );
+
+        getEditHistory().markBulkEdit();
+        getPanelCells().writeRowUnchecked(x, y, characters, foregroundRGB, backgroundRGB, offset, length);
+        getEditHistory().regionChanged(x, y, length, 1);
+        markDirty(x, y, length, 1);
+        setCursorDistanceFromLeft(x + length);
+        setCursorDistanceFromTop(y);
+        return this;
+    }
+
+    /**
+     * Fills a rectangle with a character and a foreground and background color given as RGB values.
+     * Unlike {@link #clear(char, int, int, int, int, Color, Color)} the limits are checked once and every row is written with a single
+     * <code>Arrays.fill</code>. The fill is recorded as a bulk edit. The cursor position will not be modified.
+     * @param x              the distance from the left of the rectangle
+     * @param y              the distance from the top of the rectangle
+     * @param width          the width of the rectangle
+     * @param height         the height of the rectangle
+     * @param character      the character to write
+     * @param foregroundRGB  the foreground color
+     * @param backgroundRGB  the background color
+     * @return this for convenient chaining of method calls
+     */
+    public AsciiPanel fillRect(int x, int y, int width, int height, char character, int foregroundRGB, int backgroundRGB) {
+        if (character >= getSharedGlyphsList().length)
+            throw new IllegalArgumentException("character " + (int) character + " must be within range [0," + getSharedGlyphsList().length + "]." );
+
+        if (width < 1)
+            throw new IllegalArgumentException("width " + width + " must be greater than 0." );
+
+        if (height < 1)
+            throw new IllegalArgumentException("height " + height + " must be greater than 0." );
+
+        if (x < 0 || width > getPanelWidthInCharacters() - x)
+            throw new IllegalArgumentException("x " + x + " and width " + width + " must be within range [0," + getPanelWidthInCharacters() + "]." );
+
+        if (y < 0 || height > getPanelHeightInCharacters() - y)
+            throw new IllegalArgumentException("y " + y + " and height " + height + " must be within range [0," + getPanelHeightInCharacters() + "]." );
+
+        getEditHistory().markBulkEdit();
+        getPanelCells().fillRectUnchecked(x, y, width, height, CellBuffer.pack(character, foregroundRGB, backgroundRGB));
+        getEditHistory().regionChanged(x, y, width, height);
+        markDirty(x, y, width, height);
+        return this;
+    }
+
+    /**
+     * Copies a rectangle of cells of a buffer in the canvas, with a single <code>System.arraycopy</code> per row.
+     * The part of the copy that would fall outside the canvas is clipped, like in {@link #paintRaster(AsciiRaster, int, int, boolean)}.
+     * The source may be the cells of the canvas itself. The copy is recorded as a bulk edit. The cursor position will not be modified.
+     * @param source      the buffer to copy from
+     * @param sourceRect  the rectangle of cells to copy, it must be inside the source
+     * @param x           the distance from the left where the top left cell is copied
+     * @param y           the distance from the top where the top left cell is copied
+     * @return this for convenient chaining of method calls
+     */
+    public AsciiPanel blit(CellBuffer source, Rectangle sourceRect, int x, int y) {
+        if (source == null)
+            throw new NullPointerException("source must not be null." );
+
+        if (sourceRect == null)
+            throw new NullPointerException("sourceRect must not be null." );
+
+        if (sourceRect.x < 0 || sourceRect.y < 0 || sourceRect.width < 0 || sourceRect.height < 0
+                || sourceRect.width > source.getWidth() - sourceRect.x || sourceRect.height > source.getHeight() - sourceRect.y)
+            throw new IllegalArgumentException("sourceRect " + sourceRect + " must be within the source.");
+
+        int left = Math.max(x, 0);
+        int top = Math.max(y, 0);
+        int right = (int) Math.min((long) x + sourceRect.width, getPanelWidthInCharacters());
+        int bottom = (int) Math.min((long) y + sourceRect.height, getPanelHeightInCharacters());
+        if (right <= left || bottom <= top)
+            return this;
+
+        getEditHistory().markBulkEdit();
+        getPanelCells().blitUnchecked(source, sourceRect.x + left - x, sourceRect.y + top - y, right - left, bottom - top, left, top);
+        getEditHistory().regionChanged(left, top, right - left, bottom - top);
+        markDirty(left, top, right - left, bottom - top);
+        return this;
+    }
+
     /**
      * This method seems to be a sort of "wrapper method" to perform some tile transformation in the panel using the interface asciiart.asciipanel.TileTransformer.
 	 * However, it is never called or used in the application.
@@ -1011,25 +1659,89 @@ public class AsciiPanel extends JPanel {
      */
     public void withEachTile(int left, int top, int width, int height, TileTransformer transformer) {
 		AsciiCharacterData data = new AsciiCharacterData();
+		int fromX = Math.max(left, 0);
+		int fromY = Math.max(top, 0);
+		int toX = Math.min(left + width, getPanelWidthInCharacters());
+		int toY = Math.min(top + height, getPanelHeightInCharacters());
 		
-    	for (int x0 = 0; x0 < width; x0++)
-    	for (int y0 = 0; y0 < height; y0++) {
-    		int x = left + x0;
-    		int y = top + y0;
-    		
-    		if (x < 0 || y < 0 || x >= getPanelWidthInCharacters() || y >= getPanelHeightInCharacters())
-    			continue;
-    		
-    		data.setCharacter(getPanelCharsMatrix()[x][y]);
-    		data.setCharacterForegroundColor(getPanelCharsForegroundColors()[x][y]);
-    		data.setCharacterBackgroundColor(getPanelCharsBackgroundColors()[x][y]);
+    	for (int y = fromY; y < toY; y++)
+    	for (int x = fromX; x < toX; x++) {
+    		long cell = getPanelCells().get(x, y);
+    		data.setCharacter(CellBuffer.characterOf(cell));
+    		data.setCharacterForegroundColor(new Color(CellBuffer.foregroundOf(cell)));
+    		data.setCharacterBackgroundColor(new Color(CellBuffer.backgroundOf(cell)));
     		
     		transformer.transformTile(x, y, data);
     		
-    		getPanelCharsMatrix()[x][y] = data.getCharacter();
-    		getPanelCharsForegroundColors()[x][y] = data.getCharacterForegroundColor();
-    		getPanelCharsBackgroundColors()[x][y] = data.getCharacterBackgroundColor();
+    		Color foreground = data.getCharacterForegroundColor();
+    		Color background = data.getCharacterBackgroundColor();
+    		long transformed = CellBuffer.pack(data.getCharacter(),
+    				foreground == null ? 0 : foreground.getRGB(),
+    				background == null ? 0 : background.getRGB());
+    		if (transformed != cell) {
+    			setCell(x, y, transformed);
+    			markDirty(x, y, 1, 1);
+    		}
+    	}
+    }
+
+    /**
+     * Applies a primitive transformer to every cell of the canvas.
+     * @see #withEachTile(int, int, int, int, IntTileTransformer, boolean)
+     * 
+     * @param transformer is the transformer applied to every cell
+     * @param parallel tells if the rows are transformed in parallel on the common fork-join pool
+     * @return the bounds of the changed cells, or null if no cell has changed
+     */
+    public Rectangle withEachTile(IntTileTransformer transformer, boolean parallel) {
+    	return withEachTile(0, 0, getPanelWidthInCharacters(), getPanelHeightInCharacters(), transformer, parallel);
+    }
+
+    /**
+     * Applies a primitive transformer to every cell of a region of the canvas. The region is clipped to the canvas limits.
+     * 
+     * The cells are read and written as packed values, without creating any object. In parallel mode the region is split in
+     * stripes of rows transformed on the common fork-join pool (see {@link TileTransformStripe}), so whole-canvas effects like
+     * recoloring or noise use every core; the transformer must then be thread safe. A sparse canvas (see {@link CellBuffer})
+     * is always transformed on the calling thread, since a write may allocate a page shared by two stripes.
+     * Only the changed cells are written back, and only their bounds are marked dirty and told to the edit history, where the
+     * transformation is recorded as a bulk edit.
+     * 
+     * @param left is the <i>x</i>-coordinate of the top left cell of the region
+     * @param top is the <i>y</i>-coordinate of the top left cell of the region
+     * @param width is the width of the region, in characters
+     * @param height is the height of the region, in characters
+     * @param transformer is the transformer applied to every cell
+     * @param parallel tells if the rows are transformed in parallel on the common fork-join pool
+     * @return the bounds of the changed cells, or null if no cell has changed
+     */
+    public Rectangle withEachTile(int left, int top, int width, int height, IntTileTransformer transformer, boolean parallel) {
+    	if (transformer == null)
+    		throw new NullPointerException("transformer must not be null." );
+
+    	int fromX = Math.max(left, 0);
+    	int fromY = Math.max(top, 0);
+    	int toX = Math.min(left + width, getPanelWidthInCharacters());
+    	int toY = Math.min(top + height, getPanelHeightInCharacters());
+    	if (toX <= fromX || toY <= fromY)
+    		return null;
+
+    	getEditHistory().markBulkEdit();
+    	TileTransformStripe stripe = new TileTransformStripe(getPanelCells(), transformer, fromX, toX, fromY, toY);
+    	Rectangle changed = new Rectangle(fromX, fromY, toX - fromX, toY - fromY);
+    	try {
+    		if (parallel && !getPanelCells().isSparse())
+    			ForkJoinPool.commonPool().invoke(stripe);
+    		else
+    			stripe.transformRows();
+    		changed = stripe.getChangedBounds();
+    	} finally {
+    		if (changed != null) {
+    			getEditHistory().regionChanged(changed.x, changed.y, changed.width, changed.height);
+    			markDirty(changed.x, changed.y, changed.width, changed.height);
+    		}
     	}
+    	return changed;
     }
     
     /**
@@ -1039,7 +1751,7 @@ public class AsciiPanel extends JPanel {
 	 * @return the index of character selected by [x][y]
 	 */
 	public Integer pickPanelCharIndex(int px, int py) {
-		return new Integer(getPanelCharsMatrix()[px][py]);
+		return new Integer(getPanelCells().getCharacter(px, py));
 	}
 
 	/**
@@ -1049,7 +1761,7 @@ public class AsciiPanel extends JPanel {
 	 * @return the foreground color of character selected by [x][y]
 	 */
 	public Color pickPanelCharsForegroundColors(int px, int py) {
-		return getPanelCharsForegroundColors()[px][py];
+		return new Color(getPanelCells().getForegroundRGB(px, py));
 	}
 
 	/**
@@ -1059,11 +1771,12 @@ public class AsciiPanel extends JPanel {
 	 * @return the background color of character selected by [x][y]
 	 */
 	public Color pickPanelCharsBackgroundColors(int px, int py) {
-		return getPanelCharsBackgroundColors()[px][py];
+		return new Color(getPanelCells().getBackgroundRGB(px, py));
 	}
 
 	/**
 	 * Draws the raster of the image to be loaded into the drawing canvas.
+	 * When it is not transparent the raster is copied with {@link #blit(CellBuffer, Rectangle, int, int)}.
 	 * 
 	 * @see asciiart.imageeditor.ActionLoad#actionPerformed(ActionEvent e) which is the method that call this with image to load.
 	 * 
@@ -1075,22 +1788,25 @@ public class AsciiPanel extends JPanel {
 	 */
 	public AsciiPanel paintRaster(AsciiRaster raster,int x,int y,boolean transparent) {
 		
+		if (!transparent)
+			return blit(raster.getRasterCells(), new Rectangle(0, 0, raster.getRasterLimitX(), raster.getRasterLimitY()), x, y);
+
 		int dx=0;
 		int dy=0;
 		if (x<0) dx=-x;
 		if (y<0) dy=-y;
 		int sx=dx;
 		int sy=dy;
+		getEditHistory().markBulkEdit();
+		markDirty(x + dx, y + dy, raster.getRasterLimitX() - dx, raster.getRasterLimitY() - dy);
 		for (int xi=x+dx;xi<getPanelWidthInCharacters();xi++) {
 			sy=dy;
 			for (int yi=y+dy;yi<getPanelHeightInCharacters();yi++) {
 				
-				char nc=raster.getRasterCharsMatrix()[sx][sy];
+				long cell=raster.getRasterCells().get(sx, sy);
 					
-				if (nc!=0||!transparent) {
-					getPanelCharsMatrix()[xi][yi]=nc;
-					getPanelCharsForegroundColors()[xi][yi]=raster.getRasterCharsForegroundColors()[sx][sy];
-					getPanelCharsBackgroundColors()[xi][yi]=raster.getRasterCharsBackgroundColors()[sx][sy];
+				if (CellBuffer.characterOf(cell)!=0||!transparent) {
+					setCell(xi, yi, cell);
 				}
 				sy++;
 				if (sy==raster.getRasterLimitY()) break;
@@ -1119,12 +1835,22 @@ public class AsciiPanel extends JPanel {
 	}
 
 	/**
-     * The character list of the table character selection frame getter
-     * @return the character list of table character selection
+     * The character list of the table character selection frame getter.
+     * The list and its images are copies of the ones shared with all the panels using the same font, so the caller may modify them.
+     * @return a copy of the character list of table character selection
      */
     public BufferedImage[] getGlyphsList() {
-    	return glyphsList;
+    	return GlyphRegistry.copyGlyphs(glyphsList);
     }
+
+	/**
+	 * Returns the character list itself, shared through the {@link GlyphRegistry} with all the panels using the same font.
+	 * It is used by the panel to check and draw the characters, and it must not be modified.
+	 * @return the shared character list
+	 */
+	private BufferedImage[] getSharedGlyphsList() {
+		return glyphsList;
+	}
     
 	/**
 	 * The character list of the table character selection frame setter
@@ -1134,6 +1860,179 @@ public class AsciiPanel extends JPanel {
 		this.glyphsList = glyphsList;
 	}
 
+	/**
+	 * The tinted glyphs cache getter.
+	 * It can be used to read the hits and misses statistics of the cache.
+	 * @return the tinted glyphs cache
+	 */
+	public GlyphTintCache getGlyphTintCache() {
+		return glyphTintCache;
+	}
+
+	/**
+	 * The tinted glyphs cache setter
+	 * @param glyphTintCache is the cache to set
+	 */
+	private void setGlyphTintCache(GlyphTintCache glyphTintCache) {
+		this.glyphTintCache = glyphTintCache;
+	}
+
+	/**
+	 * The edit history getter
+	 * @return the undo and redo history of the canvas
+	 */
+	public EditHistory getEditHistory() {
+		return editHistory;
+	}
+
+	/**
+	 * The fill engine getter
+	 * @return the fill engine of the panel
+	 */
+	private FloodFiller getFloodFiller() {
+		return floodFiller;
+	}
+
+	/**
+	 * The rendering engine getter
+	 * @return the rendering mode of the panel
+	 */
+	public AsciiPanelRenderingMode getRenderingMode() {
+		return renderingMode;
+	}
+
+	/**
+	 * The rendering engine setter. It is called at construction time, before the font is set, and by
+	 * {@link #setAsciiFont(AsciiFont)} to fall back to {@link AsciiPanelRenderingMode#TINTED_GLYPHS} when the glyph atlas
+	 * of the font can not be built.
+	 * @param renderingMode is the rendering mode to set, if null the default one is used
+	 */
+	private void setRenderingMode(AsciiPanelRenderingMode renderingMode) {
+		if (renderingMode == null)
+			renderingMode = AsciiPanelRenderingMode.TINTED_GLYPHS;
+		this.renderingMode = renderingMode;
+	}
+
+	/**
+	 * The canvas mode getter
+	 * @return the canvas mode of the panel
+	 */
+	public AsciiPanelCanvasMode getCanvasMode() {
+		return canvasMode;
+	}
+
+	/**
+	 * The canvas mode setter. It is called only at construction time, before the font is set.
+	 * @param canvasMode is the canvas mode to set, if null the default one is used
+	 */
+	private void setCanvasMode(AsciiPanelCanvasMode canvasMode) {
+		if (canvasMode == null)
+			canvasMode = AsciiPanelCanvasMode.FULL_FRAME;
+		this.canvasMode = canvasMode;
+	}
+
+	/**
+	 * The tiled canvas renderer getter
+	 * @return the tiled canvas renderer, null if the canvas mode is not {@link AsciiPanelCanvasMode#TILED}
+	 */
+	private TiledCanvasRenderer getTiledCanvasRenderer() {
+		return tiledCanvasRenderer;
+	}
+
+	/**
+	 * The tiled canvas renderer setter
+	 * @param tiledCanvasRenderer is the renderer to set
+	 */
+	private void setTiledCanvasRenderer(TiledCanvasRenderer tiledCanvasRenderer) {
+		this.tiledCanvasRenderer = tiledCanvasRenderer;
+	}
+
+	/**
+	 * The render metrics getter
+	 * @return the registry where every paint is recorded, or null if the render metrics are not collected
+	 */
+	public RenderMetrics getRenderMetrics() {
+		return renderMetrics;
+	}
+
+	/**
+	 * The render metrics setter. From now on every paint is recorded in the given registry.
+	 * Without a registry the overlay is hidden, because there is nothing to show.
+	 * @param renderMetrics is the registry to set, or null to stop collecting the render metrics
+	 */
+	public void setRenderMetrics(RenderMetrics renderMetrics) {
+		this.renderMetrics = renderMetrics;
+		if (renderMetrics == null)
+			setMetricsOverlayVisible(false);
+	}
+
+	/**
+	 * Tells if the render metrics are drawn over the canvas.
+	 * @return true if the overlay is visible
+	 */
+	public boolean isMetricsOverlayVisible() {
+		return metricsOverlayVisible;
+	}
+
+	/**
+	 * Shows or hides the render metrics over the canvas. When it is shown without a registry, a new one is set.
+	 * The visible part of the canvas is repainted every {@value #METRICS_OVERLAY_REFRESH_DELAY} milliseconds while the overlay is shown,
+	 * so the metrics stay up to date even when nothing changes; those repaints are recorded as frames too.
+	 * @param metricsOverlayVisible tells if the overlay is visible
+	 */
+	public void setMetricsOverlayVisible(boolean metricsOverlayVisible) {
+		if (metricsOverlayVisible && getRenderMetrics() == null)
+			setRenderMetrics(new RenderMetrics());
+
+		this.metricsOverlayVisible = metricsOverlayVisible;
+		if (metricsOverlayVisible) {
+			if (metricsOverlayTimer == null) {
+				metricsOverlayTimer = new Timer(METRICS_OVERLAY_REFRESH_DELAY, new ActionListener() {
+					@Override
+					public void actionPerformed(ActionEvent e) {
+						repaint(getVisibleRect());
+					}
+				});
+			}
+			metricsOverlayTimer.start();
+		} else if (metricsOverlayTimer != null) {
+			metricsOverlayTimer.stop();
+		}
+		repaint(getVisibleRect());
+	}
+
+	/**
+	 * The glyph mask renderer getter
+	 * @return the glyph mask renderer, null if the rendering mode is not {@link AsciiPanelRenderingMode#RASTER_BLIT}
+	 */
+	private GlyphMaskRenderer getGlyphMaskRenderer() {
+		return glyphMaskRenderer;
+	}
+
+	/**
+	 * The glyph mask renderer setter
+	 * @param glyphMaskRenderer is the renderer to set
+	 */
+	private void setGlyphMaskRenderer(GlyphMaskRenderer glyphMaskRenderer) {
+		this.glyphMaskRenderer = glyphMaskRenderer;
+	}
+
+	/**
+	 * The glyph atlas renderer getter
+	 * @return the glyph atlas renderer, null if the rendering mode is not {@link AsciiPanelRenderingMode#GLYPH_ATLAS}
+	 */
+	private GlyphAtlasRenderer getGlyphAtlasRenderer() {
+		return glyphAtlasRenderer;
+	}
+
+	/**
+	 * The glyph atlas renderer setter
+	 * @param glyphAtlasRenderer is the renderer to set
+	 */
+	private void setGlyphAtlasRenderer(GlyphAtlasRenderer glyphAtlasRenderer) {
+		this.glyphAtlasRenderer = glyphAtlasRenderer;
+	}
+
     /**
      * Gets the width, in pixels, of a character.
      * @return characters width
@@ -1298,7 +2197,9 @@ public class AsciiPanel extends JPanel {
 
     /**
      * Sets the used font. It is advisable to make sure the parent component is properly sized after setting the font
-     * as the panel dimensions will most likely change
+     * as the panel dimensions will most likely change.
+     * In the {@link AsciiPanelRenderingMode#GLYPH_ATLAS} rendering mode, if the atlas of the font can not be built the panel
+     * switches to the {@link AsciiPanelRenderingMode#TINTED_GLYPHS} rendering mode.
      * @param font is the font to use
      */
     public void setAsciiFont(AsciiFont font) {
@@ -1315,14 +2216,35 @@ public class AsciiPanel extends JPanel {
         Dimension panelSize = new Dimension(getCharWidth() * getPanelWidthInCharacters(), getCharHeight() * getPanelHeightInCharacters());
         setPreferredSize(panelSize);
 
-        setGlyphsList(new BufferedImage[256]);
-
-        setOffscreenBuffer(new BufferedImage(panelSize.width, panelSize.height, BufferedImage.TYPE_INT_RGB));
-        setOffscreenGraphics(getOffscreenBuffer().getGraphics());
-
         loadGlyphsList();
+        setGlyphTintCache(new GlyphTintCache(getSharedGlyphsList()));
+        setGlyphAtlasRenderer(null);
+        if (getRenderingMode() == AsciiPanelRenderingMode.GLYPH_ATLAS) {
+        	try {
+        		setGlyphAtlasRenderer(new GlyphAtlasRenderer(GlyphRegistry.getAtlas(font)));
+        	} catch (IOException e) {
+        		System.err.println("getAtlas(): " + e.getMessage());
+        		setRenderingMode(AsciiPanelRenderingMode.TINTED_GLYPHS);
+        	}
+        }
 
-        setPanelOldChars(new char[getPanelWidthInCharacters()][getPanelHeightInCharacters()]);
+        if (getCanvasMode() == AsciiPanelCanvasMode.TILED) {
+        	if (getRenderingMode() == AsciiPanelRenderingMode.RASTER_BLIT) {
+        		setGlyphMaskRenderer(new GlyphMaskRenderer(getSharedGlyphsList(), getCharWidth(), getCharHeight(), null));
+        	}
+        	setTiledCanvasRenderer(new TiledCanvasRenderer(getPanelWidthInCharacters(), getPanelHeightInCharacters(),
+        			getCharWidth(), getCharHeight(), getGlyphTintCache(), getGlyphMaskRenderer(), getGlyphAtlasRenderer(),
+        			TiledCanvasRenderer.DEFAULT_CAPACITY));
+        } else {
+        	setOffscreenBuffer(new BufferedImage(panelSize.width, panelSize.height, BufferedImage.TYPE_INT_RGB));
+        	setOffscreenGraphics(getOffscreenBuffer().getGraphics());
+        	if (getRenderingMode() == AsciiPanelRenderingMode.RASTER_BLIT) {
+        		setGlyphMaskRenderer(new GlyphMaskRenderer(getSharedGlyphsList(), getCharWidth(), getCharHeight(), (BufferedImage) getOffscreenBuffer()));
+        	}
+        	setPanelOldCells(new CellBuffer(getPanelWidthInCharacters(), getPanelHeightInCharacters()));
+        }
+
+        markDirty(0, 0, getPanelWidthInCharacters(), getPanelHeightInCharacters());
     }
 
     /**
@@ -1362,19 +2284,57 @@ public class AsciiPanel extends JPanel {
 	}
 
 	/**
-	 * The chars matrix [x][y] of entire drawing space getter
-	 * @return the chars matrix
+	 * The cells of entire drawing space getter.
+	 * The returned buffer is the live storage of the panel: after changing it directly, call {@link #markDirty(int, int, int, int)}.
+	 * @return the panel cells
+	 */
+	public CellBuffer getPanelCells() {
+		return panelCells;
+	}
+
+	/**
+	 * The cells of entire drawing space setter
+	 * @param panelCells are the cells to set, with the same size of the panel
 	 */
+	public void setPanelCells(CellBuffer panelCells) {
+		this.panelCells = panelCells;
+		getEditHistory().attach(panelCells);
+		markDirty(0, 0, getPanelWidthInCharacters(), getPanelHeightInCharacters());
+	}
+
+	/**
+	 * The matrix of the canvas characters getter.
+	 * Can access to specific character with [x][y] values coordinates
+	 * @return a copy of the canvas characters
+	 * @deprecated the characters are kept in {@link #getPanelCells()}: the returned matrix is a copy and changing it does not change the canvas.
+	 */
+	@Deprecated
 	public char[][] getPanelCharsMatrix() {
-		return panelCharsMatrix;
+		char[][] chars = new char[getPanelWidthInCharacters()][getPanelHeightInCharacters()];
+		for (int x = 0; x < chars.length; x++)
+			for (int y = 0; y < chars[x].length; y++)
+				chars[x][y] = getPanelCells().getCharacter(x, y);
+		return chars;
 	}
 
 	/**
-	 * The chars matrix [x][y] of entire drawing space setter
-	 * @param chars is the char matrix to set
+	 * The matrix of the canvas characters setter. Every character is written in its cell keeping the colors of the cell;
+	 * the part of the matrix outside the canvas is ignored.
+	 * @param chars is the matrix of characters, indexed [x][y]
+	 * @deprecated write the cells with {@link #writeRow(int, int, char[], int[], int[], int, int)} or through {@link #getPanelCells()}.
 	 */
+	@Deprecated
 	public void setPanelCharsMatrix(char[][] chars) {
-		this.panelCharsMatrix = chars;
+		if (chars == null)
+			throw new NullPointerException("chars must not be null.");
+
+		for (int x = 0; x < Math.min(chars.length, getPanelWidthInCharacters()); x++) {
+			for (int y = 0; y < Math.min(chars[x].length, getPanelHeightInCharacters()); y++) {
+				long cell = getPanelCells().get(x, y);
+				setCell(x, y, CellBuffer.pack(chars[x][y], CellBuffer.foregroundOf(cell), CellBuffer.backgroundOf(cell)));
+			}
+		}
+		markDirty(0, 0, getPanelWidthInCharacters(), getPanelHeightInCharacters());
 	}
 
 	/**
@@ -1394,99 +2354,19 @@ public class AsciiPanel extends JPanel {
 	}
 
 	/**
-	 * The glyphSprite getter
-	 * @return the glyphSprite 
-	 */
-	private BufferedImage getGlyphSprite() {
-		return glyphSprite;
-	}
-
-	/**
-	 * The glyphSprite setter 
-	 * @param glyphSprite is the glyphSprite to set
-	 */
-	private void setGlyphSprite(BufferedImage glyphSprite) {
-		this.glyphSprite = glyphSprite;
-	}
-
-	/**
-	 * The panel chars background colors getter
-	 * @return the panel chars background color
-	 */
-	private Color[][] getPanelCharsBackgroundColors() {
-		return panelCharsBackgroundColors;
-	}
-
-	/**
-	 * The panel chars background colors setter
-	 * @param panelCharsBackgroundColors is the background colors to set
-	 */
-	private void setPanelCharsBackgroundColors(Color[][] panelCharsBackgroundColors) {
-		this.panelCharsBackgroundColors = panelCharsBackgroundColors;
-	}
-
-	/**
-	 * The panel chars foreground colors getter
-	 * @return the panel chars foreground colors
-	 */
-	private Color[][] getPanelCharsForegroundColors() {
-		return panelCharsForegroundColors;
-	}
-
-	/**
-	 * The panel chars foreground colors setter
-	 * @param panelCharsForegroundColors is the foreground colors to set
-	 */
-	private void setPanelCharsForegroundColors(Color[][] panelCharsForegroundColors) {
-		this.panelCharsForegroundColors = panelCharsForegroundColors;
-	}
-
-	/**
-	 * The old chars getter
-	 * @return the old chars
-	 */
-	private char[][] getPanelOldChars() {
-		return panelOldChars;
-	}
-
-	/**
-	 * The panel old chars setter
-	 * @param panelNewChars is the new panel chars to set
-	 */
-	private void setPanelOldChars(char[][] panelNewChars) {
-		this.panelOldChars = panelNewChars;
-	}
-
-	/**
-	 * The old panel chars background colors getter
-	 * @return the old panel chars background colors
-	 */
-	private Color[][] getPanelOldCharsBackgroundColors() {
-		return panelOldCharsBackgroundColors;
-	}
-
-	/**
-	 * The old panel chars background colors setter
-	 * @param panelNewCharsBackgroundColors is the new panel chars background colors to set
-	 */
-	private void setPanelOldCharsBackgroundColors(Color[][] panelNewCharsBackgroundColors) {
-		this.panelOldCharsBackgroundColors = panelNewCharsBackgroundColors;
-	}
-
-	/**
-	 * The old panel chars foreground colors getter
-	 * @return the old panel chars foreground colors
+	 * The old cells getter
+	 * @return the cells last drawn in the offscreen buffer
 	 */
-	private Color[][] getPanelOldCharsForegroundColors() {
-		return panelOldCharsForegroundColors;
+	private CellBuffer getPanelOldCells() {
+		return panelOldCells;
 	}
 
 	/**
-	 * The old panel chars foreground colors setter
-	 * @param panelNewCharsForegroundColors is the new panel chars foreground colors to set
+	 * The old cells setter
+	 * @param panelOldCells are the old cells to set
 	 */
-	private void setPanelOldCharsForegroundColors(Color[][] panelNewCharsForegroundColors) {
-		this.panelOldCharsForegroundColors = panelNewCharsForegroundColors;
+	private void setPanelOldCells(CellBuffer panelOldCells) {
+		this.panelOldCells = panelOldCells;
 	}
 
 	/**
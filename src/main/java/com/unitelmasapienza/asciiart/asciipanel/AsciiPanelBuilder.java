@@ -87,46 +87,30 @@ public class AsciiPanelBuilder {
     private BufferedImage[] glyphsList;
     
 	/**
-	 * <i>Builder</i> version of field panelCharsMatrix in AsciiPanel
-	 * 
+	 * <i>Builder</i> version of field panelCells in AsciiPanel
 	 */
-    private char[][] panelCharsMatrix;
+    private CellBuffer panelCells;
     
 	/**
-	 * <i>Builder</i> version of field panelCharsBackgroundColors in AsciiPanel
-	 * 
+	 * <i>Builder</i> version of field panelOldCells in AsciiPanel
 	 */
-    private Color[][] panelCharsBackgroundColors;
+    private CellBuffer panelOldCells;
     
 	/**
-	 * <i>Builder</i> version of field panelCharsForegroundColors in AsciiPanel
-	 * 
-	 */
-    private Color[][] panelCharsForegroundColors;
-    
-	/**
-	 * <i>Builder</i> version of field panelOldChars in AsciiPanel
-	 * 
-	 */
-    private char[][] panelOldChars;
-    
-	/**
-	 * <i>Builder</i> version of field panelOldCharsBackgroundColors in AsciiPanel
+	 * <i>Builder</i> version of field asciiFont in AsciiPanel
 	 * 
 	 */
-    private Color[][] panelOldCharsBackgroundColors;
-    
+    private AsciiFont asciiFont;
+
 	/**
-	 * <i>Builder</i> version of field panelOldCharsForegroundColors in AsciiPanel
-	 * 
+	 * <i>Builder</i> version of field renderingMode in AsciiPanel
 	 */
-    private Color[][] panelOldCharsForegroundColors;
-    
+    private AsciiPanelRenderingMode renderingMode;
+
 	/**
-	 * <i>Builder</i> version of field asciiFont in AsciiPanel
-	 * 
+	 * <i>Builder</i> version of field canvasMode in AsciiPanel
 	 */
-    private AsciiFont asciiFont;
+    private AsciiPanelCanvasMode canvasMode;
     
 	/**
 	 * <i>Builder</i> version of field mouseCursorX in AsciiPanel
@@ -216,69 +200,54 @@ public class AsciiPanelBuilder {
 	}
 	
 	/**
-	 * Sets the panel matrix for entire drawing space.
-	 * @param panelCharsMatrix is the matrix to set. If it's null, a new one will be created.
-	 * 
+	 * Sets the rendering engine of the panel.
+	 * @param renderingMode is the rendering mode to set. If it's null, {@link AsciiPanelRenderingMode#TINTED_GLYPHS} will be used.
 	 * @return Builder itself, as <i>Builder Pattern</i>.
-	 * 
 	 */
-	public AsciiPanelBuilder panelCharsMatrix(char[][] panelCharsMatrix) {
-		if(panelCharsMatrix == null || panelCharsMatrix.length == 0) {
-			this.panelCharsMatrix = new char[panelWidthInCharacters][panelHeightInCharacters];
-		} else this.panelCharsMatrix = panelCharsMatrix;
+	public AsciiPanelBuilder renderingMode(AsciiPanelRenderingMode renderingMode) {
+		if(renderingMode == null) {
+			this.renderingMode = AsciiPanelRenderingMode.TINTED_GLYPHS;
+		} else this.renderingMode = renderingMode;
 		return this;
 	}
 	
 	/**
-	 * Sets the chars background color from an array of colors which identified a specific char background color by its [x][y] coordinates.
-	 * 
-	 * @param panelCharsBackgroundColors is the background color for specific char. If it's null, a new one is created.
+	 * Sets the canvas mode of the panel. It must be called before {@link #panelOldCells(CellBuffer)}.
+	 * @param canvasMode is the canvas mode to set. If it's null, {@link AsciiPanelCanvasMode#FULL_FRAME} will be used.
 	 * @return Builder itself, as <i>Builder Pattern</i>.
-	 * 
 	 */
-	public AsciiPanelBuilder panelCharsBackgroundColors(Color[][] panelCharsBackgroundColors) {
-		if(panelCharsBackgroundColors == null || panelCharsBackgroundColors.length == 0) {
-			this.panelCharsBackgroundColors = new Color[panelWidthInCharacters][panelHeightInCharacters];
-		} else this.panelCharsBackgroundColors = panelCharsBackgroundColors;
+	public AsciiPanelBuilder canvasMode(AsciiPanelCanvasMode canvasMode) {
+		if(canvasMode == null) {
+			this.canvasMode = AsciiPanelCanvasMode.FULL_FRAME;
+		} else this.canvasMode = canvasMode;
 		return this;
 	}
 	
 	/**
-	 * Sets the chars foreground color from an array of colors which identified a specific char foreground color by its [x][y] coordinates.
-	 * 
-	 * @param panelCharsForegroundColors is the foreground color for specific char. If it's null, a new one is created.
+	 * Sets the cells for entire drawing space.
+	 * @param panelCells are the cells to set. If it's null, a new one will be created, sparse if the canvas mode is
+	 * {@link AsciiPanelCanvasMode#TILED}.
 	 * @return Builder itself, as <i>Builder Pattern</i>.
 	 */
-	public AsciiPanelBuilder panelCharsForegroundColors(Color[][] panelCharsForegroundColors) {
-		if(panelCharsForegroundColors == null || panelCharsForegroundColors.length == 0) {
-			this.panelCharsForegroundColors = new Color[panelWidthInCharacters][panelHeightInCharacters];
-		} else this.panelCharsForegroundColors = panelCharsForegroundColors;
+	public AsciiPanelBuilder panelCells(CellBuffer panelCells) {
+		if(panelCells == null) {
+			this.panelCells = new CellBuffer(panelWidthInCharacters, panelHeightInCharacters, canvasMode == AsciiPanelCanvasMode.TILED);
+		} else this.panelCells = panelCells;
 		return this;
 	}
 	
 	/**
-	 * Sets the old chars background color
-	 * 
-	 * @param panelOldCharsBackgroundColors
+	 * Sets the cells last drawn in the offscreen buffer.
+	 * @param panelOldCells are the old cells to set. If it's null, a new one will be created, unless the canvas mode is
+	 * {@link AsciiPanelCanvasMode#TILED} which does not use them.
 	 * @return Builder itself, as <i>Builder Pattern</i>.
 	 */
-	public AsciiPanelBuilder panelOldCharsBackgroundColors(Color[][] panelOldCharsBackgroundColors) {
-		if(panelOldCharsBackgroundColors == null || panelOldCharsBackgroundColors.length == 0) {
-			this.panelOldCharsBackgroundColors = new Color[panelWidthInCharacters][panelHeightInCharacters];
-		} else this.panelOldCharsBackgroundColors = panelOldCharsBackgroundColors;
-		return this;
-	}
-	
-	/**
-	 * Sets the old char foreground color
-	 * 
-	 * @param panelOldCharsForegroundColors
-	 * @return Builder itself, as <i>Builder Pattern</i>.
-	 */
-	public AsciiPanelBuilder panelOldCharsForegroundColors(Color[][] panelOldCharsForegroundColors) {
-		if(panelOldCharsForegroundColors == null || panelOldCharsForegroundColors.length == 0) {
-			this.panelOldCharsForegroundColors = new Color[panelWidthInCharacters][panelHeightInCharacters];
-		} else this.panelOldCharsForegroundColors = panelOldCharsForegroundColors;
+	public AsciiPanelBuilder panelOldCells(CellBuffer panelOldCells) {
+		if(canvasMode == AsciiPanelCanvasMode.TILED) {
+			this.panelOldCells = null;
+		} else if(panelOldCells == null) {
+			this.panelOldCells = new CellBuffer(panelWidthInCharacters, panelHeightInCharacters);
+		} else this.panelOldCells = panelOldCells;
 		return this;
 	}
 	
@@ -290,9 +259,8 @@ public class AsciiPanelBuilder {
 	 * @return The AsciiPanel object is the concrete built panel object.
 	 */
 	public AsciiPanel build() {
-		return new AsciiPanel(panelWidthInCharacters, panelHeightInCharacters, asciiFont, defaultBackgroundColor,
-				defaultForegroundColor, panelCharsMatrix, panelCharsBackgroundColors, panelCharsForegroundColors,
-				panelOldCharsBackgroundColors, panelOldCharsForegroundColors);
+		return new AsciiPanel(panelWidthInCharacters, panelHeightInCharacters, asciiFont, renderingMode, canvasMode,
+				defaultBackgroundColor, defaultForegroundColor, panelCells, panelOldCells);
 	}
 	
 	
@@ -518,110 +486,51 @@ public class AsciiPanelBuilder {
 	}
 
 	/**
-	 * <b>Builder</b> Version of the chars matrix [x][y] of entire drawing space getter.
-	 * 
-	 * @return the chars matrix
-	 */
-	public char[][] getPanelCharsMatrix() {
-		return panelCharsMatrix;
-	}
-
-	/**
-	 * <b>Builder</b> Version of the chars matrix [x][y] of entire drawing space setter.
-	 * 
-	 * @param chars is the char matrix to set
-	 */
-	public void setPanelCharsMatrix(char[][] panelCharsMatrix) {
-		this.panelCharsMatrix = panelCharsMatrix;
-	}
-
-	/**
-	 * <b>Builder</b> Version of the panel chars background colors getter.
-	 * 
-	 * @return the panel chars background color
-	 */
-	public Color[][] getPanelCharsBackgroundColors() {
-		return panelCharsBackgroundColors;
-	}
-
-	/**
-	 * <b>Builder</b> Version of the panel chars background colors setter.
-	 * 
-	 * @param panelCharsBackgroundColors is the background colors to set
-	 */
-	public void setPanelCharsBackgroundColors(Color[][] panelCharsBackgroundColors) {
-		this.panelCharsBackgroundColors = panelCharsBackgroundColors;
-	}
-
-	/**
-	 * <b>Builder</b> Version of the panel chars foreground colors getter.
-	 * 
-	 * @return the panel chars foreground colors
+	 * <b>Builder</b> Version of the cells of entire drawing space getter.
+	 * @return the panel cells
 	 */
-	public Color[][] getPanelCharsForegroundColors() {
-		return panelCharsForegroundColors;
+	public CellBuffer getPanelCells() {
+		return panelCells;
 	}
 
 	/**
-	 * <b>Builder</b> Version of the panel chars foreground colors setter.
-	 * 
-	 * @param panelCharsForegroundColors is the foreground colors to set
+	 * <b>Builder</b> Version of the cells of entire drawing space setter.
+	 * @param panelCells are the cells to set
 	 */
-	public void setPanelCharsForegroundColors(Color[][] panelCharsForegroundColors) {
-		this.panelCharsForegroundColors = panelCharsForegroundColors;
+	public void setPanelCells(CellBuffer panelCells) {
+		this.panelCells = panelCells;
 	}
 
 	/**
-	 * <b>Builder</b> Version of the old chars getter.
-	 * 
-	 * @return the old chars
+	 * <b>Builder</b> Version of the old cells getter.
+	 * @return the old cells
 	 */
-	public char[][] getPanelOldChars() {
-		return panelOldChars;
+	public CellBuffer getPanelOldCells() {
+		return panelOldCells;
 	}
 
 	/**
-	 * <b>Builder</b> Version of the panel old chars setter.
-	 * 
-	 * @param panelNewChars is the new panel chars to set
+	 * <b>Builder</b> Version of the old cells setter.
+	 * @param panelOldCells are the old cells to set
 	 */
-	public void setPanelOldChars(char[][] panelOldChars) {
-		this.panelOldChars = panelOldChars;
+	public void setPanelOldCells(CellBuffer panelOldCells) {
+		this.panelOldCells = panelOldCells;
 	}
 
 	/**
-	 * <b>Builder</b> Version of the old panel chars background colors getter.
-	 * @return the old panel chars background colors
+	 * <b>Builder</b> Version of the rendering engine getter.
+	 * @return the rendering mode
 	 */
-	public Color[][] getPanelOldCharsBackgroundColors() {
-		return panelOldCharsBackgroundColors;
+	public AsciiPanelRenderingMode getRenderingMode() {
+		return renderingMode;
 	}
 
 	/**
-	 * <b>Builder</b> Version of the old panel chars background colors setter.
-	 * 
-	 * @param panelNewCharsBackgroundColors is the new panel chars background colors to set
-	 */
-	public void setPanelOldCharsBackgroundColors(Color[][] panelOldCharsBackgroundColors) {
-		this.panelOldCharsBackgroundColors = panelOldCharsBackgroundColors;
-	}
-
-	/**
-	 * <b>Builder</b> Version of the old panel chars foreground colors getter.
-	 * 
-	 * @return the old panel chars foreground colors
-	 */
-	public Color[][] getPanelOldCharsForegroundColors() {
-		return panelOldCharsForegroundColors;
-	}
-
-	/**
-	 * <b>Builder</b> Version of the old panel chars foreground colors setter.
-	 * 
-	 * @param panelNewCharsForegroundColors is the new panel chars foreground colors to set
+	 * <b>Builder</b> Version of the rendering engine setter.
+	 * @param renderingMode is the rendering mode to set
 	 */
-	public void setPanelOldCharsForegroundColors(Color[][] panelOldCharsForegroundColors) {
-		this.panelOldCharsForegroundColors = panelOldCharsForegroundColors;
+	public void setRenderingMode(AsciiPanelRenderingMode renderingMode) {
+		this.renderingMode = renderingMode;
 	}
 
     /**
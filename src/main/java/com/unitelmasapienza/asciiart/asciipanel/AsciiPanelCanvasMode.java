@@ -0,0 +1,51 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * This enumeration lists the <b>ways the AsciiPanel keeps the pixels of the canvas</b>.
+ * The mode is chosen when the panel is created.
+ * 
+ * @see AsciiPanel#paint(java.awt.Graphics) which draws the canvas in the chosen mode.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum AsciiPanelCanvasMode {
+
+	/**
+	 * The whole canvas is drawn in one offscreen buffer as large as the panel, and a copy of the cells last drawn
+	 * is kept to redraw only the changed ones. This is the default mode.
+	 */
+	FULL_FRAME,
+
+	/**
+	 * The canvas is drawn tile by tile, only for the tiles that are visible, and the bitmaps of the tiles are kept
+	 * in a bounded LRU cache. The memory used for the pixels depends on the size of the viewport and not on the size of the canvas,
+	 * so the panel is meant to be shown inside a <code>JScrollPane</code>. The cells are kept in a sparse {@link CellBuffer},
+	 * whose pages are allocated only when they are drawn on.
+	 * @see TiledCanvasRenderer
+	 */
+	TILED;
+
+	/**
+	 * The largest number of pixels of a canvas drawn in {@link #FULL_FRAME} mode by {@link #forCanvas(int, int, AsciiFont)}:
+	 * 4096x4096 pixels, which is a 64 MB offscreen buffer
+	 * 
+	 */
+	public static final long FULL_FRAME_PIXELS_LIMIT = 4096L * 4096;
+
+	/**
+	 * Chooses the mode for a canvas: {@link #TILED} when the offscreen buffer of the whole canvas would be larger than
+	 * {@link #FULL_FRAME_PIXELS_LIMIT}, {@link #FULL_FRAME} otherwise.
+	 * @param width is the width of the canvas, in characters
+	 * @param height is the height of the canvas, in characters
+	 * @param font is the font of the canvas, if null the standard font CP437_9x16 is considered
+	 * @return the mode to use
+	 */
+	public static AsciiPanelCanvasMode forCanvas(int width, int height, AsciiFont font) {
+		if (font == null)
+			font = AsciiFont.CP437_9x16;
+
+		long pixels = (long) width * font.getFontWidth() * height * font.getFontHeight();
+		return pixels > FULL_FRAME_PIXELS_LIMIT ? TILED : FULL_FRAME;
+	}
+}
@@ -0,0 +1,34 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * This enumeration lists the <b>rendering engines available for the AsciiPanel</b>.
+ * The engine is chosen when the panel is created and it is used by the panel to draw the changed cells in its offscreen buffer.
+ * 
+ * @see AsciiPanel#paint(java.awt.Graphics) which draws the cells with the chosen engine.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum AsciiPanelRenderingMode {
+
+	/**
+	 * Every cell is drawn with <code>Graphics.drawImage</code> using a glyph tinted with the cell colors.
+	 * The tinted glyphs are kept in a {@link GlyphTintCache}.
+	 * This is the default engine.
+	 */
+	TINTED_GLYPHS,
+
+	/**
+	 * Every cell is written directly in the pixels array of the offscreen buffer, using a 1-bit coverage mask of the glyph
+	 * to choose between the foreground and the background color of every pixel.
+	 * @see GlyphMaskRenderer
+	 */
+	RASTER_BLIT,
+
+	/**
+	 * Every cell is drawn filling its rectangle with the background color and then copying the glyph rectangle from a single
+	 * atlas image of the font, tinted with the foreground color.
+	 * @see GlyphAtlasRenderer
+	 */
+	GLYPH_ATLAS
+}
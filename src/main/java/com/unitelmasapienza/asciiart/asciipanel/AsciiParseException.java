@@ -0,0 +1,62 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.io.IOException;
+
+/**
+ * The exception thrown when a <b>drawing file is malformed</b>.
+ * It tells the line and the column where the problem has been found, both counted from 1.
+ * 
+ * @see AsciiTextParser which throws it.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiParseException extends IOException {
+
+	/**
+	 * The serial version
+	 *
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The line of the problem
+	 *
+	 */
+	private int line;
+
+	/**
+	 * The column of the problem
+	 *
+	 */
+	private int column;
+
+	/**
+	 * Exception constructor.
+	 * @param source is the name of the parsed file
+	 * @param line is the line of the problem
+	 * @param column is the column of the problem
+	 * @param message is the description of the problem
+	 */
+	public AsciiParseException(String source, int line, int column, String message) {
+		super(source + ":" + line + ":" + column + ": " + message);
+		this.line = line;
+		this.column = column;
+	}
+
+	/**
+	 * The line getter
+	 * @return the line of the problem, from 1
+	 */
+	public int getLine() {
+		return line;
+	}
+
+	/**
+	 * The column getter
+	 * @return the column of the problem, from 1
+	 */
+	public int getColumn() {
+		return column;
+	}
+}
@@ -2,8 +2,7 @@ package com.unitelmasapienza.asciiart.asciipanel;
 
 import java.awt.Color;
 import java.awt.event.ActionEvent;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
 
 /**
  * The class consists of an array of cells (or pixels) organized in rows and columns (or a grid) 
@@ -19,23 +18,11 @@ import java.io.FileReader;
 public class AsciiRaster {
 
 	/**
-	 * Is the chars matrix. 
-	 * Can access to character by [x][y] coordinates
+	 * Are the cells of the raster. 
+	 * Can access to character and its foreground and background colors by [x][y] coordinates
 	 * 
 	 */
-	private char[][] rasterCharsMatrix;
-
-	/**
-	 * Is the foreground color information for the character in [x][y] coordinates.
-	 * 
-	 */
-	private Color[][] rasterCharsForegroundColors;
-
-	/**
-	 * Is the background color information for the character in [x][y] coordinates.
-	 * 
-	 */
-	private Color[][] rasterCharsBackgroundColors;
+	private CellBuffer rasterCells;
 
 	/**
 	 * Is the maximum <i>x</i>-coordinate of the raster.
@@ -60,52 +47,44 @@ public class AsciiRaster {
 	public AsciiRaster(int limitX, int limitY) {
 		setRasterLimitX(limitX);
 		setRasterLimitY(limitY);
-		setRasterCharsMatrix(new char[limitX][limitY]);
-		setRasterCharsForegroundColors(new Color[limitX][limitY]);
-		setRasterCharsBackgroundColors(new Color[limitX][limitY]);
+		setRasterCells(new CellBuffer(limitX, limitY));
 	}
 
 	/**
 	 * This method can be seen as a "constructor" which is called from other classes. 
 	 * It creates and returns an AsciiRaster from the absolute path of a file (this filename) to be loaded.
+	 * The file can be in any of the {@link AsciiFileFormat}s: the binary one is recognized by its magic bytes.
 	 * 
 	 * @see asciiart.imageeditor.ActionLoad#actionPerformed(ActionEvent e) which call to load an Ascii image into drawing canvas.
 	 * @param filename is the filename to be loaded (its absolute path in the file system will be retrieved)
 	 * @return an AsciiRaster object containing all the information of the image to be uploaded.
+	 * @throws IOException if the file can not be read or it is malformed; for the text format the message tells the line and the column
+	 */
+	public static AsciiRaster createRasterFromFile(String filename) throws IOException {
+		if (AsciiBinaryFormat.isBinary(filename))
+			return AsciiBinaryFormat.read(filename);
+		return AsciiTextParser.parse(filename);
+	}
+
+	/**
+	 * Saves the raster in a file with the same text format written by {@link AsciiPanel#save(String)},
+	 * so the file can be loaded in the application.
+	 * @param filename is the absolute path of the file to write
+	 * @throws IOException if the file can not be written
+	 */
+	public void save(String filename) throws IOException {
+		save(filename, AsciiFileFormat.TEXT);
+	}
+
+	/**
+	 * Saves the raster in a file with the given format, atomically: a failed save leaves the file as it was.
+	 * @see AsciiFileWriter which writes the file.
+	 * @param filename is the absolute path of the file to write
+	 * @param format is the format of the file
+	 * @throws IOException if the file can not be written
 	 */
-	public static AsciiRaster createRasterFromFile(String filename) {
-		BufferedReader br;
-		AsciiRaster raster = null;
-		try {
-			br = new BufferedReader(new FileReader(filename));
-			
-			int limitX = Integer.parseInt(br.readLine());
-			int limitY = Integer.parseInt(br.readLine());
-			raster = new AsciiRaster(limitX,limitY);
-			int x = 0;
-			int y = 0;
-			while (br.ready()) {
-				//System.out.println("Loading x:"+x+"/sx:"+sx+" y:"+y+"/ sy:"+sy);
-				String line = br.readLine();
-				String[] lines = line.split("\t");
-				Color foregroundColor = new Color(Integer.parseInt(lines[1]));
-				Color backgroundColor = new Color(Integer.parseInt(lines[2]));
-				char character = (char)Integer.parseInt(lines[0]);
-				raster.getRasterCharsMatrix()[y][x] = character;
-				raster.getRasterCharsForegroundColors()[y][x] = foregroundColor;
-				raster.getRasterCharsBackgroundColors()[y][x] = backgroundColor;
-				x++;
-				if (x == limitY) {
-					x = 0;
-					y++;
-					if (y == limitX) break;
-				}
-			}
-			br.close();	
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-		return raster;
+	public void save(String filename, AsciiFileFormat format) throws IOException {
+		AsciiFileWriter.write(getRasterCells(), filename, format);
 	}
 
 	/**
@@ -141,56 +120,68 @@ public class AsciiRaster {
 	}
 
 	/**
-	 * The matrix of raster characters getter.
-	 * Can access to specific character with [x][y] values coordinates
-	 * @return the matrix of raster characters
+	 * The raster cells getter.
+	 * Can access to specific character and colors with [x][y] values coordinates
+	 * @return the cells of the raster
 	 */
-	public char[][] getRasterCharsMatrix() {
-		return rasterCharsMatrix;
+	public CellBuffer getRasterCells() {
+		return rasterCells;
 	}
 
 	/**
-	 * The matrix of raster characters setter.
-	 * @param the matrix of raster characters
+	 * The matrix of raster characters getter.
+	 * Can access to specific character with [x][y] values coordinates
+	 * @return a copy of the raster characters
+	 * @deprecated the characters are kept in {@link #getRasterCells()}: the returned matrix is a copy.
 	 */
-	private void setRasterCharsMatrix(char[][] chars) {
-		this.rasterCharsMatrix = chars;
+	@Deprecated
+	public char[][] getRasterCharsMatrix() {
+		CellBuffer cells = getRasterCells();
+		char[][] chars = new char[cells.getWidth()][cells.getHeight()];
+		for (int x = 0; x < cells.getWidth(); x++)
+			for (int y = 0; y < cells.getHeight(); y++)
+				chars[x][y] = cells.getCharacter(x, y);
+		return chars;
 	}
 
 	/**
 	 * The matrix of raster foreground colors getter.
 	 * Can access to specific foreground colors with [x][y] values coordinates
-	 * @return the matrix of foreground colors
+	 * @return a copy of the foreground colors
+	 * @deprecated the colors are kept in {@link #getRasterCells()}: the returned matrix is a copy.
 	 */
+	@Deprecated
 	public Color[][] getRasterCharsForegroundColors() {
-		return rasterCharsForegroundColors;
+		CellBuffer cells = getRasterCells();
+		Color[][] colors = new Color[cells.getWidth()][cells.getHeight()];
+		for (int x = 0; x < cells.getWidth(); x++)
+			for (int y = 0; y < cells.getHeight(); y++)
+				colors[x][y] = new Color(cells.getForegroundRGB(x, y));
+		return colors;
 	}
 
-	/**
-	 * The matrix of raster foreground colors setter.
-	 * Can access to specific foreground colors with [x][y] values coordinates
-	 * @param the matrix of foreground colors
-	 */
-	private void setRasterCharsForegroundColors(Color[][] forecolors) {
-		this.rasterCharsForegroundColors = forecolors;
-	}
-	
 	/**
 	 * The matrix of raster background colors getter.
 	 * Can access to specific background colors with [x][y] values coordinates
-	 * @return the matrix of foreground colors
+	 * @return a copy of the background colors
+	 * @deprecated the colors are kept in {@link #getRasterCells()}: the returned matrix is a copy.
 	 */
+	@Deprecated
 	public Color[][] getRasterCharsBackgroundColors() {
-		return rasterCharsBackgroundColors;
+		CellBuffer cells = getRasterCells();
+		Color[][] colors = new Color[cells.getWidth()][cells.getHeight()];
+		for (int x = 0; x < cells.getWidth(); x++)
+			for (int y = 0; y < cells.getHeight(); y++)
+				colors[x][y] = new Color(cells.getBackgroundRGB(x, y));
+		return colors;
 	}
 
 	/**
-	 * The matrix of raster background colors setter.
-	 * Can access to specific foreground colors with [x][y] values coordinates
-	 * @param the matrix of background colors
+	 * The raster cells setter.
+	 * @param rasterCells are the cells of the raster
 	 */
-	private void setRasterCharsBackgroundColors(Color[][] backcolors) {
-		this.rasterCharsBackgroundColors = backcolors;
+	private void setRasterCells(CellBuffer rasterCells) {
+		this.rasterCells = rasterCells;
 	}
 
 }
@@ -0,0 +1,193 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.util.Arrays;
+
+/**
+ * The class is a <b>stroke painted by dragging the mouse</b> on the canvas.
+ *
+ * The mouse events arrive at intervals, so two samples of a fast drag can be many cells apart: the stroke joins every sample to the
+ * previous one with the Bresenham line algorithm, so no cell is skipped. The cells of a segment are first collected in a batch of
+ * indices and then written together, marking a single dirty region for the next repaint.
+ *
+ * The whole stroke, from {@link AsciiPanel#beginStroke(int, int, char, java.awt.Color, java.awt.Color)} to {@link #end()},
+ * is a single edit of the panel, so it is undone in one step.
+ * The cells outside the canvas are skipped, so the mouse can leave the panel while dragging.
+ *
+ * @see AsciiPanel#beginStroke(int, int, char, java.awt.Color, java.awt.Color) which creates it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiStroke {
+
+	/**
+	 * The initial capacity of the batch of cells
+	 *
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The panel painted by the stroke
+	 *
+	 */
+	private AsciiPanel panel;
+
+	/**
+	 * The packed cell written by the stroke
+	 *
+	 */
+	private long cell;
+
+	/**
+	 * The <i>x</i>-coordinate of the last sample, in cells
+	 *
+	 */
+	private int lastX;
+
+	/**
+	 * The <i>y</i>-coordinate of the last sample, in cells
+	 *
+	 */
+	private int lastY;
+
+	/**
+	 * The indices of the cells collected and not written yet
+	 *
+	 */
+	private int[] batch = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The number of cells in the batch
+	 *
+	 */
+	private int batchSize;
+
+	/**
+	 * The bounding box of the batch: left and right (inclusive) limits, in cells
+	 *
+	 */
+	private int batchLeft, batchRight;
+
+	/**
+	 * The bounding box of the batch: top and bottom (inclusive) limits, in cells
+	 *
+	 */
+	private int batchTop, batchBottom;
+
+	/**
+	 * Tells if the stroke has been ended
+	 *
+	 */
+	private boolean ended;
+
+	/**
+	 * Stroke constructor. It paints the first cell. The panel edit must be already open.
+	 * @param panel is the panel to paint
+	 * @param x is the <i>x</i>-coordinate of the first cell
+	 * @param y is the <i>y</i>-coordinate of the first cell
+	 * @param cell is the packed cell to write
+	 */
+	AsciiStroke(AsciiPanel panel, int x, int y, long cell) {
+		this.panel = panel;
+		this.cell = cell;
+		this.lastX = x;
+		this.lastY = y;
+		collect(x, y);
+		flush();
+	}
+
+	/**
+	 * Continues the stroke to a new sample, painting all the cells of the line from the previous sample.
+	 * @param x is the <i>x</i>-coordinate of the sample, in cells
+	 * @param y is the <i>y</i>-coordinate of the sample, in cells
+	 */
+	public void lineTo(int x, int y) {
+		if (ended)
+			throw new IllegalStateException("the stroke has been ended.");
+
+		if (x == lastX && y == lastY)
+			return;
+
+		int dx = Math.abs(x - lastX);
+		int dy = -Math.abs(y - lastY);
+		int stepX = lastX < x ? 1 : -1;
+		int stepY = lastY < y ? 1 : -1;
+		int error = dx + dy;
+		int cx = lastX;
+		int cy = lastY;
+		while (cx != x || cy != y) {
+			int doubleError = 2 * error;
+			if (doubleError >= dy) {
+				error += dy;
+				cx += stepX;
+			}
+			if (doubleError <= dx) {
+				error += dx;
+				cy += stepY;
+			}
+			collect(cx, cy);
+		}
+		lastX = x;
+		lastY = y;
+		flush();
+	}
+
+	/**
+	 * Ends the stroke, closing its edit of the panel. Calling it again does nothing.
+	 *
+	 */
+	public void end() {
+		if (ended)
+			return;
+
+		ended = true;
+		panel.endEdit();
+	}
+
+	/**
+	 * Adds a cell to the batch, if it is inside the canvas.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 */
+	private void collect(int x, int y) {
+		CellBuffer cells = panel.getPanelCells();
+		if (x < 0 || y < 0 || x >= cells.getWidth() || y >= cells.getHeight())
+			return;
+
+		if (batchSize == batch.length)
+			batch = Arrays.copyOf(batch, batch.length * 2);
+
+		if (batchSize == 0) {
+			batchLeft = batchRight = x;
+			batchTop = batchBottom = y;
+		} else {
+			batchLeft = Math.min(batchLeft, x);
+			batchRight = Math.max(batchRight, x);
+			batchTop = Math.min(batchTop, y);
+			batchBottom = Math.max(batchBottom, y);
+		}
+		batch[batchSize++] = cells.index(x, y);
+	}
+
+	/**
+	 * Writes the cells of the batch and marks their bounding box dirty.
+	 *
+	 */
+	private void flush() {
+		if (batchSize == 0)
+			return;
+
+		for (int i = 0; i < batchSize; i++)
+			panel.setCell(batch[i], cell);
+		panel.markDirty(batchLeft, batchTop, batchRight - batchLeft + 1, batchBottom - batchTop + 1);
+		batchSize = 0;
+	}
+
+	/**
+	 * The ended getter
+	 * @return true if the stroke has been ended
+	 */
+	public boolean isEnded() {
+		return ended;
+	}
+}
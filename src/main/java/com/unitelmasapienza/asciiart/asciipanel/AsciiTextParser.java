@@ -0,0 +1,304 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The class is the <b>streaming parser of the text drawing files</b>, the format written by {@link AsciiPanel#save(String)}:
+ * the width and the height on the first two lines, then one line for every cell, column by column,
+ * with the character code, the foreground ARGB and the background ARGB separated by tabs.
+ *
+ * The file is read through a fixed window of bytes and the numbers are parsed by hand, directly from the bytes, so parsing
+ * creates no object for a cell and the memory used does not depend on the size of the file. The cells are handed to an
+ * {@link AsciiCellSink}; {@link #parse(String)} collects them in an {@link AsciiRaster}, while a {@link TiledCellSink} takes
+ * drawings larger than the memory.
+ *
+ * A malformed file stops the parsing with an {@link AsciiParseException} that tells the line and the column of the problem.
+ * The size in the header is checked against the length of the file before the sink is prepared, so a corrupted header can not
+ * make the sink allocate room for cells that the file can not hold.
+ * Lines may end with <code>\n</code> or <code>\r\n</code>; whatever follows the last cell is ignored.
+ *
+ * @see AsciiRaster#createRasterFromFile(String) which uses it for the text files.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiTextParser {
+
+	/**
+	 * The size of the window of bytes read from the file
+	 *
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The value returned when the end of the file is reached
+	 *
+	 */
+	private static final int END_OF_FILE = -1;
+
+	/**
+	 * The shortest line of a cell: three one-digit values, two tabs and the end of the line (<code>0\t0\t0\n</code>)
+	 *
+	 */
+	private static final int MIN_CELL_SIZE = 6;
+
+	/**
+	 * The name of the parsed file, used in the error messages
+	 *
+	 */
+	private String source;
+
+	/**
+	 * The channel of the parsed file
+	 *
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The window of bytes read from the file
+	 *
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The bytes of the window
+	 *
+	 */
+	private byte[] bytes;
+
+	/**
+	 * The index of the next byte to read in the window
+	 *
+	 */
+	private int position;
+
+	/**
+	 * The number of valid bytes in the window
+	 *
+	 */
+	private int limit;
+
+	/**
+	 * The line of the next byte, from 1
+	 *
+	 */
+	private int line = 1;
+
+	/**
+	 * The column of the next byte, from 1
+	 *
+	 */
+	private int column = 1;
+
+	/**
+	 * Parser constructor.
+	 * @param source is the name of the file
+	 * @param channel is the channel to read
+	 */
+	private AsciiTextParser(String source, FileChannel channel) {
+		this.source = source;
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.bytes = buffer.array();
+	}
+
+	/**
+	 * Parses a text file into a raster.
+	 * @param filename is the absolute path of the file
+	 * @return the raster with all the cells of the file
+	 * @throws IOException if the file can not be read, it is malformed or it is too large for a raster
+	 */
+	public static AsciiRaster parse(final String filename) throws IOException {
+		final AsciiRaster[] raster = new AsciiRaster[1];
+		parse(filename, new AsciiCellSink() {
+
+			@Override
+			public void begin(int width, int height) throws IOException {
+				if ((long) width * height > Integer.MAX_VALUE)
+					throw new IOException(filename + ": " + width + "x" + height + " cells do not fit in a raster.");
+				raster[0] = new AsciiRaster(width, height);
+			}
+
+			@Override
+			public void putCell(int x, int y, long cell) {
+				raster[0].getRasterCells().set(x, y, cell);
+			}
+		});
+		return raster[0];
+	}
+
+	/**
+	 * Parses a text file, streaming its cells into a sink.
+	 * @param filename is the absolute path of the file
+	 * @param sink is the destination of the cells
+	 * @throws IOException if the file can not be read, it is malformed or the sink fails
+	 */
+	public static void parse(String filename, AsciiCellSink sink) throws IOException {
+		if (sink == null)
+			throw new NullPointerException("sink must not be null.");
+
+		FileInputStream in = new FileInputStream(filename);
+		try {
+			new AsciiTextParser(filename, in.getChannel()).parseInto(sink);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Parses the whole file.
+	 * @param sink is the destination of the cells
+	 * @throws IOException if the file can not be read, it is malformed or the sink fails
+	 */
+	private void parseInto(AsciiCellSink sink) throws IOException {
+		int width = readInt("width");
+		if (width < 1)
+			throw error("width " + width + " must be greater than 0.");
+		readLineEnd();
+		int height = readInt("height");
+		if (height < 1)
+			throw error("height " + height + " must be greater than 0.");
+		readLineEnd();
+
+		long cells = (long) width * height;
+		long remaining = channel.size() - channel.position() + (limit - position);
+		if (remaining < cells * MIN_CELL_SIZE - 1)
+			throw error("the file has " + remaining + " bytes left, too few for " + width + "x" + height + " cells.");
+
+		sink.begin(width, height);
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				if (peek() == END_OF_FILE)
+					throw error("the file ends after " + ((long) x * height + y) + " of " + ((long) width * height) + " cells.");
+
+				char character = (char) readInt("character");
+				readSeparator();
+				int foreground = readInt("foreground color");
+				readSeparator();
+				int background = readInt("background color");
+				if (x < width - 1 || y < height - 1)
+					readLineEnd();
+
+				sink.putCell(x, y, CellBuffer.pack(character, foreground, background));
+			}
+		}
+	}
+
+	/**
+	 * Reads a decimal int, with an optional sign.
+	 * @param what is the name of the value, used in the error messages
+	 * @return the value read
+	 * @throws IOException if the file can not be read or there is no valid int
+	 */
+	private int readInt(String what) throws IOException {
+		boolean negative = false;
+		int next = peek();
+		if (next == '-' || next == '+') {
+			negative = next == '-';
+			advance();
+			next = peek();
+		}
+		if (next < '0' || next > '9')
+			throw error("expected the " + what + " but found " + describe(next) + ".");
+
+		long value = 0;
+		while (next >= '0' && next <= '9') {
+			value = value * 10 + (next - '0');
+			if (value > 0x80000000L)
+				throw error("the " + what + " does not fit in an int.");
+			advance();
+			next = peek();
+		}
+		if (negative)
+			value = -value;
+		if (value > Integer.MAX_VALUE)
+			throw error("the " + what + " does not fit in an int.");
+		return (int) value;
+	}
+
+	/**
+	 * Reads the tab between two values of a cell.
+	 * @throws IOException if the file can not be read or the next byte is not a tab
+	 */
+	private void readSeparator() throws IOException {
+		int next = peek();
+		if (next != '\t')
+			throw error("expected a tab but found " + describe(next) + ".");
+		advance();
+	}
+
+	/**
+	 * Reads the end of a line, <code>\n</code> or <code>\r\n</code>.
+	 * @throws IOException if the file can not be read or the line does not end here
+	 */
+	private void readLineEnd() throws IOException {
+		int next = peek();
+		if (next == '\r') {
+			advance();
+			next = peek();
+		}
+		if (next != '\n')
+			throw error("expected the end of the line but found " + describe(next) + ".");
+		advance();
+		line++;
+		column = 1;
+	}
+
+	/**
+	 * Returns the next byte without consuming it, refilling the window when it is exhausted.
+	 * @return the next byte, or {@link #END_OF_FILE}
+	 * @throws IOException if the file can not be read
+	 */
+	private int peek() throws IOException {
+		if (position == limit) {
+			buffer.clear();
+			int read;
+			do {
+				read = channel.read(buffer);
+			} while (read == 0);
+			if (read < 0)
+				return END_OF_FILE;
+			position = 0;
+			limit = read;
+		}
+		return bytes[position] & 0xFF;
+	}
+
+	/**
+	 * Consumes the byte returned by the last {@link #peek()}.
+	 *
+	 */
+	private void advance() {
+		position++;
+		column++;
+	}
+
+	/**
+	 * Creates the exception for a problem at the current position.
+	 * @param message is the description of the problem
+	 * @return the exception to throw
+	 */
+	private AsciiParseException error(String message) {
+		return new AsciiParseException(source, line, column, message);
+	}
+
+	/**
+	 * Describes a byte for the error messages.
+	 * @param next is the byte, or {@link #END_OF_FILE}
+	 * @return the description of the byte
+	 */
+	private static String describe(int next) {
+		if (next == END_OF_FILE)
+			return "the end of the file";
+		if (next == '\n' || next == '\r')
+			return "the end of the line";
+		if (next == '\t')
+			return "a tab";
+		if (next < ' ' || next > '~')
+			return "byte " + next;
+		return "'" + (char) next + "'";
+	}
+}
@@ -0,0 +1,610 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.util.Arrays;
+
+/**
+ * The class is the <b>packed storage of a grid of ascii cells</b>.
+ * Every cell (character, foreground color and background color) is packed in a single <code>long</code>:
+ * <ul>
+ * <li>bits 48-63: the character</li>
+ * <li>bits 24-47: the foreground color, as RGB</li>
+ * <li>bits 0-23: the background color, as RGB</li>
+ * </ul>
+ * The cells are addressed in row-major order, so the cell at <i>x</i>, <i>y</i> has index
+ * <code>y * width + x</code>. A cell takes 8 bytes and scanning a row reads contiguous memory.
+ *
+ * A buffer is either flat or sparse. A flat buffer keeps all the cells in one array, returned by {@link #getCells()}.
+ * A sparse buffer splits the index space in pages of {@link #PAGE_SIZE} cells, allocated only when one of their cells is
+ * written with a value different from the blank cell: the pages never written take no memory and read as the blank cell.
+ * Filling the whole sparse buffer frees all its pages and makes the fill value the new blank cell.
+ * Both kinds are read and written through the same index API ({@link #index(int, int)}, {@link #get(int)}, {@link #set(int, long)}
+ * and the run methods), so the code that uses it does not depend on the kind.
+ *
+ * Colors are stored without the alpha channel, so they are always read back as opaque colors: a translucent color written
+ * in a cell is drawn as the same color fully opaque.
+ * A cell never written is the character 0 in black on black.
+ *
+ * @see AsciiPanel which keeps the canvas cells in a CellBuffer, sparse in {@link AsciiPanelCanvasMode#TILED} canvas mode.
+ * @see AsciiRaster which keeps the loaded cells in a CellBuffer.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class CellBuffer {
+
+	/**
+	 * The number of bits of the index of a cell inside its page, in a sparse buffer
+	 *
+	 */
+	private static final int PAGE_SHIFT = 10;
+
+	/**
+	 * The number of cells of a page of a sparse buffer: 1024 cells, 8 KB
+	 *
+	 */
+	public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	/**
+	 * The mask of the index of a cell inside its page
+	 *
+	 */
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/**
+	 * The width of the grid, in cells
+	 *
+	 */
+	private int width;
+
+	/**
+	 * The height of the grid, in cells
+	 *
+	 */
+	private int height;
+
+	/**
+	 * The packed cells in row-major order, null if the buffer is sparse
+	 *
+	 */
+	private long[] cells;
+
+	/**
+	 * The pages of the cells, null if the buffer is flat; a page never written is null
+	 *
+	 */
+	private long[][] pages;
+
+	/**
+	 * The value of the cells of the pages not allocated
+	 *
+	 */
+	private long blankCell;
+
+	/**
+	 * Class constructor of a flat buffer. All the cells are set to 0.
+	 * @param width is the width in cells
+	 * @param height is the height in cells
+	 */
+	public CellBuffer(int width, int height) {
+		this(width, height, false);
+	}
+
+	/**
+	 * Class constructor. All the cells are set to 0; a sparse buffer allocates no page.
+	 * @param width is the width in cells
+	 * @param height is the height in cells
+	 * @param sparse tells if the cells are kept in pages allocated when they are written
+	 */
+	public CellBuffer(int width, int height, boolean sparse) {
+		if (width < 1)
+			throw new IllegalArgumentException("width " + width + " must be greater than 0.");
+
+		if (height < 1)
+			throw new IllegalArgumentException("height " + height + " must be greater than 0.");
+
+		if ((long) width * height > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(width + "x" + height + " cells are more than " + Integer.MAX_VALUE + ".");
+
+		this.width = width;
+		this.height = height;
+		if (sparse)
+			this.pages = new long[(int) (((long) width * height + PAGE_SIZE - 1) >>> PAGE_SHIFT)][];
+		else
+			this.cells = new long[width * height];
+	}
+
+	/**
+	 * Packs a cell in a <code>long</code>.
+	 * @param character is the character
+	 * @param foregroundRGB is the foreground color, the alpha channel is ignored
+	 * @param backgroundRGB is the background color, the alpha channel is ignored
+	 * @return the packed cell
+	 */
+	public static long pack(char character, int foregroundRGB, int backgroundRGB) {
+		return ((long) character << 48)
+				| ((long) (foregroundRGB & 0xFFFFFF) << 24)
+				| (backgroundRGB & 0xFFFFFF);
+	}
+
+	/**
+	 * Extracts the character from a packed cell.
+	 * @param cell is the packed cell
+	 * @return the character
+	 */
+	public static char characterOf(long cell) {
+		return (char) (cell >>> 48);
+	}
+
+	/**
+	 * Extracts the foreground color from a packed cell.
+	 * @param cell is the packed cell
+	 * @return the foreground color as opaque ARGB
+	 */
+	public static int foregroundOf(long cell) {
+		return 0xFF000000 | (int) (cell >>> 24) & 0xFFFFFF;
+	}
+
+	/**
+	 * Extracts the background color from a packed cell.
+	 * @param cell is the packed cell
+	 * @return the background color as opaque ARGB
+	 */
+	public static int backgroundOf(long cell) {
+		return 0xFF000000 | (int) cell & 0xFFFFFF;
+	}
+
+	/**
+	 * Computes the index of a cell, used by {@link #get(int)}, {@link #set(int, long)} and the run methods.
+	 * The coordinates are not checked.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the index of the cell
+	 */
+	public int index(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * Reads a packed cell given its index.
+	 * @param index is the index of the cell
+	 * @return the packed cell
+	 */
+	public long get(int index) {
+		if (cells != null)
+			return cells[index];
+
+		long[] page = pages[index >>> PAGE_SHIFT];
+		return page != null ? page[index & PAGE_MASK] : blankCell;
+	}
+
+	/**
+	 * Writes a packed cell given its index. In a sparse buffer the page of the cell is allocated, unless the cell is blank.
+	 * @param index is the index of the cell
+	 * @param cell is the packed cell to write
+	 */
+	public void set(int index, long cell) {
+		if (cells != null) {
+			cells[index] = cell;
+			return;
+		}
+
+		long[] page = pages[index >>> PAGE_SHIFT];
+		if (page == null) {
+			if (cell == blankCell)
+				return;
+			page = allocatePage(index >>> PAGE_SHIFT);
+		}
+		page[index & PAGE_MASK] = cell;
+	}
+
+	/**
+	 * Reads a packed cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the packed cell
+	 */
+	public long get(int x, int y) {
+		return get(y * width + x);
+	}
+
+	/**
+	 * Writes a packed cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @param cell is the packed cell to write
+	 */
+	public void set(int x, int y, long cell) {
+		set(y * width + x, cell);
+	}
+
+	/**
+	 * Writes a cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @param character is the character
+	 * @param foregroundRGB is the foreground color
+	 * @param backgroundRGB is the background color
+	 */
+	public void set(int x, int y, char character, int foregroundRGB, int backgroundRGB) {
+		set(y * width + x, pack(character, foregroundRGB, backgroundRGB));
+	}
+
+	/**
+	 * Reads the character of a cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the character
+	 */
+	public char getCharacter(int x, int y) {
+		return characterOf(get(y * width + x));
+	}
+
+	/**
+	 * Reads the foreground color of a cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the foreground color as opaque ARGB
+	 */
+	public int getForegroundRGB(int x, int y) {
+		return foregroundOf(get(y * width + x));
+	}
+
+	/**
+	 * Reads the background color of a cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the background color as opaque ARGB
+	 */
+	public int getBackgroundRGB(int x, int y) {
+		return backgroundOf(get(y * width + x));
+	}
+
+	/**
+	 * Copies a run of consecutive cells, in index order, into an array. The run is not checked.
+	 * @param index is the index of the first cell
+	 * @param destination is the array to fill
+	 * @param offset is the index in the array of the first cell
+	 * @param length is the number of cells to copy
+	 */
+	public void readRun(int index, long[] destination, int offset, int length) {
+		if (cells != null) {
+			System.arraycopy(cells, index, destination, offset, length);
+			return;
+		}
+
+		while (length > 0) {
+			int run = Math.min(length, PAGE_SIZE - (index & PAGE_MASK));
+			long[] page = pages[index >>> PAGE_SHIFT];
+			if (page != null)
+				System.arraycopy(page, index & PAGE_MASK, destination, offset, run);
+			else
+				Arrays.fill(destination, offset, offset + run, blankCell);
+			index += run;
+			offset += run;
+			length -= run;
+		}
+	}
+
+	/**
+	 * Copies an array into a run of consecutive cells, in index order. The run is not checked.
+	 * @param index is the index of the first cell
+	 * @param source is the array to copy
+	 * @param offset is the index in the array of the first cell
+	 * @param length is the number of cells to copy
+	 */
+	public void writeRun(int index, long[] source, int offset, int length) {
+		if (cells != null) {
+			System.arraycopy(source, offset, cells, index, length);
+			return;
+		}
+
+		while (length > 0) {
+			int run = Math.min(length, PAGE_SIZE - (index & PAGE_MASK));
+			long[] page = pages[index >>> PAGE_SHIFT];
+			if (page == null && !isBlank(source, offset, run))
+				page = allocatePage(index >>> PAGE_SHIFT);
+			if (page != null)
+				System.arraycopy(source, offset, page, index & PAGE_MASK, run);
+			index += run;
+			offset += run;
+			length -= run;
+		}
+	}
+
+	/**
+	 * Writes the same packed cell in a run of consecutive cells, in index order. The run is not checked.
+	 * In a sparse buffer, the pages entirely filled with the blank cell are freed.
+	 * @param index is the index of the first cell
+	 * @param length is the number of cells to write
+	 * @param cell is the packed cell to write
+	 */
+	public void fillRun(int index, int length, long cell) {
+		if (cells != null) {
+			Arrays.fill(cells, index, index + length, cell);
+			return;
+		}
+
+		int size = width * height;
+		while (length > 0) {
+			int run = Math.min(length, PAGE_SIZE - (index & PAGE_MASK));
+			int pageNumber = index >>> PAGE_SHIFT;
+			long[] page = pages[pageNumber];
+			if (cell == blankCell && (index & PAGE_MASK) == 0 && (run == PAGE_SIZE || index + run == size)) {
+				pages[pageNumber] = null;
+			} else if (page != null || cell != blankCell) {
+				if (page == null)
+					page = allocatePage(pageNumber);
+				Arrays.fill(page, index & PAGE_MASK, (index & PAGE_MASK) + run, cell);
+			}
+			index += run;
+			length -= run;
+		}
+	}
+
+	/**
+	 * Writes a run of cells in a row, packing them straight into the storage.
+	 * @param x is the <i>x</i>-coordinate of the first cell
+	 * @param y is the <i>y</i>-coordinate of the row
+	 * @param characters are the characters to write
+	 * @param foregroundRGB are the foreground colors, one for each character
+	 * @param backgroundRGB are the background colors, one for each character
+	 * @param offset is the index in the arrays of the first cell to write
+	 * @param length is the number of cells to write
+	 */
+	public void writeRow(int x, int y, char[] characters, int[] foregroundRGB, int[] backgroundRGB, int offset, int length) {
+		if (characters == null)
+			throw new NullPointerException("characters must not be null.");
+
+		if (foregroundRGB == null)
+			throw new NullPointerException("foregroundRGB must not be null.");
+
+		if (backgroundRGB == null)
+			throw new NullPointerException("backgroundRGB must not be null.");
+
+		checkRectangle(x, y, length, 1);
+
+		if (offset < 0 || length > characters.length - offset || length > foregroundRGB.length - offset || length > backgroundRGB.length - offset)
+			throw new IllegalArgumentException("offset " + offset + " and length " + length + " must be within the arrays.");
+
+		writeRowUnchecked(x, y, characters, foregroundRGB, backgroundRGB, offset, length);
+	}
+
+	/**
+	 * Writes a run of cells in a row like {@link #writeRow(int, int, char[], int[], int[], int, int)}, without checking the arguments.
+	 * It is used by the callers that have already checked them.
+	 * @param x is the <i>x</i>-coordinate of the first cell
+	 * @param y is the <i>y</i>-coordinate of the row
+	 * @param characters are the characters to write
+	 * @param foregroundRGB are the foreground colors, one for each character
+	 * @param backgroundRGB are the background colors, one for each character
+	 * @param offset is the index in the arrays of the first cell to write
+	 * @param length is the number of cells to write
+	 */
+	void writeRowUnchecked(int x, int y, char[] characters, int[] foregroundRGB, int[] backgroundRGB, int offset, int length) {
+		int index = y * width + x;
+		if (cells != null) {
+			for (int i = offset; i < offset + length; i++)
+				cells[index++] = pack(characters[i], foregroundRGB[i], backgroundRGB[i]);
+		} else {
+			for (int i = offset; i < offset + length; i++)
+				set(index++, pack(characters[i], foregroundRGB[i], backgroundRGB[i]));
+		}
+	}
+
+	/**
+	 * Writes the same packed cell in every cell of a rectangle, one <code>Arrays.fill</code> per row.
+	 * Filling the whole buffer is the same as {@link #fill(long)}.
+	 * @param x is the <i>x</i>-coordinate of the top left cell
+	 * @param y is the <i>y</i>-coordinate of the top left cell
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 * @param cell is the packed cell to write
+	 */
+	public void fillRect(int x, int y, int width, int height, long cell) {
+		checkRectangle(x, y, width, height);
+		fillRectUnchecked(x, y, width, height, cell);
+	}
+
+	/**
+	 * Fills a rectangle like {@link #fillRect(int, int, int, int, long)}, without checking it.
+	 * It is used by the callers that have already checked it.
+	 * @param x is the <i>x</i>-coordinate of the top left cell
+	 * @param y is the <i>y</i>-coordinate of the top left cell
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 * @param cell is the packed cell to write
+	 */
+	void fillRectUnchecked(int x, int y, int width, int height, long cell) {
+		if (width == this.width && height == this.height) {
+			fill(cell);
+			return;
+		}
+		if (width == this.width) {
+			fillRun(y * this.width, width * height, cell);
+			return;
+		}
+		for (int row = y; row < y + height; row++)
+			fillRun(row * this.width + x, width, cell);
+	}
+
+	/**
+	 * Copies a rectangle of cells from a buffer into this one, one <code>System.arraycopy</code> per row.
+	 * The source may be this buffer, even when the two rectangles overlap.
+	 * @param source is the buffer to copy from
+	 * @param sourceX is the <i>x</i>-coordinate of the top left cell to copy
+	 * @param sourceY is the <i>y</i>-coordinate of the top left cell to copy
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 * @param x is the <i>x</i>-coordinate where the top left cell is copied
+	 * @param y is the <i>y</i>-coordinate where the top left cell is copied
+	 */
+	public void blit(CellBuffer source, int sourceX, int sourceY, int width, int height, int x, int y) {
+		if (source == null)
+			throw new NullPointerException("source must not be null.");
+
+		source.checkRectangle(sourceX, sourceY, width, height);
+		checkRectangle(x, y, width, height);
+		blitUnchecked(source, sourceX, sourceY, width, height, x, y);
+	}
+
+	/**
+	 * Copies a rectangle of cells like {@link #blit(CellBuffer, int, int, int, int, int, int)}, without checking the rectangles.
+	 * It is used by the callers that have already checked them.
+	 * @param source is the buffer to copy from
+	 * @param sourceX is the <i>x</i>-coordinate of the top left cell to copy
+	 * @param sourceY is the <i>y</i>-coordinate of the top left cell to copy
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 * @param x is the <i>x</i>-coordinate where the top left cell is copied
+	 * @param y is the <i>y</i>-coordinate where the top left cell is copied
+	 */
+	void blitUnchecked(CellBuffer source, int sourceX, int sourceY, int width, int height, int x, int y) {
+		boolean bottomUp = source == this && y > sourceY;
+		if (cells != null && source.cells != null) {
+			for (int i = 0; i < height; i++) {
+				int row = bottomUp ? height - 1 - i : i;
+				System.arraycopy(source.cells, (sourceY + row) * source.width + sourceX, cells, (y + row) * this.width + x, width);
+			}
+			return;
+		}
+
+		long[] line = new long[width];
+		for (int i = 0; i < height; i++) {
+			int row = bottomUp ? height - 1 - i : i;
+			source.readRun((sourceY + row) * source.width + sourceX, line, 0, width);
+			writeRun((y + row) * this.width + x, line, 0, width);
+		}
+	}
+
+	/**
+	 * Checks that a rectangle of cells is inside the buffer.
+	 * @param x is the <i>x</i>-coordinate of the top left cell
+	 * @param y is the <i>y</i>-coordinate of the top left cell
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 */
+	private void checkRectangle(int x, int y, int width, int height) {
+		if (width < 0)
+			throw new IllegalArgumentException("width " + width + " must not be negative.");
+
+		if (height < 0)
+			throw new IllegalArgumentException("height " + height + " must not be negative.");
+
+		if (x < 0 || width > this.width - x)
+			throw new IllegalArgumentException("x " + x + " and width " + width + " must be within range [0," + this.width + "].");
+
+		if (y < 0 || height > this.height - y)
+			throw new IllegalArgumentException("y " + y + " and height " + height + " must be within range [0," + this.height + "].");
+	}
+
+	/**
+	 * Writes the same packed cell in every cell of the buffer.
+	 * A sparse buffer frees all its pages and the cell becomes its blank cell.
+	 * @param cell is the packed cell to write
+	 */
+	public void fill(long cell) {
+		if (cells != null) {
+			Arrays.fill(cells, cell);
+			return;
+		}
+
+		Arrays.fill(pages, null);
+		blankCell = cell;
+	}
+
+	/**
+	 * Creates a copy of this buffer, of the same kind. A sparse copy allocates only the pages allocated in this buffer.
+	 * @return a new buffer with the same size and cells
+	 */
+	public CellBuffer copy() {
+		CellBuffer copy = new CellBuffer(width, height, cells == null);
+		if (cells != null) {
+			System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+		} else {
+			copy.blankCell = blankCell;
+			for (int page = 0; page < pages.length; page++)
+				if (pages[page] != null)
+					copy.pages[page] = pages[page].clone();
+		}
+		return copy;
+	}
+
+	/**
+	 * Allocates a page of a sparse buffer, filled with the blank cell.
+	 * @param pageNumber is the number of the page
+	 * @return the new page
+	 */
+	private long[] allocatePage(int pageNumber) {
+		long[] page = new long[PAGE_SIZE];
+		if (blankCell != 0)
+			Arrays.fill(page, blankCell);
+		pages[pageNumber] = page;
+		return page;
+	}
+
+	/**
+	 * Tells if a part of an array holds only the blank cell.
+	 * @param source is the array
+	 * @param offset is the index of the first cell
+	 * @param length is the number of cells
+	 * @return true if all the cells are blank
+	 */
+	private boolean isBlank(long[] source, int offset, int length) {
+		for (int i = offset; i < offset + length; i++)
+			if (source[i] != blankCell)
+				return false;
+		return true;
+	}
+
+	/**
+	 * The width getter
+	 * @return the width in cells
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * The height getter
+	 * @return the height in cells
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Tells if the buffer is sparse.
+	 * @return true if the cells are kept in pages allocated when they are written
+	 */
+	public boolean isSparse() {
+		return cells == null;
+	}
+
+	/**
+	 * Counts the allocated pages of a sparse buffer.
+	 * @return the number of allocated pages, or 0 for a flat buffer
+	 */
+	public int getAllocatedPagesCount() {
+		if (cells != null)
+			return 0;
+
+		int count = 0;
+		for (long[] page : pages)
+			if (page != null)
+				count++;
+		return count;
+	}
+
+	/**
+	 * The packed cells getter. The returned array is the live storage of a flat buffer, in row-major order.
+	 * A sparse buffer has no such array: its cells are read and written through the index API.
+	 * @return the packed cells
+	 * @throws UnsupportedOperationException if the buffer is sparse
+	 */
+	public long[] getCells() {
+		if (cells == null)
+			throw new UnsupportedOperationException("a sparse buffer has no flat array of cells.");
+
+		return cells;
+	}
+}
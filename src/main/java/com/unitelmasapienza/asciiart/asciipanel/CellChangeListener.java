@@ -0,0 +1,21 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * It is the contract of the objects that want to <b>know every cell changed</b> by an operation on the canvas.
+ * 
+ * @see EditHistory which records the changes to undo them.
+ * @see FloodFiller which reports every filled cell.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public interface CellChangeListener {
+
+	/**
+	 * Called after a cell has been changed.
+	 * @param index is the index of the cell, in row-major order
+	 * @param before is the packed cell before the change
+	 * @param after is the packed cell after the change
+	 */
+	public void cellChanged(int index, long before, long after);
+}
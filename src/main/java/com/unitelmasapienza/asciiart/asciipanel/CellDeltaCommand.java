@@ -0,0 +1,91 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+
+/**
+ * The class is the <b>command of an operation that changes few cells</b>, like a click,
+ * kept as primitive arrays of cell indices and packed cells before and after the change.
+ *
+ * Undoing writes the old cells back in reverse order, redoing writes the new cells in the original order,
+ * so a cell changed more than once by the same operation is restored correctly.
+ *
+ * @see EditHistory which creates the commands.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class CellDeltaCommand extends EditCommand {
+
+	/**
+	 * The memory taken by a command besides its arrays, in bytes
+	 *
+	 */
+	private static final int OVERHEAD_BYTES = 96;
+
+	/**
+	 * The memory taken by one changed cell, in bytes: an index and two packed cells
+	 *
+	 */
+	private static final int BYTES_PER_CELL = 4 + 8 + 8;
+
+	/**
+	 * The indices of the changed cells, in row-major order
+	 *
+	 */
+	private int[] indices;
+
+	/**
+	 * The packed cells before the change
+	 *
+	 */
+	private long[] before;
+
+	/**
+	 * The packed cells after the change
+	 *
+	 */
+	private long[] after;
+
+	/**
+	 * Command constructor. The arrays are kept, not copied.
+	 * @param indices are the indices of the changed cells
+	 * @param before are the packed cells before the change
+	 * @param after are the packed cells after the change
+	 * @param bounds is the bounding box of the changed cells
+	 */
+	CellDeltaCommand(int[] indices, long[] before, long[] after, Rectangle bounds) {
+		super(bounds);
+		this.indices = indices;
+		this.before = before;
+		this.after = after;
+	}
+
+	@Override
+	void undo(CellBuffer cells, SnapshotTracker tracker) {
+		for (int i = indices.length - 1; i >= 0; i--) {
+			cells.set(indices[i], before[i]);
+			tracker.cellChanged(indices[i]);
+		}
+	}
+
+	@Override
+	void redo(CellBuffer cells, SnapshotTracker tracker) {
+		for (int i = 0; i < indices.length; i++) {
+			cells.set(indices[i], after[i]);
+			tracker.cellChanged(indices[i]);
+		}
+	}
+
+	@Override
+	public long getMemorySize() {
+		return OVERHEAD_BYTES + (long) indices.length * BYTES_PER_CELL;
+	}
+
+	/**
+	 * The changed cells count getter
+	 * @return the number of cell changes in the command
+	 */
+	public int getChangesCount() {
+		return indices.length;
+	}
+}
@@ -0,0 +1,180 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+
+/**
+ * The class is an <b>immutable version of the cells of a canvas</b>, split in square tiles of {@link #TILE_SIZE} cells per side.
+ *
+ * The tiles are shared between versions: a new snapshot copies only the tiles changed since the previous one and keeps
+ * the references to all the others, so taking a snapshot costs as much as the tiles touched, and two versions of a large canvas
+ * that differ in a small region take little more memory than one. For the same reason the tiles must never be written.
+ *
+ * The tiles on the right and bottom edges are full size; the cells outside the canvas are left to 0, or to the value of all
+ * the other cells when the tile is shared by the tiles whose cells are all equal.
+ *
+ * @see SnapshotTracker which takes the snapshots and restores them.
+ * @see SnapshotCommand which keeps two snapshots to undo a bulk operation.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class CellSnapshot {
+
+	/**
+	 * The side of a tile, in cells
+	 *
+	 */
+	public static final int TILE_SIZE = 16;
+
+	/**
+	 * The number of cells in a tile
+	 *
+	 */
+	static final int TILE_CELLS = TILE_SIZE * TILE_SIZE;
+
+	/**
+	 * The width of the canvas, in cells
+	 *
+	 */
+	private int width;
+
+	/**
+	 * The height of the canvas, in cells
+	 *
+	 */
+	private int height;
+
+	/**
+	 * The number of tiles in a row of tiles
+	 *
+	 */
+	private int tilesPerRow;
+
+	/**
+	 * The tiles, in row-major order. Every tile keeps its cells in row-major order.
+	 *
+	 */
+	private long[][] tiles;
+
+	/**
+	 * Snapshot constructor. The tiles are kept, not copied.
+	 * @param width is the width of the canvas, in cells
+	 * @param height is the height of the canvas, in cells
+	 * @param tiles are the tiles of the snapshot
+	 */
+	CellSnapshot(int width, int height, long[][] tiles) {
+		this.width = width;
+		this.height = height;
+		this.tilesPerRow = tilesCount(width);
+		this.tiles = tiles;
+	}
+
+	/**
+	 * Computes how many tiles cover a number of cells.
+	 * @param cells is the number of cells
+	 * @return the number of tiles
+	 */
+	static int tilesCount(int cells) {
+		return (cells + TILE_SIZE - 1) / TILE_SIZE;
+	}
+
+	/**
+	 * Reads a packed cell of the snapshot.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the packed cell
+	 */
+	public long get(int x, int y) {
+		if (x < 0 || x >= width)
+			throw new IllegalArgumentException("x " + x + " must be within range [0," + width + ")");
+
+		if (y < 0 || y >= height)
+			throw new IllegalArgumentException("y " + y + " must be within range [0," + height + ")");
+
+		return tiles[(y / TILE_SIZE) * tilesPerRow + x / TILE_SIZE][(y % TILE_SIZE) * TILE_SIZE + x % TILE_SIZE];
+	}
+
+	/**
+	 * Counts the tiles of this snapshot that are not shared with another one.
+	 * A uniform tile shared by a run of changed tiles is counted once, as it takes the memory of one.
+	 * @param other is the other snapshot, of the same canvas
+	 * @return the number of tiles that differ
+	 */
+	public int countChangedTiles(CellSnapshot other) {
+		int changed = 0;
+		long[] counted = null;
+		for (int i = 0; i < tiles.length; i++) {
+			if (tiles[i] != other.tiles[i] && tiles[i] != counted) {
+				counted = tiles[i];
+				changed++;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Computes the region covered by the tiles of this snapshot that are not shared with another one.
+	 * @param other is the other snapshot, of the same canvas
+	 * @return the bounding box of the changed tiles, in cells and clipped to the canvas, or null if all the tiles are shared
+	 */
+	public Rectangle getChangedBounds(CellSnapshot other) {
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+		for (int i = 0; i < tiles.length; i++) {
+			if (tiles[i] == other.tiles[i])
+				continue;
+			int tileX = i % tilesPerRow;
+			int tileY = i / tilesPerRow;
+			if (tileX < minX) minX = tileX;
+			if (tileX > maxX) maxX = tileX;
+			if (tileY < minY) minY = tileY;
+			if (tileY > maxY) maxY = tileY;
+		}
+		if (maxX < 0)
+			return null;
+
+		int x = minX * TILE_SIZE;
+		int y = minY * TILE_SIZE;
+		return new Rectangle(x, y, Math.min((maxX + 1) * TILE_SIZE, width) - x, Math.min((maxY + 1) * TILE_SIZE, height) - y);
+	}
+
+	/**
+	 * The tile getter. The returned array is shared and must not be written.
+	 * @param index is the index of the tile, in row-major order
+	 * @return the cells of the tile
+	 */
+	long[] getTile(int index) {
+		return tiles[index];
+	}
+
+	/**
+	 * The tiles getter. The returned array is shared and must not be written.
+	 * @return the tiles, in row-major order
+	 */
+	long[][] getTiles() {
+		return tiles;
+	}
+
+	/**
+	 * The tiles count getter
+	 * @return the number of tiles of the snapshot
+	 */
+	public int getTilesCount() {
+		return tiles.length;
+	}
+
+	/**
+	 * The width getter
+	 * @return the width of the canvas, in cells
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * The height getter
+	 * @return the height of the canvas, in cells
+	 */
+	public int getHeight() {
+		return height;
+	}
+}
@@ -0,0 +1,63 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+
+/**
+ * The class is <b>one entry of the undo history</b>: all the cells changed by one user operation.
+ * A click changes one cell, while a fill or a conversion changes many cells and is still a single command.
+ *
+ * The changes are kept in two ways:
+ * <ul>
+ * <li>{@link CellDeltaCommand}: the changed cells one by one, for the operations that touch few cells;</li>
+ * <li>{@link SnapshotCommand}: a snapshot of the canvas before and after, for the bulk operations.</li>
+ * </ul>
+ *
+ * @see EditHistory which creates and keeps the commands.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public abstract class EditCommand {
+
+	/**
+	 * The bounding box of the changed cells
+	 *
+	 */
+	private Rectangle bounds;
+
+	/**
+	 * Command constructor.
+	 * @param bounds is the bounding box of the changed cells
+	 */
+	EditCommand(Rectangle bounds) {
+		this.bounds = bounds;
+	}
+
+	/**
+	 * Writes back the cells as they were before the command.
+	 * @param cells are the cells of the canvas
+	 * @param tracker is the snapshot tracker of the cells, to be told of the changes
+	 */
+	abstract void undo(CellBuffer cells, SnapshotTracker tracker);
+
+	/**
+	 * Writes again the cells as they were after the command.
+	 * @param cells are the cells of the canvas
+	 * @param tracker is the snapshot tracker of the cells, to be told of the changes
+	 */
+	abstract void redo(CellBuffer cells, SnapshotTracker tracker);
+
+	/**
+	 * Computes the memory taken by the command.
+	 * @return the approximate size of the command, in bytes
+	 */
+	public abstract long getMemorySize();
+
+	/**
+	 * The bounds getter
+	 * @return the bounding box of the changed cells, in cells
+	 */
+	public Rectangle getBounds() {
+		return new Rectangle(bounds);
+	}
+}
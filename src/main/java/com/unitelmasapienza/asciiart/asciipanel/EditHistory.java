@@ -0,0 +1,438 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The class is the <b>undo and redo history of a canvas</b>.
+ *
+ * The history is attached to the cells of the canvas with {@link #attach(CellBuffer)} and must be told of every change
+ * of them through {@link #cellChanged(int, long, long)}.
+ * The changes are recorded only inside an edit, opened with {@link #beginEdit()} and closed with {@link #endEdit()}:
+ * every cell changed in between becomes part of a single {@link EditCommand}, so a click, a fill or a whole conversion
+ * are undone in one step. Edits can be nested, only the outermost one creates the command.
+ *
+ * An edit keeps its changes cell by cell ({@link CellDeltaCommand}) until a bulk operation marks it with {@link #markBulkEdit()}:
+ * from then on the edit is kept as two copy-on-write snapshots of the canvas ({@link SnapshotCommand}), whose cost depends on the
+ * tiles touched and not on the number of changed cells.
+ *
+ * The commands are kept in a ring buffer: the oldest ones are dropped when the memory taken by the history goes over its limit,
+ * so the number of steps that can be undone depends on how large the operations are and not on a fixed count.
+ * Recording a new command drops the commands that could be redone.
+ *
+ * The class is not thread safe, it is meant to be used only by the event dispatch thread.
+ *
+ * @see AsciiPanel#undo() and {@link AsciiPanel#redo()} which use it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class EditHistory implements CellChangeListener {
+
+	/**
+	 * The default memory limit of the history: 64 MB
+	 *
+	 */
+	public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+	/**
+	 * The initial capacity of the ring buffer and of the arrays of an open edit
+	 *
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * The maximum memory taken by the commands, in bytes
+	 *
+	 */
+	private long memoryLimit;
+
+	/**
+	 * The memory taken by the commands, in bytes
+	 *
+	 */
+	private long memoryUsage;
+
+	/**
+	 * The ring buffer of the commands
+	 *
+	 */
+	private EditCommand[] commands = new EditCommand[INITIAL_CAPACITY];
+
+	/**
+	 * The position in the ring of the oldest command
+	 *
+	 */
+	private int first;
+
+	/**
+	 * The number of commands that can be undone, they follow the oldest one
+	 *
+	 */
+	private int undoCount;
+
+	/**
+	 * The number of commands that can be redone, they follow the ones that can be undone
+	 *
+	 */
+	private int redoCount;
+
+	/**
+	 * The cells of the canvas, null until the history is attached
+	 *
+	 */
+	private CellBuffer cells;
+
+	/**
+	 * The snapshot tracker of the cells, null until the history is attached
+	 *
+	 */
+	private SnapshotTracker tracker;
+
+	/**
+	 * The nesting level of the open edits, 0 when no edit is open
+	 *
+	 */
+	private int editDepth;
+
+	/**
+	 * Tells if the open edit is kept as snapshots instead of cell by cell
+	 *
+	 */
+	private boolean bulkEdit;
+
+	/**
+	 * The snapshot of the canvas before the open bulk edit
+	 *
+	 */
+	private CellSnapshot bulkEditBefore;
+
+	/**
+	 * The indices of the cells changed by the open edit
+	 *
+	 */
+	private int[] pendingIndices = new int[INITIAL_CAPACITY];
+
+	/**
+	 * The cells before the changes of the open edit
+	 *
+	 */
+	private long[] pendingBefore = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The cells after the changes of the open edit
+	 *
+	 */
+	private long[] pendingAfter = new long[INITIAL_CAPACITY];
+
+	/**
+	 * The number of changes of the open edit
+	 *
+	 */
+	private int pendingCount;
+
+	/**
+	 * Class constructor with the default memory limit.
+	 *
+	 */
+	public EditHistory() {
+		this(DEFAULT_MEMORY_LIMIT);
+	}
+
+	/**
+	 * Class constructor specifying the memory limit.
+	 * @param memoryLimit is the maximum memory taken by the commands, in bytes
+	 */
+	public EditHistory(long memoryLimit) {
+		if (memoryLimit < 1)
+			throw new IllegalArgumentException("memoryLimit " + memoryLimit + " must be greater than 0.");
+
+		this.memoryLimit = memoryLimit;
+	}
+
+	/**
+	 * Attaches the history to the cells of a canvas, removing all the commands.
+	 * @param cells are the cells whose changes are recorded
+	 */
+	public void attach(CellBuffer cells) {
+		if (cells == null)
+			throw new NullPointerException("cells must not be null.");
+
+		clear();
+		this.cells = cells;
+		this.tracker = new SnapshotTracker(cells);
+	}
+
+	/**
+	 * Opens an edit. If an edit is already open, the new one is nested in it.
+	 *
+	 */
+	public void beginEdit() {
+		if (cells == null)
+			throw new IllegalStateException("the history is not attached to any cells.");
+
+		if (editDepth++ == 0) {
+			pendingCount = 0;
+			bulkEdit = false;
+		}
+	}
+
+	/**
+	 * Marks the open edit as a bulk operation, so that it is kept as snapshots. The changes already made by the edit
+	 * stay part of it. Nothing happens if no edit is open or the edit is already marked.
+	 *
+	 */
+	public void markBulkEdit() {
+		if (editDepth == 0 || bulkEdit)
+			return;
+
+		for (int i = pendingCount - 1; i >= 0; i--)
+			cells.set(pendingIndices[i], pendingBefore[i]);
+		bulkEditBefore = tracker.snapshot();
+		for (int i = 0; i < pendingCount; i++) {
+			cells.set(pendingIndices[i], pendingAfter[i]);
+			tracker.cellChanged(pendingIndices[i]);
+		}
+		pendingCount = 0;
+		bulkEdit = true;
+	}
+
+	/**
+	 * Closes an edit. When the outermost edit is closed, its changes become a command, unless there are none.
+	 * @return the command just recorded, or null if the edit is nested or nothing has been changed
+	 */
+	public EditCommand endEdit() {
+		if (editDepth == 0)
+			throw new IllegalStateException("no edit is open.");
+
+		if (--editDepth > 0)
+			return null;
+
+		if (bulkEdit)
+			return endBulkEdit();
+
+		if (pendingCount == 0)
+			return null;
+
+		int width = cells.getWidth();
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+		for (int i = 0; i < pendingCount; i++) {
+			int x = pendingIndices[i] % width;
+			int y = pendingIndices[i] / width;
+			if (x < minX) minX = x;
+			if (x > maxX) maxX = x;
+			if (y < minY) minY = y;
+			if (y > maxY) maxY = y;
+		}
+
+		EditCommand command = new CellDeltaCommand(Arrays.copyOf(pendingIndices, pendingCount), Arrays.copyOf(pendingBefore, pendingCount),
+				Arrays.copyOf(pendingAfter, pendingCount), new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1));
+		pendingCount = 0;
+		record(command);
+		return command;
+	}
+
+	/**
+	 * Closes the outermost edit when it is a bulk edit, comparing the snapshots before and after it.
+	 * @return the command just recorded, or null if nothing has been changed
+	 */
+	private EditCommand endBulkEdit() {
+		CellSnapshot before = bulkEditBefore;
+		CellSnapshot after = tracker.snapshot();
+		bulkEditBefore = null;
+		bulkEdit = false;
+
+		Rectangle bounds = after.getChangedBounds(before);
+		if (bounds == null)
+			return null;
+
+		EditCommand command = new SnapshotCommand(before, after, bounds);
+		record(command);
+		return command;
+	}
+
+	/**
+	 * Records a change of the cells. Changes that leave the cell as it was are ignored, while the ones made when no edit
+	 * is open are only tracked for the next snapshot.
+	 * @param index is the index of the cell, in row-major order
+	 * @param before is the packed cell before the change
+	 * @param after is the packed cell after the change
+	 */
+	@Override
+	public void cellChanged(int index, long before, long after) {
+		if (before == after || tracker == null)
+			return;
+
+		tracker.cellChanged(index);
+		if (editDepth == 0 || bulkEdit)
+			return;
+
+		if (pendingCount == pendingIndices.length) {
+			int capacity = pendingIndices.length * 2;
+			pendingIndices = Arrays.copyOf(pendingIndices, capacity);
+			pendingBefore = Arrays.copyOf(pendingBefore, capacity);
+			pendingAfter = Arrays.copyOf(pendingAfter, capacity);
+		}
+		pendingIndices[pendingCount] = index;
+		pendingBefore[pendingCount] = before;
+		pendingAfter[pendingCount] = after;
+		pendingCount++;
+	}
+
+	/**
+	 * Records that all the cells of a rectangle may have been changed by a bulk write that does not tell every single change.
+	 * If an edit is open, it must have been marked with {@link #markBulkEdit()} before the cells were written, so that the
+	 * snapshot taken before the edit does not include the new cells.
+	 * @param x is the <i>x</i>-coordinate of the top left cell
+	 * @param y is the <i>y</i>-coordinate of the top left cell
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 */
+	public void regionChanged(int x, int y, int width, int height) {
+		if (tracker == null)
+			return;
+
+		if (editDepth > 0 && !bulkEdit)
+			throw new IllegalStateException("the open edit must be marked as a bulk edit before a bulk write.");
+
+		tracker.regionChanged(x, y, width, height);
+	}
+
+	/**
+	 * Undoes the last command.
+	 * @return the undone command, or null if there is nothing to undo
+	 */
+	public EditCommand undo() {
+		if (!canUndo())
+			return null;
+
+		undoCount--;
+		redoCount++;
+		EditCommand command = commands[slot(undoCount)];
+		command.undo(cells, tracker);
+		return command;
+	}
+
+	/**
+	 * Redoes the last undone command.
+	 * @return the redone command, or null if there is nothing to redo
+	 */
+	public EditCommand redo() {
+		if (!canRedo())
+			return null;
+
+		EditCommand command = commands[slot(undoCount)];
+		undoCount++;
+		redoCount--;
+		command.redo(cells, tracker);
+		return command;
+	}
+
+	/**
+	 * Tells if there is a command to undo.
+	 * @return true if undo can be done
+	 */
+	public boolean canUndo() {
+		return undoCount > 0 && editDepth == 0;
+	}
+
+	/**
+	 * Tells if there is a command to redo.
+	 * @return true if redo can be done
+	 */
+	public boolean canRedo() {
+		return redoCount > 0 && editDepth == 0;
+	}
+
+	/**
+	 * Removes all the commands.
+	 *
+	 */
+	public void clear() {
+		Arrays.fill(commands, null);
+		first = 0;
+		undoCount = 0;
+		redoCount = 0;
+		memoryUsage = 0;
+	}
+
+	/**
+	 * Appends a command, dropping the commands that could be redone and then the oldest ones while the memory limit is exceeded.
+	 * The new command is always kept, even if it is larger than the limit by itself.
+	 * @param command is the command to append
+	 */
+	private void record(EditCommand command) {
+		for (int i = 0; i < redoCount; i++) {
+			int slot = slot(undoCount + i);
+			memoryUsage -= commands[slot].getMemorySize();
+			commands[slot] = null;
+		}
+		redoCount = 0;
+
+		if (undoCount == commands.length)
+			grow();
+		commands[slot(undoCount)] = command;
+		undoCount++;
+		memoryUsage += command.getMemorySize();
+
+		while (memoryUsage > memoryLimit && undoCount > 1) {
+			memoryUsage -= commands[first].getMemorySize();
+			commands[first] = null;
+			first = (first + 1) % commands.length;
+			undoCount--;
+		}
+	}
+
+	/**
+	 * Doubles the capacity of the ring, moving the oldest command to the start.
+	 *
+	 */
+	private void grow() {
+		EditCommand[] grown = new EditCommand[commands.length * 2];
+		for (int i = 0; i < undoCount + redoCount; i++)
+			grown[i] = commands[slot(i)];
+		commands = grown;
+		first = 0;
+	}
+
+	/**
+	 * Computes the position in the ring of a command.
+	 * @param offset is the position of the command counted from the oldest one
+	 * @return the position in the ring
+	 */
+	private int slot(int offset) {
+		return (first + offset) % commands.length;
+	}
+
+	/**
+	 * The undo count getter
+	 * @return the number of commands that can be undone
+	 */
+	public int getUndoCount() {
+		return undoCount;
+	}
+
+	/**
+	 * The redo count getter
+	 * @return the number of commands that can be redone
+	 */
+	public int getRedoCount() {
+		return redoCount;
+	}
+
+	/**
+	 * The memory usage getter
+	 * @return the approximate memory taken by the commands, in bytes
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * The memory limit getter
+	 * @return the maximum memory taken by the commands, in bytes
+	 */
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+}
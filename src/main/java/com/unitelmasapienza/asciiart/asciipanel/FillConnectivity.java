@@ -0,0 +1,23 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * This enumeration lists the <b>neighbourhoods used by the fill functionality</b> to decide which cells are connected.
+ * 
+ * @see FloodFiller which uses it to grow the filled region.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum FillConnectivity {
+
+	/**
+	 * A cell is connected to the cells on its left, right, top and bottom.
+	 * This is the connectivity of the original fill functionality.
+	 */
+	FOUR,
+
+	/**
+	 * A cell is connected to the same cells of {@link #FOUR} plus the four cells on its diagonals.
+	 */
+	EIGHT
+}
@@ -0,0 +1,76 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * This enumeration lists the <b>rules used by the fill functionality to decide if a cell belongs to the filled region</b>.
+ * Every rule compares the cell with the cell where the fill has started (the seed), as it was before the fill.
+ * 
+ * @see FloodFiller which applies the rule to every visited cell.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum FillMatchRule {
+
+	/**
+	 * The character of the cell differs from the character of the seed by {@link #TOLERANCE} at most.
+	 * The distance is always measured from the seed and not from the neighbour the cell was reached from, so the region
+	 * does not drift away from the seed character, and the cells that already have the new character are filled too,
+	 * taking the new colors.
+	 */
+	CHARACTER_TOLERANCE {
+		@Override
+		public boolean matches(long seed, long cell) {
+			return Math.abs(CellBuffer.characterOf(cell) - CellBuffer.characterOf(seed)) <= TOLERANCE;
+		}
+	},
+
+	/**
+	 * The character of the cell is the character of the seed, the colors are not considered.
+	 */
+	EXACT_CHARACTER {
+		@Override
+		public boolean matches(long seed, long cell) {
+			return CellBuffer.characterOf(cell) == CellBuffer.characterOf(seed);
+		}
+	},
+
+	/**
+	 * The foreground and background colors of the cell are the colors of the seed, the character is not considered.
+	 */
+	EXACT_COLOR {
+		@Override
+		public boolean matches(long seed, long cell) {
+			return (cell & COLORS_MASK) == (seed & COLORS_MASK);
+		}
+	},
+
+	/**
+	 * The character and the colors of the cell are the ones of the seed.
+	 */
+	CHARACTER_AND_COLOR {
+		@Override
+		public boolean matches(long seed, long cell) {
+			return cell == seed;
+		}
+	};
+
+	/**
+	 * The maximum distance between two characters accepted by {@link #CHARACTER_TOLERANCE}
+	 *
+	 */
+	public static final int TOLERANCE = 3;
+
+	/**
+	 * The bits of a packed cell holding the two colors
+	 *
+	 */
+	private static final long COLORS_MASK = 0x0000FFFFFFFFFFFFL;
+
+	/**
+	 * Tells if a cell belongs to the region of the seed.
+	 * @param seed is the packed seed cell, as it was before the fill
+	 * @param cell is the packed cell to check
+	 * @return true if the cell has to be filled
+	 */
+	public abstract boolean matches(long seed, long cell);
+}
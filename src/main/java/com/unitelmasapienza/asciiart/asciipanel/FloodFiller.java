@@ -0,0 +1,196 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * The class is the <b>engine of the fill functionality</b>.
+ * It replaces, starting from a seed cell, every connected cell accepted by a {@link FillMatchRule} with a new cell.
+ *
+ * The fill is iterative and works by horizontal spans: every seed taken from the work stack is extended to the left and to the right
+ * as far as the cells match, the whole span is written, and the rows above and below the span are scanned to push one new seed
+ * for every run of matching cells. The work stack is a plain <code>int</code> array of cell indices and the visited cells are kept
+ * in a bitset, so the fill uses no recursion and the depth does not depend on the size of the region.
+ *
+ * The stack and the bitset are kept between two fills, so an instance should be reused. The class is not thread safe.
+ *
+ * @see AsciiPanel#fill(char, int, int, java.awt.Color, java.awt.Color, FillConnectivity, FillMatchRule) which uses it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class FloodFiller {
+
+	/**
+	 * The initial size of the work stack
+	 *
+	 */
+	private static final int INITIAL_STACK_SIZE = 64;
+
+	/**
+	 * The visited cells, one bit for every cell in row-major order
+	 *
+	 */
+	private long[] visited = new long[0];
+
+	/**
+	 * The indices of the cells still to be expanded
+	 *
+	 */
+	private int[] stack = new int[INITIAL_STACK_SIZE];
+
+	/**
+	 * The number of indices in the stack
+	 *
+	 */
+	private int stackSize;
+
+	/**
+	 * Fills the region connected to the seed cell.
+	 * Nothing is done if the seed cell is already equal to the new cell.
+	 * @param cells are the cells to fill
+	 * @param x is the <i>x</i>-coordinate of the seed cell
+	 * @param y is the <i>y</i>-coordinate of the seed cell
+	 * @param newCell is the packed cell written in every cell of the region
+	 * @param connectivity tells which cells are neighbours
+	 * @param matchRule tells which cells belong to the region
+	 * @return the bounding box of the filled cells (in cells), or null if nothing has been filled
+	 */
+	public Rectangle fill(CellBuffer cells, int x, int y, long newCell, FillConnectivity connectivity, FillMatchRule matchRule) {
+		return fill(cells, x, y, newCell, connectivity, matchRule, null);
+	}
+
+	/**
+	 * Fills the region connected to the seed cell, telling a listener every changed cell.
+	 * Nothing is done if the seed cell is already equal to the new cell.
+	 * @param cells are the cells to fill
+	 * @param x is the <i>x</i>-coordinate of the seed cell
+	 * @param y is the <i>y</i>-coordinate of the seed cell
+	 * @param newCell is the packed cell written in every cell of the region
+	 * @param connectivity tells which cells are neighbours
+	 * @param matchRule tells which cells belong to the region
+	 * @param listener is told every filled cell, or null
+	 * @return the bounding box of the filled cells (in cells), or null if nothing has been filled
+	 */
+	public Rectangle fill(CellBuffer cells, int x, int y, long newCell, FillConnectivity connectivity, FillMatchRule matchRule,
+			CellChangeListener listener) {
+		if (cells == null)
+			throw new NullPointerException("cells must not be null.");
+
+		if (connectivity == null)
+			throw new NullPointerException("connectivity must not be null.");
+
+		if (matchRule == null)
+			throw new NullPointerException("matchRule must not be null.");
+
+		int width = cells.getWidth();
+		int height = cells.getHeight();
+
+		if (x < 0 || x >= width)
+			throw new IllegalArgumentException("x " + x + " must be within range [0," + width + ")");
+
+		if (y < 0 || y >= height)
+			throw new IllegalArgumentException("y " + y + " must be within range [0," + height + ")");
+
+		long seed = cells.get(x, y);
+		if (seed == newCell)
+			return null;
+
+		resetVisited(width * height);
+		stackSize = 0;
+		push(cells.index(x, y));
+
+		boolean diagonals = connectivity == FillConnectivity.EIGHT;
+		int minX = x, maxX = x, minY = y, maxY = y;
+
+		while (stackSize > 0) {
+			int index = stack[--stackSize];
+			if (isVisited(index))
+				continue;
+
+			int row = index / width;
+			int rowStart = row * width;
+			int left = index - rowStart;
+			int right = left;
+
+			while (left > 0 && !isVisited(rowStart + left - 1) && matchRule.matches(seed, cells.get(rowStart + left - 1)))
+				left--;
+			while (right < width - 1 && !isVisited(rowStart + right + 1) && matchRule.matches(seed, cells.get(rowStart + right + 1)))
+				right++;
+
+			for (int i = rowStart + left; i <= rowStart + right; i++) {
+				if (listener != null)
+					listener.cellChanged(i, cells.get(i), newCell);
+				cells.set(i, newCell);
+				visited[i >>> 6] |= 1L << i;
+			}
+
+			if (left < minX) minX = left;
+			if (right > maxX) maxX = right;
+			if (row < minY) minY = row;
+			if (row > maxY) maxY = row;
+
+			int scanFrom = diagonals ? Math.max(left - 1, 0) : left;
+			int scanTo = diagonals ? Math.min(right + 1, width - 1) : right;
+			if (row > 0)
+				pushRuns(cells, rowStart - width, scanFrom, scanTo, seed, matchRule);
+			if (row < height - 1)
+				pushRuns(cells, rowStart + width, scanFrom, scanTo, seed, matchRule);
+		}
+
+		return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+	}
+
+	/**
+	 * Scans a part of a row and pushes the first cell of every run of unvisited matching cells.
+	 * @param cells are the cells being filled
+	 * @param rowStart is the index of the first cell of the row
+	 * @param from is the first column to scan
+	 * @param to is the last column to scan
+	 * @param seed is the packed seed cell
+	 * @param matchRule is the rule of the fill
+	 */
+	private void pushRuns(CellBuffer cells, int rowStart, int from, int to, long seed, FillMatchRule matchRule) {
+		boolean inRun = false;
+		for (int i = rowStart + from; i <= rowStart + to; i++) {
+			if (!isVisited(i) && matchRule.matches(seed, cells.get(i))) {
+				if (!inRun)
+					push(i);
+				inRun = true;
+			} else {
+				inRun = false;
+			}
+		}
+	}
+
+	/**
+	 * Clears the visited bitset, growing it if needed.
+	 * @param cellsCount is the number of cells of the buffer to fill
+	 */
+	private void resetVisited(int cellsCount) {
+		int words = (cellsCount + 63) >>> 6;
+		if (visited.length < words)
+			visited = new long[words];
+		else
+			Arrays.fill(visited, 0, words, 0L);
+	}
+
+	/**
+	 * Tells if a cell has been visited.
+	 * @param index is the index of the cell
+	 * @return true if the cell has already been filled
+	 */
+	private boolean isVisited(int index) {
+		return (visited[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Pushes a cell index on the work stack, growing it if needed.
+	 * @param index is the index of the cell
+	 */
+	private void push(int index) {
+		if (stackSize == stack.length)
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		stack[stackSize++] = index;
+	}
+}
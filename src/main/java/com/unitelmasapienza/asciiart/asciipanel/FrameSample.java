@@ -0,0 +1,104 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * The class collects the <b>work done by a single paint</b> of the {@link AsciiPanel}, before it is recorded in the {@link RenderMetrics}.
+ * It is reused for every paint, so measuring a frame does not allocate.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+class FrameSample {
+
+	/**
+	 * The number of cells checked by the paint
+	 *
+	 */
+	private int cellsScanned;
+
+	/**
+	 * The number of cells drawn again by the paint
+	 *
+	 */
+	private int cellsRedrawn;
+
+	/**
+	 * The time spent tinting the glyphs, in nanoseconds
+	 *
+	 */
+	private long tintNanos;
+
+	/**
+	 * The time spent copying pixels, in nanoseconds
+	 *
+	 */
+	private long blitNanos;
+
+	/**
+	 * Empties the sample, before a new paint.
+	 *
+	 */
+	void reset() {
+		cellsScanned = 0;
+		cellsRedrawn = 0;
+		tintNanos = 0;
+		blitNanos = 0;
+	}
+
+	/**
+	 * Adds checked and drawn cells.
+	 * @param scanned is the number of cells checked
+	 * @param redrawn is the number of cells drawn again
+	 */
+	void addCells(int scanned, int redrawn) {
+		cellsScanned += scanned;
+		cellsRedrawn += redrawn;
+	}
+
+	/**
+	 * Adds time spent tinting the glyphs.
+	 * @param nanos is the time, in nanoseconds
+	 */
+	void addTintNanos(long nanos) {
+		tintNanos += nanos;
+	}
+
+	/**
+	 * Adds time spent copying pixels.
+	 * @param nanos is the time, in nanoseconds
+	 */
+	void addBlitNanos(long nanos) {
+		blitNanos += nanos;
+	}
+
+	/**
+	 * The cells scanned getter
+	 * @return the number of cells checked by the paint
+	 */
+	int getCellsScanned() {
+		return cellsScanned;
+	}
+
+	/**
+	 * The cells redrawn getter
+	 * @return the number of cells drawn again by the paint
+	 */
+	int getCellsRedrawn() {
+		return cellsRedrawn;
+	}
+
+	/**
+	 * The tint time getter
+	 * @return the time spent tinting the glyphs, in nanoseconds
+	 */
+	long getTintNanos() {
+		return tintNanos;
+	}
+
+	/**
+	 * The blit time getter
+	 * @return the time spent copying pixels, in nanoseconds
+	 */
+	long getBlitNanos() {
+		return blitNanos;
+	}
+}
@@ -0,0 +1,152 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.util.Arrays;
+
+/**
+ * The class is the <b>distribution of the frame times</b> recorded by the {@link RenderMetrics}.
+ *
+ * The times are counted in log-linear buckets, like an HdrHistogram: every power of two is split in 64 buckets,
+ * so a percentile is reported with an error below 2% whatever the magnitude of the time, and recording a time
+ * is a constant time update of a fixed array that never allocates. Times up to about 70 seconds are distinguished,
+ * longer ones are counted as the longest.
+ *
+ * The class is not thread safe, the {@link RenderMetrics} synchronizes its use.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class FrameTimeHistogram {
+
+	/**
+	 * The number of bits of the time kept by a bucket, the buckets of a power of two are <code>2^(SUB_BUCKET_BITS - 1)</code>
+	 *
+	 */
+	private static final int SUB_BUCKET_BITS = 7;
+
+	/**
+	 * The number of buckets of a power of two
+	 *
+	 */
+	private static final int SUB_BUCKET_HALF = 1 << (SUB_BUCKET_BITS - 1);
+
+	/**
+	 * The longest time distinguished, in nanoseconds
+	 *
+	 */
+	public static final long MAX_TRACKABLE_NANOS = (1L << 36) - 1;
+
+	/**
+	 * The number of times recorded in every bucket
+	 *
+	 */
+	private long[] counts = new long[indexOf(MAX_TRACKABLE_NANOS) + 1];
+
+	/**
+	 * The number of times recorded
+	 *
+	 */
+	private long totalCount;
+
+	/**
+	 * The sum of the times recorded, in nanoseconds
+	 *
+	 */
+	private long totalNanos;
+
+	/**
+	 * The longest time recorded, in nanoseconds
+	 *
+	 */
+	private long maxNanos;
+
+	/**
+	 * Records a time.
+	 * @param nanos is the time, in nanoseconds; negative times are counted as 0
+	 */
+	public void record(long nanos) {
+		nanos = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+		counts[indexOf(nanos)]++;
+		totalCount++;
+		totalNanos += nanos;
+		if (nanos > maxNanos)
+			maxNanos = nanos;
+	}
+
+	/**
+	 * Computes a percentile of the recorded times.
+	 * @param percentile is the percentile, within range [0,100]
+	 * @return the time below or at which the given percentage of the times fall, in nanoseconds, or 0 if nothing has been recorded
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("percentile " + percentile + " must be within range [0,100].");
+
+		if (totalCount == 0)
+			return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+		long count = 0;
+		for (int index = 0; index < counts.length; index++) {
+			count += counts[index];
+			if (count >= rank)
+				return Math.min(highestValueOf(index), maxNanos);
+		}
+		return maxNanos;
+	}
+
+	/**
+	 * Removes all the recorded times.
+	 *
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		totalNanos = 0;
+		maxNanos = 0;
+	}
+
+	/**
+	 * Computes the bucket of a time.
+	 * @param nanos is the time, not negative
+	 * @return the index of the bucket
+	 */
+	private static int indexOf(long nanos) {
+		int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS);
+		return shift * SUB_BUCKET_HALF + (int) (nanos >>> shift);
+	}
+
+	/**
+	 * Computes the longest time counted by a bucket.
+	 * @param index is the index of the bucket
+	 * @return the longest time of the bucket, in nanoseconds
+	 */
+	private static long highestValueOf(int index) {
+		int shift = Math.max(0, index / SUB_BUCKET_HALF - 1);
+		long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+		return ((subBucket + 1) << shift) - 1;
+	}
+
+	/**
+	 * The total count getter
+	 * @return the number of times recorded
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * The mean time getter
+	 * @return the mean of the times recorded, in nanoseconds, or 0 if nothing has been recorded
+	 */
+	public long getMeanNanos() {
+		return totalCount == 0 ? 0 : totalNanos / totalCount;
+	}
+
+	/**
+	 * The max time getter
+	 * @return the longest time recorded, in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos;
+	}
+}
@@ -0,0 +1,215 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * The class is the <b>atlas of the glyphs of a font</b>: all the glyphs are kept in a single image, laid out in a grid of
+ * 16 columns, and a table gives the position of every glyph in it.
+ *
+ * A glyph is drawn copying its rectangle of the atlas, so Java2D has to manage a single image instead of one for every glyph,
+ * and when a display is available the atlas is a compatible image that can be kept in video memory.
+ *
+ * In the atlas the pixels of the character are opaque white and the others are transparent, with the same rule used by the
+ * {@link GlyphMaskRenderer}: a pixel belongs to the character if any of its red, green or blue components is not zero.
+ *
+ * An atlas is immutable and can be shared between threads: the atlas of a font is kept in the {@link GlyphRegistry}.
+ *
+ * @see GlyphAtlasRenderer which draws the cells with the atlas.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class GlyphAtlas {
+
+	/**
+	 * The number of glyphs in a row of the atlas
+	 *
+	 */
+	public static final int COLUMNS = 16;
+
+	/**
+	 * The pixel of the atlas for the pixels of the character
+	 *
+	 */
+	private static final int LIT_PIXEL = 0xFFFFFFFF;
+
+	/**
+	 * The image with all the glyphs
+	 *
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The width in pixels of a glyph
+	 *
+	 */
+	private int glyphWidth;
+
+	/**
+	 * The height in pixels of a glyph
+	 *
+	 */
+	private int glyphHeight;
+
+	/**
+	 * The <i>x</i>-coordinate in the atlas of every glyph
+	 *
+	 */
+	private int[] sourceX;
+
+	/**
+	 * The <i>y</i>-coordinate in the atlas of every glyph
+	 *
+	 */
+	private int[] sourceY;
+
+	/**
+	 * Tells for every glyph if it has no pixels of the character, so that only its background has to be drawn
+	 *
+	 */
+	private boolean[] blank;
+
+	/**
+	 * Class constructor. It copies the glyphs in the atlas.
+	 * @param glyphsList are the glyphs of the font
+	 * @param glyphWidth is the width of a glyph, in pixels
+	 * @param glyphHeight is the height of a glyph, in pixels
+	 */
+	public GlyphAtlas(BufferedImage[] glyphsList, int glyphWidth, int glyphHeight) {
+		if (glyphsList == null)
+			throw new NullPointerException("glyphsList must not be null.");
+
+		if (glyphWidth < 1)
+			throw new IllegalArgumentException("glyphWidth " + glyphWidth + " must be greater than 0.");
+
+		if (glyphHeight < 1)
+			throw new IllegalArgumentException("glyphHeight " + glyphHeight + " must be greater than 0.");
+
+		this.glyphWidth = glyphWidth;
+		this.glyphHeight = glyphHeight;
+		this.sourceX = new int[glyphsList.length];
+		this.sourceY = new int[glyphsList.length];
+		this.blank = new boolean[glyphsList.length];
+
+		int rows = (glyphsList.length + COLUMNS - 1) / COLUMNS;
+		this.image = createCompatibleImage(COLUMNS * glyphWidth, Math.max(rows, 1) * glyphHeight);
+
+		int[] pixels = new int[glyphWidth * glyphHeight];
+		for (int i = 0; i < glyphsList.length; i++) {
+			sourceX[i] = (i % COLUMNS) * glyphWidth;
+			sourceY[i] = (i / COLUMNS) * glyphHeight;
+
+			glyphsList[i].getRGB(0, 0, glyphWidth, glyphHeight, pixels, 0, glyphWidth);
+			boolean lit = false;
+			for (int p = 0; p < pixels.length; p++) {
+				if ((pixels[p] & 0xFFFFFF) != 0) {
+					pixels[p] = LIT_PIXEL;
+					lit = true;
+				} else {
+					pixels[p] = 0;
+				}
+			}
+			blank[i] = !lit;
+			image.setRGB(sourceX[i], sourceY[i], glyphWidth, glyphHeight, pixels, 0, glyphWidth);
+		}
+	}
+
+	/**
+	 * Creates a translucent image for an atlas. When a display is available the image is compatible with the default screen,
+	 * so Java2D can copy it without converting its pixels, otherwise it is a <code>TYPE_INT_ARGB</code> image.
+	 * @param width is the width of the image
+	 * @param height is the height of the image
+	 * @return the new image, fully transparent
+	 */
+	static BufferedImage createCompatibleImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless())
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+		return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * Draws a glyph, white on transparent, copying its rectangle of the atlas.
+	 * @param g is the graphics to draw on
+	 * @param glyphIndex is the index of the glyph (the character)
+	 * @param x is the <i>x</i>-coordinate where to draw, in pixels
+	 * @param y is the <i>y</i>-coordinate where to draw, in pixels
+	 */
+	public void drawGlyph(Graphics g, int glyphIndex, int x, int y) {
+		int sx = sourceX[glyphIndex];
+		int sy = sourceY[glyphIndex];
+		g.drawImage(image, x, y, x + glyphWidth, y + glyphHeight, sx, sy, sx + glyphWidth, sy + glyphHeight, null);
+	}
+
+	/**
+	 * Copies the pixels of a glyph, where the pixels of the character are opaque white and the others are 0.
+	 * @param glyphIndex is the index of the glyph (the character)
+	 * @param pixels is where the pixels are copied, row by row; it must hold at least <code>glyphWidth * glyphHeight</code> values
+	 */
+	void getGlyphPixels(int glyphIndex, int[] pixels) {
+		image.getRGB(sourceX[glyphIndex], sourceY[glyphIndex], glyphWidth, glyphHeight, pixels, 0, glyphWidth);
+	}
+
+	/**
+	 * The atlas image getter. The image is shared and must not be modified.
+	 * @return the image with all the glyphs
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Returns the <i>x</i>-coordinate of a glyph in the atlas.
+	 * @param glyphIndex is the index of the glyph
+	 * @return the <i>x</i>-coordinate of the top left corner of the glyph
+	 */
+	public int getSourceX(int glyphIndex) {
+		return sourceX[glyphIndex];
+	}
+
+	/**
+	 * Returns the <i>y</i>-coordinate of a glyph in the atlas.
+	 * @param glyphIndex is the index of the glyph
+	 * @return the <i>y</i>-coordinate of the top left corner of the glyph
+	 */
+	public int getSourceY(int glyphIndex) {
+		return sourceY[glyphIndex];
+	}
+
+	/**
+	 * Tells if a glyph has no pixels of the character.
+	 * @param glyphIndex is the index of the glyph
+	 * @return true if the glyph is only background
+	 */
+	public boolean isBlank(int glyphIndex) {
+		return blank[glyphIndex];
+	}
+
+	/**
+	 * The glyphs count getter
+	 * @return the number of glyphs in the atlas
+	 */
+	public int getGlyphCount() {
+		return sourceX.length;
+	}
+
+	/**
+	 * The glyph width getter
+	 * @return the width in pixels of a glyph
+	 */
+	public int getGlyphWidth() {
+		return glyphWidth;
+	}
+
+	/**
+	 * The glyph height getter
+	 * @return the height in pixels of a glyph
+	 */
+	public int getGlyphHeight() {
+		return glyphHeight;
+	}
+}
@@ -0,0 +1,319 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The class is the engine of the {@link AsciiPanelRenderingMode#GLYPH_ATLAS} rendering mode.
+ *
+ * Drawing a cell means filling its rectangle with the background color and then copying the glyph rectangle from an atlas
+ * of the foreground color, so every cell is drawn with two plain <code>Graphics</code> calls on a few large images.
+ *
+ * The renderer keeps one copy of the {@link GlyphAtlas} for every recently used foreground color, where the pixels of the characters
+ * have that color. A glyph is tinted in the copy only the first time it is drawn with that color, so a new color costs
+ * as much as the glyphs actually used with it and not the whole atlas. When all the copies are in use, the least recently
+ * used one is reused for the new color.
+ *
+ * The class is not thread safe, it is meant to be used only by the painting thread.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class GlyphAtlasRenderer {
+
+	/**
+	 * The default maximum number of foreground colors kept
+	 *
+	 */
+	public static final int DEFAULT_CAPACITY = 32;
+
+	/**
+	 * Is the value used to mark a missing slot
+	 *
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The atlas of the font in use, white on transparent
+	 *
+	 */
+	private GlyphAtlas atlas;
+
+	/**
+	 * The maximum number of foreground colors kept
+	 *
+	 */
+	private int capacity;
+
+	/**
+	 * The number of foreground colors currently kept
+	 *
+	 */
+	private int size;
+
+	/**
+	 * The number of <code>long</code> words of the tinted glyphs bitmap of a slot
+	 *
+	 */
+	private int wordsPerSlot;
+
+	/**
+	 * The foreground color of every slot
+	 *
+	 */
+	private int[] slotColors;
+
+	/**
+	 * The tinted atlas of every slot
+	 *
+	 */
+	private BufferedImage[] slotImages;
+
+	/**
+	 * The glyphs already tinted in every slot, one bit per glyph.
+	 * The bits of slot <i>s</i> start at index <code>s * wordsPerSlot</code>.
+	 *
+	 */
+	private long[] slotTinted;
+
+	/**
+	 * The use counter value of the last use of every slot
+	 *
+	 */
+	private long[] slotLastUse;
+
+	/**
+	 * The counter incremented at every use of a slot
+	 *
+	 */
+	private long useCounter;
+
+	/**
+	 * The slot used by the last drawn cell, checked first since adjacent cells often share the same color
+	 *
+	 */
+	private int lastSlot = NONE;
+
+	/**
+	 * The last background color set on the graphics
+	 *
+	 */
+	private Color backgroundColor;
+
+	/**
+	 * The pixels of the glyph being tinted. It is reused on every miss.
+	 *
+	 */
+	private int[] pixelsBuffer;
+
+	/**
+	 * The number of glyphs drawn from an already tinted atlas
+	 *
+	 */
+	private long hits;
+
+	/**
+	 * The number of glyphs that had to be tinted
+	 *
+	 */
+	private long misses;
+
+	/**
+	 * Class constructor with the default capacity.
+	 * @param atlas is the atlas of the font in use
+	 */
+	public GlyphAtlasRenderer(GlyphAtlas atlas) {
+		this(atlas, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Class constructor specifying the capacity.
+	 * @param atlas is the atlas of the font in use
+	 * @param capacity is the maximum number of foreground colors to keep
+	 */
+	public GlyphAtlasRenderer(GlyphAtlas atlas, int capacity) {
+		if (atlas == null)
+			throw new NullPointerException("atlas must not be null.");
+
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity " + capacity + " must be greater than 0.");
+
+		this.atlas = atlas;
+		this.capacity = capacity;
+		this.wordsPerSlot = (atlas.getGlyphCount() + 63) >>> 6;
+		this.slotColors = new int[capacity];
+		this.slotImages = new BufferedImage[capacity];
+		this.slotTinted = new long[capacity * wordsPerSlot];
+		this.slotLastUse = new long[capacity];
+		this.pixelsBuffer = new int[atlas.getGlyphWidth() * atlas.getGlyphHeight()];
+	}
+
+	/**
+	 * Draws a cell: its rectangle is filled with the background color, then the glyph is copied from the atlas of the foreground color.
+	 * @param g is the graphics to draw on
+	 * @param x is the <i>x</i>-coordinate of the cell, in characters
+	 * @param y is the <i>y</i>-coordinate of the cell, in characters
+	 * @param glyphIndex is the index of the glyph (the character)
+	 * @param foregroundARGB is the foreground color
+	 * @param backgroundARGB is the background color
+	 */
+	public void drawGlyph(Graphics g, int x, int y, int glyphIndex, int foregroundARGB, int backgroundARGB) {
+		drawGlyph(g, x, y, glyphIndex, foregroundARGB, backgroundARGB, null);
+	}
+
+	/**
+	 * Draws a cell like {@link #drawGlyph(Graphics, int, int, int, int, int)}, timing apart the tinting of the glyph in the atlas
+	 * of the foreground color and the drawing of the background and of the glyph rectangle.
+	 * @param g is the graphics to draw on
+	 * @param x is the <i>x</i>-coordinate of the cell, in characters
+	 * @param y is the <i>y</i>-coordinate of the cell, in characters
+	 * @param glyphIndex is the index of the glyph (the character)
+	 * @param foregroundARGB is the foreground color
+	 * @param backgroundARGB is the background color
+	 * @param sample is where the times are added, or null to not measure them
+	 */
+	void drawGlyph(Graphics g, int x, int y, int glyphIndex, int foregroundARGB, int backgroundARGB, FrameSample sample) {
+		long start = sample != null ? System.nanoTime() : 0;
+		int width = atlas.getGlyphWidth();
+		int height = atlas.getGlyphHeight();
+		int dx = x * width;
+		int dy = y * height;
+
+		if (backgroundColor == null || backgroundColor.getRGB() != backgroundARGB)
+			backgroundColor = new Color(backgroundARGB, true);
+		g.setColor(backgroundColor);
+		g.fillRect(dx, dy, width, height);
+
+		if (atlas.isBlank(glyphIndex)) {
+			if (sample != null)
+				sample.addBlitNanos(System.nanoTime() - start);
+			return;
+		}
+
+		long tintStart = sample != null ? System.nanoTime() : 0;
+		BufferedImage tinted = getTintedAtlas(glyphIndex, foregroundARGB);
+		long tintEnd = sample != null ? System.nanoTime() : 0;
+		int sx = atlas.getSourceX(glyphIndex);
+		int sy = atlas.getSourceY(glyphIndex);
+		g.drawImage(tinted, dx, dy, dx + width, dy + height, sx, sy, sx + width, sy + height, null);
+		if (sample != null) {
+			sample.addTintNanos(tintEnd - tintStart);
+			sample.addBlitNanos(tintStart - start + System.nanoTime() - tintEnd);
+		}
+	}
+
+	/**
+	 * Returns the atlas of a foreground color, tinting the glyph in it if it is the first time it is drawn with that color.
+	 * @param glyphIndex is the index of the glyph to draw
+	 * @param foregroundARGB is the foreground color
+	 * @return the atlas where the glyph has the foreground color
+	 */
+	private BufferedImage getTintedAtlas(int glyphIndex, int foregroundARGB) {
+		int slot = findSlot(foregroundARGB);
+		if (slot == NONE)
+			slot = claimSlot(foregroundARGB);
+		slotLastUse[slot] = ++useCounter;
+		lastSlot = slot;
+
+		int word = slot * wordsPerSlot + (glyphIndex >>> 6);
+		long bit = 1L << glyphIndex;
+		if ((slotTinted[word] & bit) != 0) {
+			hits++;
+		} else {
+			misses++;
+			tint(slotImages[slot], glyphIndex, foregroundARGB);
+			slotTinted[word] |= bit;
+		}
+		return slotImages[slot];
+	}
+
+	/**
+	 * Looks for the slot of a foreground color, starting from the last used one.
+	 * @param foregroundARGB is the foreground color
+	 * @return the slot of the color, or {@link #NONE} if the color is not kept
+	 */
+	private int findSlot(int foregroundARGB) {
+		if (lastSlot != NONE && slotColors[lastSlot] == foregroundARGB)
+			return lastSlot;
+
+		for (int slot = 0; slot < size; slot++) {
+			if (slotColors[slot] == foregroundARGB)
+				return slot;
+		}
+		return NONE;
+	}
+
+	/**
+	 * Assigns a slot to a new foreground color: a free one if any, otherwise the least recently used one, whose glyphs are
+	 * marked as not tinted.
+	 * @param foregroundARGB is the foreground color
+	 * @return the slot of the color
+	 */
+	private int claimSlot(int foregroundARGB) {
+		int slot;
+		if (size < capacity) {
+			slot = size++;
+			slotImages[slot] = GlyphAtlas.createCompatibleImage(atlas.getImage().getWidth(), atlas.getImage().getHeight());
+		} else {
+			slot = 0;
+			for (int s = 1; s < capacity; s++) {
+				if (slotLastUse[s] < slotLastUse[slot])
+					slot = s;
+			}
+			Arrays.fill(slotTinted, slot * wordsPerSlot, (slot + 1) * wordsPerSlot, 0L);
+		}
+		slotColors[slot] = foregroundARGB;
+		return slot;
+	}
+
+	/**
+	 * Writes a glyph in a tinted atlas: the pixels of the character get the foreground color, the others become transparent.
+	 * @param destination is the tinted atlas
+	 * @param glyphIndex is the index of the glyph
+	 * @param foregroundARGB is the foreground color
+	 */
+	private void tint(BufferedImage destination, int glyphIndex, int foregroundARGB) {
+		atlas.getGlyphPixels(glyphIndex, pixelsBuffer);
+		for (int i = 0; i < pixelsBuffer.length; i++)
+			pixelsBuffer[i] = pixelsBuffer[i] != 0 ? foregroundARGB : 0;
+		destination.setRGB(atlas.getSourceX(glyphIndex), atlas.getSourceY(glyphIndex), atlas.getGlyphWidth(), atlas.getGlyphHeight(),
+				pixelsBuffer, 0, atlas.getGlyphWidth());
+	}
+
+	/**
+	 * Removes every tinted atlas. The statistics are not changed.
+	 *
+	 */
+	public void clear() {
+		Arrays.fill(slotImages, null);
+		Arrays.fill(slotTinted, 0L);
+		size = 0;
+		lastSlot = NONE;
+	}
+
+	/**
+	 * The atlas getter
+	 * @return the atlas of the font in use
+	 */
+	public GlyphAtlas getAtlas() {
+		return atlas;
+	}
+
+	/**
+	 * The hits getter
+	 * @return the number of glyphs drawn from an already tinted atlas
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * The misses getter
+	 * @return the number of glyphs that had to be tinted
+	 */
+	public long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,147 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The class is the <b>index of the glyphs of a font by their density</b>, used to choose the character for a pixel
+ * in the image conversion.
+ *
+ * The density of a glyph is the share of its lit pixels, scaled to 0-255. A darker pixel needs a denser glyph:
+ * for a pixel of luminance <i>l</i> the index gives the first glyph of density <code>255 - l</code> or, if no glyph
+ * has that density, the first glyph of the nearest lower density. The whole answer is precomputed in a 256 entries table,
+ * so choosing a glyph is a single array read.
+ *
+ * Computing an index reads every pixel of the 256 glyphs, so the index of a font is computed once and kept:
+ * {@link #forFont(AsciiFont)} always returns the same instance for equal fonts. An index is immutable and can be shared between threads.
+ *
+ * @see com.unitelmasapienza.asciiart.converter.AsciiConverter which uses it to convert images.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class GlyphDensityIndex {
+
+	/**
+	 * The indices already computed, by font
+	 *
+	 */
+	private static final ConcurrentMap<AsciiFont, GlyphDensityIndex> INDICES = new ConcurrentHashMap<AsciiFont, GlyphDensityIndex>();
+
+	/**
+	 * The density of every glyph, scaled to 0-255
+	 *
+	 */
+	private int[] glyphDensity;
+
+	/**
+	 * The glyph chosen for every luminance from 0 to 255
+	 *
+	 */
+	private int[] glyphForLuminance;
+
+	/**
+	 * Class constructor. It computes the index of the given glyphs.
+	 * @param glyphsList are the glyphs of a font; null glyphs are skipped
+	 */
+	private GlyphDensityIndex(BufferedImage[] glyphsList) {
+		int[] density = new int[glyphsList.length];
+		int[] firstGlyphWithDensity = new int[256];
+		Arrays.fill(firstGlyphWithDensity, -1);
+
+		int[] pixels = new int[0];
+		for (int i = 0; i < glyphsList.length; i++) {
+			BufferedImage glyph = glyphsList[i];
+			if (glyph == null) {
+				density[i] = -1;
+				continue;
+			}
+			int width = glyph.getWidth();
+			int height = glyph.getHeight();
+			if (pixels.length < width * height)
+				pixels = new int[width * height];
+			glyph.getRGB(0, 0, width, height, pixels, 0, width);
+
+			int lit = 0;
+			for (int p = 0; p < width * height; p++)
+				if ((pixels[p] & 0xFFFFFF) != 0)
+					lit++;
+
+			density[i] = (int) ((float) lit / (float) (width * height) * 255.f);
+			if (firstGlyphWithDensity[density[i]] < 0)
+				firstGlyphWithDensity[density[i]] = i;
+		}
+
+		int[] table = new int[256];
+		for (int luminance = 0; luminance < 256; luminance++) {
+			int k = 255 - luminance;
+			while (firstGlyphWithDensity[k] < 0 && k > 0)
+				k--;
+			table[luminance] = Math.max(firstGlyphWithDensity[k], 0);
+		}
+
+		this.glyphDensity = density;
+		this.glyphForLuminance = table;
+	}
+
+	/**
+	 * Returns the index of a font, computing it the first time the font is used.
+	 * @param font is the font
+	 * @return the index of the font
+	 * @throws IOException if the font sprite can not be read
+	 */
+	public static GlyphDensityIndex forFont(AsciiFont font) throws IOException {
+		if (font == null)
+			throw new NullPointerException("font must not be null.");
+
+		GlyphDensityIndex index = INDICES.get(font);
+		if (index == null) {
+			GlyphDensityIndex computed = new GlyphDensityIndex(GlyphRegistry.sharedGlyphs(font));
+			index = INDICES.putIfAbsent(font, computed);
+			if (index == null)
+				index = computed;
+		}
+		return index;
+	}
+
+	/**
+	 * Computes the index of a list of glyphs that does not come from a font. The index is not cached.
+	 * @param glyphsList are the glyphs
+	 * @return the index of the glyphs
+	 */
+	public static GlyphDensityIndex forGlyphs(BufferedImage[] glyphsList) {
+		if (glyphsList == null)
+			throw new NullPointerException("glyphsList must not be null.");
+
+		return new GlyphDensityIndex(glyphsList);
+	}
+
+	/**
+	 * Returns the glyph for a luminance.
+	 * @param luminance is the luminance of the pixel, within range [0,255]
+	 * @return the index of the glyph
+	 */
+	public int getGlyphForLuminance(int luminance) {
+		return glyphForLuminance[luminance];
+	}
+
+	/**
+	 * Returns the density of a glyph.
+	 * @param glyphIndex is the index of the glyph
+	 * @return the share of lit pixels of the glyph scaled to 0-255, or -1 if the glyph is missing
+	 */
+	public int getGlyphDensity(int glyphIndex) {
+		return glyphDensity[glyphIndex];
+	}
+
+	/**
+	 * The luminance table getter.
+	 * @return a copy of the table with the glyph for every luminance from 0 to 255
+	 */
+	public int[] getGlyphForLuminanceTable() {
+		return glyphForLuminance.clone();
+	}
+}
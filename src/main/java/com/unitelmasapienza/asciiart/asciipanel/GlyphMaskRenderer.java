@@ -0,0 +1,141 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+
+/**
+ * The class is the engine of the {@link AsciiPanelRenderingMode#RASTER_BLIT} rendering mode.
+ * 
+ * When it is created, every glyph of the font is turned into a <b>1-bit coverage mask</b>: one <code>long</code> for every
+ * row of the glyph, where the bit <i>n</i> is set if the pixel in column <i>n</i> belongs to the character.
+ * A pixel belongs to the character if any of its red, green or blue components is not zero, which is the same rule used by
+ * the <code>LookupOp</code> tinting for the black and white font sheets of the application.
+ * 
+ * Drawing a cell then means writing the foreground or the background RGB value straight into the <code>int[]</code> of the
+ * <code>TYPE_INT_RGB</code> offscreen buffer, without any <code>Graphics</code> call or temporary image.
+ * Note that accessing the pixels array directly makes Java2D stop accelerating the offscreen buffer, which is fine since it is
+ * only copied once per paint.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public class GlyphMaskRenderer {
+
+	/**
+	 * The width in pixels of a glyph
+	 * 
+	 */
+	private int glyphWidth;
+
+	/**
+	 * The height in pixels of a glyph
+	 * 
+	 */
+	private int glyphHeight;
+
+	/**
+	 * The coverage masks of all glyphs, one <code>long</code> per glyph row.
+	 * The row <i>r</i> of glyph <i>g</i> is at index <code>g * glyphHeight + r</code>.
+	 * 
+	 */
+	private long[] rowMasks;
+
+	/**
+	 * The pixels of the offscreen buffer
+	 * 
+	 */
+	private int[] pixels;
+
+	/**
+	 * The number of ints between the start of a row of pixels and the start of the next one
+	 * 
+	 */
+	private int scanlineStride;
+
+	/**
+	 * Class constructor. It computes the masks of the glyphs and binds the renderer to the offscreen buffer.
+	 * @param glyphsList are the glyphs of the font in use
+	 * @param glyphWidth is the width of a glyph, at most 64 pixels
+	 * @param glyphHeight is the height of a glyph
+	 * @param offscreenBuffer is the image to draw into, it must be of type <code>TYPE_INT_RGB</code>.
+	 * If it is null, it must be set with {@link #setOffscreenBuffer(BufferedImage)} before drawing.
+	 */
+	public GlyphMaskRenderer(BufferedImage[] glyphsList, int glyphWidth, int glyphHeight, BufferedImage offscreenBuffer) {
+		if (glyphWidth < 1 || glyphWidth > 64)
+			throw new IllegalArgumentException("glyphWidth " + glyphWidth + " must be within range [1,64].");
+
+		this.glyphWidth = glyphWidth;
+		this.glyphHeight = glyphHeight;
+		this.rowMasks = new long[glyphsList.length * glyphHeight];
+
+		int[] rowPixels = new int[glyphWidth];
+		for (int g = 0; g < glyphsList.length; g++) {
+			for (int row = 0; row < glyphHeight; row++) {
+				glyphsList[g].getRGB(0, row, glyphWidth, 1, rowPixels, 0, glyphWidth);
+				long mask = 0;
+				for (int col = 0; col < glyphWidth; col++) {
+					if ((rowPixels[col] & 0xFFFFFF) != 0)
+						mask |= 1L << col;
+				}
+				rowMasks[g * glyphHeight + row] = mask;
+			}
+		}
+
+		if (offscreenBuffer != null)
+			setOffscreenBuffer(offscreenBuffer);
+	}
+
+	/**
+	 * Binds the renderer to another image. The tiled canvas uses it to draw every tile in its own bitmap.
+	 * @param offscreenBuffer is the image to draw into, it must be of type <code>TYPE_INT_RGB</code>
+	 */
+	public void setOffscreenBuffer(BufferedImage offscreenBuffer) {
+		if (offscreenBuffer.getType() != BufferedImage.TYPE_INT_RGB)
+			throw new IllegalArgumentException("offscreenBuffer must be of type TYPE_INT_RGB.");
+
+		this.pixels = ((DataBufferInt) offscreenBuffer.getRaster().getDataBuffer()).getData();
+		this.scanlineStride = ((SinglePixelPackedSampleModel) offscreenBuffer.getSampleModel()).getScanlineStride();
+	}
+
+	/**
+	 * Draws a glyph in the cell at the given character coordinates.
+	 * @param x is the <i>x</i>-coordinate of the cell, in characters
+	 * @param y is the <i>y</i>-coordinate of the cell, in characters
+	 * @param glyphIndex is the glyph to draw
+	 * @param foregroundRGB is the color of the pixels covered by the glyph
+	 * @param backgroundRGB is the color of the other pixels
+	 */
+	public void drawGlyph(int x, int y, int glyphIndex, int foregroundRGB, int backgroundRGB) {
+		int maskIndex = glyphIndex * glyphHeight;
+		int offset = y * glyphHeight * scanlineStride + x * glyphWidth;
+		for (int row = 0; row < glyphHeight; row++) {
+			long mask = rowMasks[maskIndex + row];
+			if (mask == 0) {
+				Arrays.fill(pixels, offset, offset + glyphWidth, backgroundRGB);
+			} else {
+				for (int col = 0; col < glyphWidth; col++) {
+					pixels[offset + col] = ((mask >>> col) & 1L) != 0 ? foregroundRGB : backgroundRGB;
+				}
+			}
+			offset += scanlineStride;
+		}
+	}
+
+	/**
+	 * The glyph width getter
+	 * @return the width in pixels of a glyph
+	 */
+	public int getGlyphWidth() {
+		return glyphWidth;
+	}
+
+	/**
+	 * The glyph height getter
+	 * @return the height in pixels of a glyph
+	 */
+	public int getGlyphHeight() {
+		return glyphHeight;
+	}
+}
@@ -0,0 +1,149 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The class is the <b>process-wide registry of the glyphs of every font</b>.
+ *
+ * Decoding a font sprite and cutting it into its 256 glyphs is the most expensive part of creating an AsciiPanel or of
+ * switching its font, so the glyphs of a font are loaded the first time they are asked for and then kept:
+ * every panel, atlas and density index of equal fonts shares the same glyph images, and creating a new panel
+ * does not read the sprite again nor take more memory for the glyphs.
+ *
+ * The registry also keeps the {@link GlyphAtlas} of every font, built from its glyphs the first time it is asked for.
+ *
+ * The glyphs kept by the registry are never modified: the classes of this package read them to tint, mask or measure them,
+ * and the public getters give copies of the glyph images, so the registry can be used from any thread.
+ *
+ * @see AsciiFont#loadGlyphs() which reads the sprite.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public final class GlyphRegistry {
+
+	/**
+	 * The glyphs already loaded, by font
+	 *
+	 */
+	private static final ConcurrentMap<AsciiFont, BufferedImage[]> GLYPHS = new ConcurrentHashMap<AsciiFont, BufferedImage[]>();
+
+	/**
+	 * The atlases already built, by font
+	 *
+	 */
+	private static final ConcurrentMap<AsciiFont, GlyphAtlas> ATLASES = new ConcurrentHashMap<AsciiFont, GlyphAtlas>();
+
+	/**
+	 * Private constructor, the class has only static methods.
+	 *
+	 */
+	private GlyphRegistry() {
+	}
+
+	/**
+	 * Returns a copy of the glyphs of a font, loading them if it is the first time they are asked for.
+	 * Both the list and the images are copies, so the caller may modify them.
+	 * @param font is the font
+	 * @return the 256 glyphs of the font, as <code>TYPE_INT_ARGB</code> images
+	 * @throws IOException if the font sprite can not be found or read
+	 */
+	public static BufferedImage[] getGlyphs(AsciiFont font) throws IOException {
+		return copyGlyphs(sharedGlyphs(font));
+	}
+
+	/**
+	 * Returns one glyph of a font, loading the glyphs if it is the first time they are asked for.
+	 * The image is a copy, so the caller may modify it.
+	 * @param font is the font
+	 * @param character is the index of the glyph, within range [0,255]
+	 * @return a copy of the glyph image
+	 * @throws IOException if the font sprite can not be found or read
+	 */
+	public static BufferedImage getGlyph(AsciiFont font, int character) throws IOException {
+		BufferedImage[] glyphs = sharedGlyphs(font);
+		if (character < 0 || character >= glyphs.length)
+			throw new IllegalArgumentException("character " + character + " must be within range [0," + glyphs.length + "].");
+
+		return copyGlyph(glyphs[character]);
+	}
+
+	/**
+	 * Returns the atlas of the glyphs of a font, building it if it is the first time it is asked for.
+	 * The atlas is shared and immutable.
+	 * @param font is the font
+	 * @return the atlas of the font
+	 * @throws IOException if the font sprite can not be found or read
+	 */
+	public static GlyphAtlas getAtlas(AsciiFont font) throws IOException {
+		if (font == null)
+			throw new NullPointerException("font must not be null.");
+
+		GlyphAtlas atlas = ATLASES.get(font);
+		if (atlas == null) {
+			GlyphAtlas built = new GlyphAtlas(sharedGlyphs(font), font.getFontWidth(), font.getFontHeight());
+			atlas = ATLASES.putIfAbsent(font, built);
+			if (atlas == null)
+				atlas = built;
+		}
+		return atlas;
+	}
+
+	/**
+	 * Tells if the glyphs of a font are already loaded.
+	 * @param font is the font
+	 * @return true if the glyphs of the font are in the registry
+	 */
+	public static boolean isLoaded(AsciiFont font) {
+		if (font == null)
+			throw new NullPointerException("font must not be null.");
+
+		return GLYPHS.containsKey(font);
+	}
+
+	/**
+	 * Returns the shared list of the glyphs of a font, loading them if it is the first time they are asked for.
+	 * When two threads load the same font together only one of the two lists is kept, so all the callers always get the same instance.
+	 * The list is used by the classes of this package, which must not modify it nor its images.
+	 * @param font is the font
+	 * @return the shared list of the 256 glyphs of the font
+	 * @throws IOException if the font sprite can not be found or read
+	 */
+	static BufferedImage[] sharedGlyphs(AsciiFont font) throws IOException {
+		if (font == null)
+			throw new NullPointerException("font must not be null.");
+
+		BufferedImage[] glyphs = GLYPHS.get(font);
+		if (glyphs == null) {
+			BufferedImage[] loaded = font.loadGlyphs();
+			glyphs = GLYPHS.putIfAbsent(font, loaded);
+			if (glyphs == null)
+				glyphs = loaded;
+		}
+		return glyphs;
+	}
+
+	/**
+	 * Copies a list of glyphs and their images.
+	 * @param glyphs are the glyphs to copy
+	 * @return the copy of the list, with a copy of every image
+	 */
+	static BufferedImage[] copyGlyphs(BufferedImage[] glyphs) {
+		BufferedImage[] copy = new BufferedImage[glyphs.length];
+		for (int i = 0; i < glyphs.length; i++)
+			copy[i] = copyGlyph(glyphs[i]);
+		return copy;
+	}
+
+	/**
+	 * Copies the image of a glyph.
+	 * @param glyph is the glyph to copy
+	 * @return a new image with the same pixels and color model
+	 */
+	static BufferedImage copyGlyph(BufferedImage glyph) {
+		return new BufferedImage(glyph.getColorModel(), glyph.copyData(null), glyph.isAlphaPremultiplied(), null);
+	}
+}
@@ -0,0 +1,360 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The class is a <b>bounded LRU cache of tinted glyph images</b> used by the AsciiPanel when it draws the canvas.
+ * Every entry is identified by the glyph index, the foreground RGB and the background RGB of the cell, packed together
+ * in a single <code>long</code> key.
+ *
+ * The cache is implemented with plain arrays (hash buckets, collision chains and a doubly linked LRU list) so that a lookup
+ * that hits an existing entry does not allocate anything. When the cache is full, the least recently used entry is evicted and
+ * its image is reused for the new entry, so after the warm-up even the misses do not allocate.
+ *
+ * Only opaque colors are cached: the key has no room for the alpha channel, so for translucent colors
+ * {@link #getTintedGlyph(int, int, int)} returns null. The cells of an AsciiPanel are always opaque (see {@link CellBuffer}),
+ * so the panel always gets a glyph.
+ *
+ * The class is not thread safe, it is meant to be used only by the painting thread.
+ *
+ * @see AsciiPanel#paint(java.awt.Graphics) which uses it to draw every changed cell.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class GlyphTintCache {
+
+	/**
+	 * The default maximum number of tinted glyphs kept in the cache
+	 *
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * Is the value used to mark an empty bucket or the end of a chain/list
+	 *
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The glyphs (white on transparent) to be tinted
+	 *
+	 */
+	private BufferedImage[] glyphsList;
+
+	/**
+	 * The maximum number of entries of the cache
+	 *
+	 */
+	private int capacity;
+
+	/**
+	 * The number of entries currently in the cache
+	 *
+	 */
+	private int size;
+
+	/**
+	 * The heads of the collision chains, indexed by the hash of the key
+	 *
+	 */
+	private int[] buckets;
+
+	/**
+	 * The key of every slot
+	 *
+	 */
+	private long[] slotKeys;
+
+	/**
+	 * The tinted image of every slot
+	 *
+	 */
+	private BufferedImage[] slotImages;
+
+	/**
+	 * The next slot in the same collision chain
+	 *
+	 */
+	private int[] chainNext;
+
+	/**
+	 * The previous (more recently used) slot in the LRU list
+	 *
+	 */
+	private int[] lruPrevious;
+
+	/**
+	 * The next (less recently used) slot in the LRU list
+	 *
+	 */
+	private int[] lruNext;
+
+	/**
+	 * The most recently used slot
+	 *
+	 */
+	private int lruHead = NONE;
+
+	/**
+	 * The least recently used slot, the first one to be evicted
+	 *
+	 */
+	private int lruTail = NONE;
+
+	/**
+	 * The pixels of the glyph being tinted. It is reused on every miss.
+	 *
+	 */
+	private int[] pixelsBuffer;
+
+	/**
+	 * The number of lookups that found the tinted glyph in the cache
+	 *
+	 */
+	private long hits;
+
+	/**
+	 * The number of lookups that had to tint the glyph
+	 *
+	 */
+	private long misses;
+
+	/**
+	 * Class constructor with the default capacity.
+	 * @param glyphsList are the glyphs of the font in use
+	 */
+	public GlyphTintCache(BufferedImage[] glyphsList) {
+		this(glyphsList, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Class constructor specifying the capacity.
+	 * @param glyphsList are the glyphs of the font in use
+	 * @param capacity is the maximum number of tinted glyphs to keep
+	 */
+	public GlyphTintCache(BufferedImage[] glyphsList, int capacity) {
+		if (glyphsList == null)
+			throw new NullPointerException("glyphsList must not be null.");
+
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity " + capacity + " must be greater than 0.");
+
+		this.glyphsList = glyphsList;
+		this.capacity = capacity;
+
+		int bucketsCount = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		this.buckets = new int[bucketsCount];
+		Arrays.fill(buckets, NONE);
+
+		this.slotKeys = new long[capacity];
+		this.slotImages = new BufferedImage[capacity];
+		this.chainNext = new int[capacity];
+		this.lruPrevious = new int[capacity];
+		this.lruNext = new int[capacity];
+	}
+
+	/**
+	 * Returns the glyph at the given index tinted with the given colors.
+	 * If the same combination has been requested before and it is still in the cache, the cached image is returned,
+	 * otherwise the glyph is tinted (reusing the least recently used image when the cache is full).
+	 *
+	 * The returned image belongs to the cache: it must be drawn immediately and never modified or kept.
+	 *
+	 * @param glyphIndex is the index of the glyph (the character)
+	 * @param foregroundARGB is the foreground color
+	 * @param backgroundARGB is the background color
+	 * @return the tinted glyph, or null if one of the colors is not opaque
+	 */
+	public BufferedImage getTintedGlyph(int glyphIndex, int foregroundARGB, int backgroundARGB) {
+		if ((foregroundARGB >>> 24) != 0xFF || (backgroundARGB >>> 24) != 0xFF)
+			return null;
+
+		long key = createKey(glyphIndex, foregroundARGB, backgroundARGB);
+		int bucket = bucketOf(key);
+
+		for (int slot = buckets[bucket]; slot != NONE; slot = chainNext[slot]) {
+			if (slotKeys[slot] == key) {
+				hits++;
+				moveToHead(slot);
+				return slotImages[slot];
+			}
+		}
+
+		misses++;
+		BufferedImage glyph = glyphsList[glyphIndex];
+		int slot;
+		if (size < capacity) {
+			slot = size++;
+			slotImages[slot] = new BufferedImage(glyph.getWidth(), glyph.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		} else {
+			slot = lruTail;
+			unlinkFromChain(slot);
+			unlinkFromList(slot);
+		}
+
+		tint(glyph, slotImages[slot], foregroundARGB, backgroundARGB);
+
+		slotKeys[slot] = key;
+		chainNext[slot] = buckets[bucket];
+		buckets[bucket] = slot;
+		linkAtHead(slot);
+		return slotImages[slot];
+	}
+
+	/**
+	 * Removes every entry from the cache. The statistics are not changed.
+	 *
+	 */
+	public void clear() {
+		Arrays.fill(buckets, NONE);
+		Arrays.fill(slotImages, null);
+		size = 0;
+		lruHead = NONE;
+		lruTail = NONE;
+	}
+
+	/**
+	 * Resets the hits and misses counters.
+	 *
+	 */
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Packs the glyph index and the two RGB colors into a single key.
+	 * @param glyphIndex is the glyph index
+	 * @param foregroundRGB is the foreground color
+	 * @param backgroundRGB is the background color
+	 * @return the key
+	 */
+	private static long createKey(int glyphIndex, int foregroundRGB, int backgroundRGB) {
+		return ((long) (glyphIndex & 0xFFFF) << 48)
+				| ((long) (foregroundRGB & 0xFFFFFF) << 24)
+				| (backgroundRGB & 0xFFFFFF);
+	}
+
+	/**
+	 * Computes the bucket of a key.
+	 * @param key is the key
+	 * @return the bucket index
+	 */
+	private int bucketOf(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h >>> 32) & (buckets.length - 1);
+	}
+
+	/**
+	 * Tints the glyph into the destination image, with the same rule of the <code>LookupOp</code> used by AsciiPanel:
+	 * every channel equal to zero takes the value of the background, any other value takes the value of the foreground.
+	 * @param glyph is the source glyph
+	 * @param destination is the image to write
+	 * @param foregroundARGB is the foreground color
+	 * @param backgroundARGB is the background color
+	 */
+	private void tint(BufferedImage glyph, BufferedImage destination, int foregroundARGB, int backgroundARGB) {
+		int width = glyph.getWidth();
+		int height = glyph.getHeight();
+		if (pixelsBuffer == null || pixelsBuffer.length < width * height)
+			pixelsBuffer = new int[width * height];
+
+		glyph.getRGB(0, 0, width, height, pixelsBuffer, 0, width);
+		for (int i = 0; i < width * height; i++) {
+			int pixel = pixelsBuffer[i];
+			int tinted = 0;
+			tinted |= ((pixel & 0xFF000000) == 0 ? backgroundARGB : foregroundARGB) & 0xFF000000;
+			tinted |= ((pixel & 0x00FF0000) == 0 ? backgroundARGB : foregroundARGB) & 0x00FF0000;
+			tinted |= ((pixel & 0x0000FF00) == 0 ? backgroundARGB : foregroundARGB) & 0x0000FF00;
+			tinted |= ((pixel & 0x000000FF) == 0 ? backgroundARGB : foregroundARGB) & 0x000000FF;
+			pixelsBuffer[i] = tinted;
+		}
+		destination.setRGB(0, 0, width, height, pixelsBuffer, 0, width);
+	}
+
+	/**
+	 * Removes a slot from its collision chain.
+	 * @param slot is the slot to remove
+	 */
+	private void unlinkFromChain(int slot) {
+		int bucket = bucketOf(slotKeys[slot]);
+		if (buckets[bucket] == slot) {
+			buckets[bucket] = chainNext[slot];
+			return;
+		}
+		for (int s = buckets[bucket]; s != NONE; s = chainNext[s]) {
+			if (chainNext[s] == slot) {
+				chainNext[s] = chainNext[slot];
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes a slot from the LRU list.
+	 * @param slot is the slot to remove
+	 */
+	private void unlinkFromList(int slot) {
+		int previous = lruPrevious[slot];
+		int next = lruNext[slot];
+		if (previous != NONE) lruNext[previous] = next; else lruHead = next;
+		if (next != NONE) lruPrevious[next] = previous; else lruTail = previous;
+	}
+
+	/**
+	 * Inserts a slot at the head (most recently used) of the LRU list.
+	 * @param slot is the slot to insert
+	 */
+	private void linkAtHead(int slot) {
+		lruPrevious[slot] = NONE;
+		lruNext[slot] = lruHead;
+		if (lruHead != NONE) lruPrevious[lruHead] = slot;
+		lruHead = slot;
+		if (lruTail == NONE) lruTail = slot;
+	}
+
+	/**
+	 * Marks a slot as the most recently used.
+	 * @param slot is the slot just used
+	 */
+	private void moveToHead(int slot) {
+		if (lruHead == slot)
+			return;
+		unlinkFromList(slot);
+		linkAtHead(slot);
+	}
+
+	/**
+	 * The hits counter getter
+	 * @return the number of lookups served by the cache
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * The misses counter getter
+	 * @return the number of lookups that had to tint the glyph
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * The size getter
+	 * @return the number of tinted glyphs currently in the cache
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * The capacity getter
+	 * @return the maximum number of tinted glyphs in the cache
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,29 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * The interface is the <b>primitive variant of the {@link TileTransformer}</b>: the cell is given as its character and
+ * its two RGB colors, and the transformed cell is returned packed with {@link CellBuffer#pack(char, int, int)}, so transforming
+ * a cell does not create any object.
+ *
+ * In the parallel mode of {@link AsciiPanel#withEachTile(int, int, int, int, IntTileTransformer, boolean)} the transformer is
+ * called by several threads at once, each on its own rows, so it must be thread safe: random effects should use
+ * <code>ThreadLocalRandom</code> instead of a shared <code>Random</code>.
+ *
+ * @see AsciiPanel#withEachTile(IntTileTransformer, boolean) which applies it to the whole canvas.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public interface IntTileTransformer {
+
+	/**
+	 * Transforms a cell.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @param character is the character of the cell
+	 * @param foregroundRGB is the foreground color of the cell, as opaque ARGB
+	 * @param backgroundRGB is the background color of the cell, as opaque ARGB
+	 * @return the transformed cell, packed; returning the cell unchanged leaves it clean
+	 */
+	public long transformTile(int x, int y, char character, int foregroundRGB, int backgroundRGB);
+}
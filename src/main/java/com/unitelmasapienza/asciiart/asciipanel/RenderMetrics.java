@@ -0,0 +1,279 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The class is the <b>registry of the render metrics</b> of an {@link AsciiPanel}: for every paint it records the cells checked
+ * and drawn again, the hits and misses of the {@link GlyphTintCache} or of the {@link GlyphAtlasRenderer}, the time spent
+ * tinting glyphs and copying pixels, and the frame time, whose distribution is kept in a {@link FrameTimeHistogram}.
+ *
+ * The metrics are opt-in: a panel records them only after {@link AsciiPanel#setRenderMetrics(RenderMetrics)}, otherwise its paint
+ * does not even read the clock. The same registry can be given to the panels that replace each other, like the canvases of the editor.
+ * They can be read while the application is running through JMX, after {@link #registerMBean()}, or on the canvas itself
+ * with {@link AsciiPanel#setMetricsOverlayVisible(boolean)}.
+ *
+ * The frames are recorded by the event dispatch thread and can be read by any thread.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class RenderMetrics implements RenderMetricsMBean {
+
+	/**
+	 * The name of the MBean registered by {@link #registerMBean()}
+	 *
+	 */
+	public static final String OBJECT_NAME = "com.unitelmasapienza.asciiart:type=RenderMetrics";
+
+	/**
+	 * The number of nanoseconds in a millisecond
+	 *
+	 */
+	private static final double NANOS_PER_MILLISECOND = 1000000.0;
+
+	/**
+	 * The distribution of the frame times
+	 *
+	 */
+	private FrameTimeHistogram frameTimes = new FrameTimeHistogram();
+
+	/**
+	 * The time of the last frame, in nanoseconds
+	 *
+	 */
+	private long lastFrameNanos;
+
+	/**
+	 * The number of cells checked by the last frame
+	 *
+	 */
+	private int lastCellsScanned;
+
+	/**
+	 * The number of cells drawn again by the last frame
+	 *
+	 */
+	private int lastCellsRedrawn;
+
+	/**
+	 * The time spent tinting glyphs by the last frame, in nanoseconds
+	 *
+	 */
+	private long lastTintNanos;
+
+	/**
+	 * The time spent copying pixels by the last frame, in nanoseconds
+	 *
+	 */
+	private long lastBlitNanos;
+
+	/**
+	 * The number of cells checked by all the frames
+	 *
+	 */
+	private long totalCellsScanned;
+
+	/**
+	 * The number of cells drawn again by all the frames
+	 *
+	 */
+	private long totalCellsRedrawn;
+
+	/**
+	 * The number of tinted glyphs found in the cache by all the frames
+	 *
+	 */
+	private long tintCacheHits;
+
+	/**
+	 * The number of glyphs tinted because they were not in the cache by all the frames
+	 *
+	 */
+	private long tintCacheMisses;
+
+	/**
+	 * The time spent tinting glyphs by all the frames, in nanoseconds
+	 *
+	 */
+	private long totalTintNanos;
+
+	/**
+	 * The time spent copying pixels by all the frames, in nanoseconds
+	 *
+	 */
+	private long totalBlitNanos;
+
+	/**
+	 * Records a frame.
+	 * @param sample is the work done by the frame
+	 * @param cacheHits is the number of tinted glyphs found in the cache by the frame
+	 * @param cacheMisses is the number of glyphs tinted by the frame because they were not in the cache
+	 * @param frameNanos is the time of the frame, in nanoseconds
+	 */
+	synchronized void recordFrame(FrameSample sample, long cacheHits, long cacheMisses, long frameNanos) {
+		frameTimes.record(frameNanos);
+		lastFrameNanos = frameNanos;
+		lastCellsScanned = sample.getCellsScanned();
+		lastCellsRedrawn = sample.getCellsRedrawn();
+		lastTintNanos = sample.getTintNanos();
+		lastBlitNanos = sample.getBlitNanos();
+
+		totalCellsScanned += lastCellsScanned;
+		totalCellsRedrawn += lastCellsRedrawn;
+		tintCacheHits += cacheHits;
+		tintCacheMisses += cacheMisses;
+		totalTintNanos += lastTintNanos;
+		totalBlitNanos += lastBlitNanos;
+	}
+
+	/**
+	 * Registers the metrics in the platform MBean server, with the name {@link #OBJECT_NAME}.
+	 * @throws JMException if the name is already registered or the MBean can not be registered
+	 */
+	public void registerMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.registerMBean(this, new ObjectName(OBJECT_NAME));
+	}
+
+	/**
+	 * Removes the metrics from the platform MBean server.
+	 * @throws JMException if the metrics are not registered
+	 */
+	public void unregisterMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.unregisterMBean(new ObjectName(OBJECT_NAME));
+	}
+
+	/**
+	 * Describes the last frame and the distribution of the frame times in a few short lines, as shown by the overlay of the panel.
+	 * @return the lines of the summary
+	 */
+	public synchronized String[] getSummary() {
+		return new String[] {
+				String.format("frame %.2f ms  p50 %.2f  p99 %.2f  max %.2f  (%d frames)", getLastFrameTime(),
+						getFrameTime50thPercentile(), getFrameTime99thPercentile(), getMaxFrameTime(), getFrameCount()),
+				String.format("cells %d scanned  %d redrawn", lastCellsScanned, lastCellsRedrawn),
+				String.format("tint %.2f ms  blit %.2f ms  cache %.1f%% hits", getLastTintTime(), getLastBlitTime(), getTintCacheHitRatio() * 100)
+		};
+	}
+
+	@Override
+	public synchronized void reset() {
+		frameTimes.reset();
+		lastFrameNanos = 0;
+		lastCellsScanned = 0;
+		lastCellsRedrawn = 0;
+		lastTintNanos = 0;
+		lastBlitNanos = 0;
+		totalCellsScanned = 0;
+		totalCellsRedrawn = 0;
+		tintCacheHits = 0;
+		tintCacheMisses = 0;
+		totalTintNanos = 0;
+		totalBlitNanos = 0;
+	}
+
+	/**
+	 * Converts a time to milliseconds.
+	 * @param nanos is the time, in nanoseconds
+	 * @return the time, in milliseconds
+	 */
+	private static double toMilliseconds(long nanos) {
+		return nanos / NANOS_PER_MILLISECOND;
+	}
+
+	@Override
+	public synchronized long getFrameCount() {
+		return frameTimes.getTotalCount();
+	}
+
+	@Override
+	public synchronized double getLastFrameTime() {
+		return toMilliseconds(lastFrameNanos);
+	}
+
+	@Override
+	public synchronized double getMeanFrameTime() {
+		return toMilliseconds(frameTimes.getMeanNanos());
+	}
+
+	@Override
+	public synchronized double getFrameTime50thPercentile() {
+		return toMilliseconds(frameTimes.getPercentile(50));
+	}
+
+	@Override
+	public synchronized double getFrameTime90thPercentile() {
+		return toMilliseconds(frameTimes.getPercentile(90));
+	}
+
+	@Override
+	public synchronized double getFrameTime99thPercentile() {
+		return toMilliseconds(frameTimes.getPercentile(99));
+	}
+
+	@Override
+	public synchronized double getMaxFrameTime() {
+		return toMilliseconds(frameTimes.getMaxNanos());
+	}
+
+	@Override
+	public synchronized int getLastCellsScanned() {
+		return lastCellsScanned;
+	}
+
+	@Override
+	public synchronized int getLastCellsRedrawn() {
+		return lastCellsRedrawn;
+	}
+
+	@Override
+	public synchronized long getTotalCellsScanned() {
+		return totalCellsScanned;
+	}
+
+	@Override
+	public synchronized long getTotalCellsRedrawn() {
+		return totalCellsRedrawn;
+	}
+
+	@Override
+	public synchronized long getTintCacheHits() {
+		return tintCacheHits;
+	}
+
+	@Override
+	public synchronized long getTintCacheMisses() {
+		return tintCacheMisses;
+	}
+
+	@Override
+	public synchronized double getTintCacheHitRatio() {
+		long lookups = tintCacheHits + tintCacheMisses;
+		return lookups == 0 ? 0 : (double) tintCacheHits / lookups;
+	}
+
+	@Override
+	public synchronized double getLastTintTime() {
+		return toMilliseconds(lastTintNanos);
+	}
+
+	@Override
+	public synchronized double getLastBlitTime() {
+		return toMilliseconds(lastBlitNanos);
+	}
+
+	@Override
+	public synchronized double getTotalTintTime() {
+		return toMilliseconds(totalTintNanos);
+	}
+
+	@Override
+	public synchronized double getTotalBlitTime() {
+		return toMilliseconds(totalBlitNanos);
+	}
+}
@@ -0,0 +1,109 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+/**
+ * The interface is the <b>JMX management interface of the {@link RenderMetrics}</b>: every getter is an attribute
+ * that can be read with any JMX console, like <i>jconsole</i> or <i>VisualVM</i>, while the editor is running.
+ *
+ * The times are in milliseconds.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public interface RenderMetricsMBean {
+
+	/**
+	 * @return the number of frames painted
+	 */
+	long getFrameCount();
+
+	/**
+	 * @return the time of the last frame
+	 */
+	double getLastFrameTime();
+
+	/**
+	 * @return the mean time of the frames
+	 */
+	double getMeanFrameTime();
+
+	/**
+	 * @return the median time of the frames
+	 */
+	double getFrameTime50thPercentile();
+
+	/**
+	 * @return the 90th percentile of the times of the frames
+	 */
+	double getFrameTime90thPercentile();
+
+	/**
+	 * @return the 99th percentile of the times of the frames
+	 */
+	double getFrameTime99thPercentile();
+
+	/**
+	 * @return the longest time of a frame
+	 */
+	double getMaxFrameTime();
+
+	/**
+	 * @return the number of cells checked by the last frame
+	 */
+	int getLastCellsScanned();
+
+	/**
+	 * @return the number of cells drawn again by the last frame
+	 */
+	int getLastCellsRedrawn();
+
+	/**
+	 * @return the number of cells checked by all the frames
+	 */
+	long getTotalCellsScanned();
+
+	/**
+	 * @return the number of cells drawn again by all the frames
+	 */
+	long getTotalCellsRedrawn();
+
+	/**
+	 * @return the number of tinted glyphs found in the cache
+	 */
+	long getTintCacheHits();
+
+	/**
+	 * @return the number of glyphs tinted because they were not in the cache
+	 */
+	long getTintCacheMisses();
+
+	/**
+	 * @return the fraction of tinted glyphs found in the cache, within range [0,1]
+	 */
+	double getTintCacheHitRatio();
+
+	/**
+	 * @return the time spent tinting glyphs by the last frame
+	 */
+	double getLastTintTime();
+
+	/**
+	 * @return the time spent copying pixels by the last frame
+	 */
+	double getLastBlitTime();
+
+	/**
+	 * @return the time spent tinting glyphs by all the frames
+	 */
+	double getTotalTintTime();
+
+	/**
+	 * @return the time spent copying pixels by all the frames
+	 */
+	double getTotalBlitTime();
+
+	/**
+	 * Removes all the recorded frames.
+	 *
+	 */
+	void reset();
+}
@@ -0,0 +1,98 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+
+/**
+ * The class is the <b>command of a bulk operation</b>, like a fill, a conversion or a load,
+ * kept as the copy-on-write snapshots of the canvas before and after the operation.
+ *
+ * The two snapshots share all the tiles the operation did not touch, and the snapshot before is usually shared with the
+ * previous command too, so the command takes about the memory of the changed tiles, whatever the number of changed cells.
+ * Undoing and redoing restore a snapshot, copying only the tiles that differ.
+ *
+ * @see EditHistory which creates the commands.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class SnapshotCommand extends EditCommand {
+
+	/**
+	 * The memory taken by a command besides its snapshots, in bytes
+	 *
+	 */
+	private static final int OVERHEAD_BYTES = 128;
+
+	/**
+	 * The memory taken by a tile, in bytes
+	 *
+	 */
+	private static final int TILE_BYTES = 16 + CellSnapshot.TILE_CELLS * 8;
+
+	/**
+	 * The snapshot of the canvas before the operation
+	 *
+	 */
+	private CellSnapshot before;
+
+	/**
+	 * The snapshot of the canvas after the operation
+	 *
+	 */
+	private CellSnapshot after;
+
+	/**
+	 * The memory taken by the command, in bytes
+	 *
+	 */
+	private long memorySize;
+
+	/**
+	 * Command constructor.
+	 * @param before is the snapshot before the operation
+	 * @param after is the snapshot after the operation
+	 * @param bounds is the bounding box of the changed cells
+	 */
+	SnapshotCommand(CellSnapshot before, CellSnapshot after, Rectangle bounds) {
+		super(bounds);
+		this.before = before;
+		this.after = after;
+		this.memorySize = OVERHEAD_BYTES + 2L * 8 * after.getTilesCount() + (long) after.countChangedTiles(before) * TILE_BYTES;
+	}
+
+	@Override
+	void undo(CellBuffer cells, SnapshotTracker tracker) {
+		tracker.restore(before);
+	}
+
+	@Override
+	void redo(CellBuffer cells, SnapshotTracker tracker) {
+		tracker.restore(after);
+	}
+
+	/**
+	 * Computes the memory taken by the command. Only the tiles created by the operation are counted,
+	 * the ones of the snapshot before belong to the previous versions.
+	 * @return the approximate size of the command, in bytes
+	 */
+	@Override
+	public long getMemorySize() {
+		return memorySize;
+	}
+
+	/**
+	 * The snapshot before getter
+	 * @return the snapshot of the canvas before the operation
+	 */
+	public CellSnapshot getBefore() {
+		return before;
+	}
+
+	/**
+	 * The snapshot after getter
+	 * @return the snapshot of the canvas after the operation
+	 */
+	public CellSnapshot getAfter() {
+		return after;
+	}
+}
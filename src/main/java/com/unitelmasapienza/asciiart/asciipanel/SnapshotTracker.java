@@ -0,0 +1,223 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.util.Arrays;
+
+/**
+ * The class <b>takes copy-on-write snapshots of a cell buffer</b> and restores them.
+ *
+ * It remembers the last snapshot taken or restored and which of its tiles have been changed since then (it must be told
+ * of every change through {@link #cellChanged(int)}). A new snapshot copies only those tiles and shares all the others
+ * with the last one; restoring a snapshot writes back only the tiles that differ from the last one or have been changed.
+ * The first snapshot copies the whole buffer, except the tiles whose cells are all equal, which share one array.
+ *
+ * The class is not thread safe, it is meant to be used only by the event dispatch thread.
+ *
+ * @see EditHistory which uses it to undo the bulk operations.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class SnapshotTracker {
+
+	/**
+	 * The tracked cells
+	 *
+	 */
+	private CellBuffer cells;
+
+	/**
+	 * The number of tiles in a row of tiles
+	 *
+	 */
+	private int tilesPerRow;
+
+	/**
+	 * The number of tiles of the buffer
+	 *
+	 */
+	private int tilesCount;
+
+	/**
+	 * The last snapshot taken or restored, null before the first one
+	 *
+	 */
+	private CellSnapshot last;
+
+	/**
+	 * The tiles changed since the last snapshot, one bit per tile
+	 *
+	 */
+	private long[] changedTiles;
+
+	/**
+	 * The cells of the tile being copied, reused for every tile
+	 *
+	 */
+	private long[] tileBuffer = new long[CellSnapshot.TILE_CELLS];
+
+	/**
+	 * The last tile whose cells are all equal, shared by all the snapshot tiles with the same cells; null if none yet
+	 *
+	 */
+	private long[] uniformTile;
+
+	/**
+	 * The value of all the cells of {@link #uniformTile}
+	 *
+	 */
+	private long uniformCell;
+
+	/**
+	 * Class constructor.
+	 * @param cells are the cells to track
+	 */
+	public SnapshotTracker(CellBuffer cells) {
+		if (cells == null)
+			throw new NullPointerException("cells must not be null.");
+
+		this.cells = cells;
+		this.tilesPerRow = CellSnapshot.tilesCount(cells.getWidth());
+		this.tilesCount = tilesPerRow * CellSnapshot.tilesCount(cells.getHeight());
+		this.changedTiles = new long[(tilesCount + 63) >>> 6];
+	}
+
+	/**
+	 * Records that a cell has been changed.
+	 * @param index is the index of the cell, in row-major order
+	 */
+	public void cellChanged(int index) {
+		int width = cells.getWidth();
+		int tile = (index / width / CellSnapshot.TILE_SIZE) * tilesPerRow + (index % width) / CellSnapshot.TILE_SIZE;
+		changedTiles[tile >>> 6] |= 1L << tile;
+	}
+
+	/**
+	 * Records that all the cells of a rectangle may have been changed. The rectangle must be inside the buffer.
+	 * @param x is the <i>x</i>-coordinate of the top left cell
+	 * @param y is the <i>y</i>-coordinate of the top left cell
+	 * @param width is the width of the rectangle, in cells
+	 * @param height is the height of the rectangle, in cells
+	 */
+	public void regionChanged(int x, int y, int width, int height) {
+		if (width < 1 || height < 1)
+			return;
+
+		int lastColumn = (x + width - 1) / CellSnapshot.TILE_SIZE;
+		int lastRow = (y + height - 1) / CellSnapshot.TILE_SIZE;
+		for (int row = y / CellSnapshot.TILE_SIZE; row <= lastRow; row++) {
+			for (int column = x / CellSnapshot.TILE_SIZE; column <= lastColumn; column++) {
+				int tile = row * tilesPerRow + column;
+				changedTiles[tile >>> 6] |= 1L << tile;
+			}
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the cells, copying only the tiles changed since the last snapshot.
+	 * @return the snapshot
+	 */
+	public CellSnapshot snapshot() {
+		long[][] tiles = last == null ? new long[tilesCount][] : last.getTiles().clone();
+		for (int tile = 0; tile < tilesCount; tile++)
+			if (last == null || isChanged(tile))
+				tiles[tile] = copyTile(tile);
+
+		Arrays.fill(changedTiles, 0);
+		last = new CellSnapshot(cells.getWidth(), cells.getHeight(), tiles);
+		return last;
+	}
+
+	/**
+	 * Writes a snapshot back into the cells, copying only the tiles that differ from the last snapshot or have been changed since.
+	 * @param snapshot is the snapshot to restore, taken from the same cells
+	 */
+	public void restore(CellSnapshot snapshot) {
+		if (snapshot.getTilesCount() != tilesCount)
+			throw new IllegalArgumentException("the snapshot has " + snapshot.getTilesCount() + " tiles instead of " + tilesCount + ".");
+
+		for (int tile = 0; tile < tilesCount; tile++)
+			if (last == null || isChanged(tile) || last.getTile(tile) != snapshot.getTile(tile))
+				writeTile(tile, snapshot.getTile(tile));
+
+		Arrays.fill(changedTiles, 0);
+		last = snapshot;
+	}
+
+	/**
+	 * Tells if a tile has been changed since the last snapshot.
+	 * @param tile is the index of the tile
+	 * @return true if the tile has been changed
+	 */
+	private boolean isChanged(int tile) {
+		return (changedTiles[tile >>> 6] & (1L << tile)) != 0;
+	}
+
+	/**
+	 * Copies the cells of a tile from the buffer into a new array. A tile whose cells are all equal, like the empty tiles
+	 * of a sparse canvas, is not copied: it gets the array shared by the tiles with the same cells.
+	 * @param tile is the index of the tile
+	 * @return the cells of the tile, in row-major order
+	 */
+	private long[] copyTile(int tile) {
+		int width = cells.getWidth();
+		int x = (tile % tilesPerRow) * CellSnapshot.TILE_SIZE;
+		int y = (tile / tilesPerRow) * CellSnapshot.TILE_SIZE;
+		int columns = Math.min(CellSnapshot.TILE_SIZE, width - x);
+		int rows = Math.min(CellSnapshot.TILE_SIZE, cells.getHeight() - y);
+		for (int row = 0; row < rows; row++)
+			cells.readRun((y + row) * width + x, tileBuffer, row * CellSnapshot.TILE_SIZE, columns);
+
+		if (isUniform(tileBuffer, columns, rows)) {
+			if (uniformTile == null || uniformCell != tileBuffer[0]) {
+				uniformCell = tileBuffer[0];
+				uniformTile = new long[CellSnapshot.TILE_CELLS];
+				Arrays.fill(uniformTile, uniformCell);
+			}
+			return uniformTile;
+		}
+
+		long[] copy = new long[CellSnapshot.TILE_CELLS];
+		for (int row = 0; row < rows; row++)
+			System.arraycopy(tileBuffer, row * CellSnapshot.TILE_SIZE, copy, row * CellSnapshot.TILE_SIZE, columns);
+		return copy;
+	}
+
+	/**
+	 * Tells if the cells of a tile inside the buffer are all equal.
+	 * @param tileCells are the cells of the tile, in row-major order
+	 * @param columns is the number of columns of the tile inside the buffer
+	 * @param rows is the number of rows of the tile inside the buffer
+	 * @return true if all the cells are equal to the first one
+	 */
+	private static boolean isUniform(long[] tileCells, int columns, int rows) {
+		long first = tileCells[0];
+		for (int row = 0; row < rows; row++)
+			for (int column = 0; column < columns; column++)
+				if (tileCells[row * CellSnapshot.TILE_SIZE + column] != first)
+					return false;
+		return true;
+	}
+
+	/**
+	 * Copies the cells of a tile into the buffer.
+	 * @param tile is the index of the tile
+	 * @param source are the cells of the tile, in row-major order
+	 */
+	private void writeTile(int tile, long[] source) {
+		int width = cells.getWidth();
+		int x = (tile % tilesPerRow) * CellSnapshot.TILE_SIZE;
+		int y = (tile / tilesPerRow) * CellSnapshot.TILE_SIZE;
+		int columns = Math.min(CellSnapshot.TILE_SIZE, width - x);
+		int rows = Math.min(CellSnapshot.TILE_SIZE, cells.getHeight() - y);
+		for (int row = 0; row < rows; row++)
+			cells.writeRun((y + row) * width + x, source, row * CellSnapshot.TILE_SIZE, columns);
+	}
+
+	/**
+	 * The tracked cells getter
+	 * @return the tracked cells
+	 */
+	public CellBuffer getCells() {
+		return cells;
+	}
+}
@@ -0,0 +1,179 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Rectangle;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The class is the <b>fork-join task that applies an {@link IntTileTransformer} to a stripe of rows</b> of the canvas.
+ *
+ * A stripe taller than its maximum height is split in two halves that run in parallel, so the rows of the region are shared
+ * among the threads of the pool; every row is written by a single task, so the tasks never touch the same cells.
+ * Only the cells whose packed value changes are written back, and every task keeps the bounds of the cells it has changed,
+ * which are merged when the halves are joined.
+ *
+ * Run with {@link #transformRows()} it works on the calling thread without splitting.
+ *
+ * @see AsciiPanel#withEachTile(int, int, int, int, IntTileTransformer, boolean) which runs it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+class TileTransformStripe extends RecursiveAction {
+
+	/**
+	 * The serial version
+	 *
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum height of a stripe transformed by a single task in parallel mode
+	 *
+	 */
+	static final int STRIPE_HEIGHT = 16;
+
+	/**
+	 * The cells to transform
+	 *
+	 */
+	private final CellBuffer cells;
+
+	/**
+	 * The transformer applied to every cell
+	 *
+	 */
+	private final IntTileTransformer transformer;
+
+	/**
+	 * The first column of the region
+	 *
+	 */
+	private final int left;
+
+	/**
+	 * The column after the last one of the region
+	 *
+	 */
+	private final int right;
+
+	/**
+	 * The first row of the stripe
+	 *
+	 */
+	private final int fromRow;
+
+	/**
+	 * The row after the last one of the stripe
+	 *
+	 */
+	private final int toRow;
+
+	/**
+	 * The first changed column, {@link Integer#MAX_VALUE} if no cell has changed
+	 *
+	 */
+	private int changedLeft = Integer.MAX_VALUE;
+
+	/**
+	 * The first changed row, {@link Integer#MAX_VALUE} if no cell has changed
+	 *
+	 */
+	private int changedTop = Integer.MAX_VALUE;
+
+	/**
+	 * The column after the last changed one
+	 *
+	 */
+	private int changedRight = -1;
+
+	/**
+	 * The row after the last changed one
+	 *
+	 */
+	private int changedBottom = -1;
+
+	/**
+	 * Task constructor. The region must be inside the cells.
+	 * @param cells are the cells to transform
+	 * @param transformer is the transformer applied to every cell
+	 * @param left is the first column of the region
+	 * @param right is the column after the last one of the region
+	 * @param fromRow is the first row of the stripe
+	 * @param toRow is the row after the last one of the stripe
+	 */
+	TileTransformStripe(CellBuffer cells, IntTileTransformer transformer, int left, int right, int fromRow, int toRow) {
+		this.cells = cells;
+		this.transformer = transformer;
+		this.left = left;
+		this.right = right;
+		this.fromRow = fromRow;
+		this.toRow = toRow;
+	}
+
+	/**
+	 * Transforms the stripe, or splits it if it is too tall.
+	 *
+	 */
+	@Override
+	protected void compute() {
+		if (toRow - fromRow <= STRIPE_HEIGHT) {
+			transformRows();
+			return;
+		}
+		int middle = (fromRow + toRow) >>> 1;
+		TileTransformStripe top = new TileTransformStripe(cells, transformer, left, right, fromRow, middle);
+		TileTransformStripe bottom = new TileTransformStripe(cells, transformer, left, right, middle, toRow);
+		invokeAll(top, bottom);
+		merge(top);
+		merge(bottom);
+	}
+
+	/**
+	 * Transforms all the rows of the stripe on the calling thread, writing back only the changed cells.
+	 *
+	 */
+	void transformRows() {
+		for (int y = fromRow; y < toRow; y++) {
+			int index = cells.index(left, y);
+			int rowLeft = Integer.MAX_VALUE, rowRight = -1;
+			for (int x = left; x < right; x++, index++) {
+				long cell = cells.get(index);
+				long transformed = transformer.transformTile(x, y, CellBuffer.characterOf(cell), CellBuffer.foregroundOf(cell), CellBuffer.backgroundOf(cell));
+				if (transformed != cell) {
+					cells.set(index, transformed);
+					if (rowLeft == Integer.MAX_VALUE)
+						rowLeft = x;
+					rowRight = x + 1;
+				}
+			}
+			if (rowRight != -1) {
+				changedLeft = Math.min(changedLeft, rowLeft);
+				changedRight = Math.max(changedRight, rowRight);
+				changedTop = Math.min(changedTop, y);
+				changedBottom = y + 1;
+			}
+		}
+	}
+
+	/**
+	 * Adds the changed bounds of a finished task to the ones of this task.
+	 * @param other is the finished task
+	 */
+	private void merge(TileTransformStripe other) {
+		changedLeft = Math.min(changedLeft, other.changedLeft);
+		changedTop = Math.min(changedTop, other.changedTop);
+		changedRight = Math.max(changedRight, other.changedRight);
+		changedBottom = Math.max(changedBottom, other.changedBottom);
+	}
+
+	/**
+	 * Returns the bounds of the changed cells, once the task is finished.
+	 * @return the smallest rectangle holding all the changed cells, or null if no cell has changed
+	 */
+	Rectangle getChangedBounds() {
+		if (changedRight == -1)
+			return null;
+
+		return new Rectangle(changedLeft, changedTop, changedRight - changedLeft, changedBottom - changedTop);
+	}
+}
@@ -0,0 +1,474 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * The class is the engine of the {@link AsciiPanelCanvasMode#TILED} canvas mode.
+ *
+ * The canvas is split in square tiles of {@link #TILE_SIZE} cells per side. When the panel is painted, only the tiles
+ * that intersect the clip are drawn; every tile is rendered in its own bitmap, which is kept in a bounded LRU cache and
+ * reused until one of its cells changes. So the memory used for the pixels is at most the capacity of the cache,
+ * whatever the size of the canvas, and scrolling back to a region already seen costs only a copy of its bitmaps.
+ * The capacity grows with the viewport (see {@link #fitViewport(Rectangle)}), so that a paint of the whole viewport never
+ * evicts the bitmaps it is drawing.
+ *
+ * The cells are drawn with the same engines of the full frame mode: the {@link GlyphTintCache} or, for the
+ * {@link AsciiPanelRenderingMode#RASTER_BLIT} rendering mode, the {@link GlyphMaskRenderer} bound to the bitmap of the tile
+ * or, for the {@link AsciiPanelRenderingMode#GLYPH_ATLAS} rendering mode, the {@link GlyphAtlasRenderer}.
+ *
+ * The class is not thread safe, it is meant to be used only by the painting thread.
+ *
+ * @see AsciiPanel#paint(Graphics) which uses it in tiled mode.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class TiledCanvasRenderer {
+
+	/**
+	 * The side of a tile, in cells
+	 *
+	 */
+	public static final int TILE_SIZE = 16;
+
+	/**
+	 * The default initial maximum number of tile bitmaps kept in the cache
+	 *
+	 */
+	public static final int DEFAULT_CAPACITY = 128;
+
+	/**
+	 * Is the value used to mark a tile without bitmap or the end of the LRU list
+	 *
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The width of the canvas, in characters
+	 *
+	 */
+	private int widthInCharacters;
+
+	/**
+	 * The height of the canvas, in characters
+	 *
+	 */
+	private int heightInCharacters;
+
+	/**
+	 * The width of a character, in pixels
+	 *
+	 */
+	private int charWidth;
+
+	/**
+	 * The height of a character, in pixels
+	 *
+	 */
+	private int charHeight;
+
+	/**
+	 * The number of tiles in a row of tiles
+	 *
+	 */
+	private int tilesPerRow;
+
+	/**
+	 * The number of tiles in a column of tiles
+	 *
+	 */
+	private int tilesPerColumn;
+
+	/**
+	 * The cache of the tinted glyphs, used when there is no mask renderer
+	 *
+	 */
+	private GlyphTintCache glyphTintCache;
+
+	/**
+	 * The mask renderer, null if the glyphs are drawn with the tint cache
+	 *
+	 */
+	private GlyphMaskRenderer glyphMaskRenderer;
+
+	/**
+	 * The atlas renderer, null if the cells are drawn with another engine
+	 *
+	 */
+	private GlyphAtlasRenderer glyphAtlasRenderer;
+
+	/**
+	 * The maximum number of bitmaps in the cache
+	 *
+	 */
+	private int capacity;
+
+	/**
+	 * The number of bitmaps currently in the cache
+	 *
+	 */
+	private int size;
+
+	/**
+	 * The slot of the bitmap of every tile, or {@link #NONE}
+	 *
+	 */
+	private int[] tileSlots;
+
+	/**
+	 * The tile of every slot
+	 *
+	 */
+	private int[] slotTiles;
+
+	/**
+	 * The bitmap of every slot
+	 *
+	 */
+	private BufferedImage[] slotImages;
+
+	/**
+	 * The previous (more recently used) slot in the LRU list
+	 *
+	 */
+	private int[] lruPrevious;
+
+	/**
+	 * The next (less recently used) slot in the LRU list
+	 *
+	 */
+	private int[] lruNext;
+
+	/**
+	 * The most recently used slot
+	 *
+	 */
+	private int lruHead = NONE;
+
+	/**
+	 * The least recently used slot, the first one to be evicted
+	 *
+	 */
+	private int lruTail = NONE;
+
+	/**
+	 * The tiles whose bitmap no longer matches the cells, one bit per tile
+	 *
+	 */
+	private long[] staleTiles;
+
+	/**
+	 * Class constructor with the default capacity.
+	 * @param widthInCharacters is the width of the canvas
+	 * @param heightInCharacters is the height of the canvas
+	 * @param charWidth is the width of a character, in pixels
+	 * @param charHeight is the height of a character, in pixels
+	 * @param glyphTintCache is the cache of the tinted glyphs of the font in use
+	 * @param glyphMaskRenderer is the mask renderer of the font in use, or null to draw with the tint cache
+	 */
+	public TiledCanvasRenderer(int widthInCharacters, int heightInCharacters, int charWidth, int charHeight,
+			GlyphTintCache glyphTintCache, GlyphMaskRenderer glyphMaskRenderer) {
+		this(widthInCharacters, heightInCharacters, charWidth, charHeight, glyphTintCache, glyphMaskRenderer, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Class constructor specifying the capacity.
+	 * @param widthInCharacters is the width of the canvas
+	 * @param heightInCharacters is the height of the canvas
+	 * @param charWidth is the width of a character, in pixels
+	 * @param charHeight is the height of a character, in pixels
+	 * @param glyphTintCache is the cache of the tinted glyphs of the font in use
+	 * @param glyphMaskRenderer is the mask renderer of the font in use, or null to draw with the tint cache
+	 * @param capacity is the maximum number of tile bitmaps to keep
+	 */
+	public TiledCanvasRenderer(int widthInCharacters, int heightInCharacters, int charWidth, int charHeight,
+			GlyphTintCache glyphTintCache, GlyphMaskRenderer glyphMaskRenderer, int capacity) {
+		this(widthInCharacters, heightInCharacters, charWidth, charHeight, glyphTintCache, glyphMaskRenderer, null, capacity);
+	}
+
+	/**
+	 * Class constructor specifying all the engines and the capacity.
+	 * @param widthInCharacters is the width of the canvas
+	 * @param heightInCharacters is the height of the canvas
+	 * @param charWidth is the width of a character, in pixels
+	 * @param charHeight is the height of a character, in pixels
+	 * @param glyphTintCache is the cache of the tinted glyphs of the font in use
+	 * @param glyphMaskRenderer is the mask renderer of the font in use, or null to draw with another engine
+	 * @param glyphAtlasRenderer is the atlas renderer of the font in use, or null to draw with another engine
+	 * @param capacity is the maximum number of tile bitmaps to keep
+	 */
+	public TiledCanvasRenderer(int widthInCharacters, int heightInCharacters, int charWidth, int charHeight,
+			GlyphTintCache glyphTintCache, GlyphMaskRenderer glyphMaskRenderer, GlyphAtlasRenderer glyphAtlasRenderer, int capacity) {
+		if (glyphTintCache == null)
+			throw new NullPointerException("glyphTintCache must not be null.");
+
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity " + capacity + " must be greater than 0.");
+
+		this.widthInCharacters = widthInCharacters;
+		this.heightInCharacters = heightInCharacters;
+		this.charWidth = charWidth;
+		this.charHeight = charHeight;
+		this.glyphTintCache = glyphTintCache;
+		this.glyphMaskRenderer = glyphMaskRenderer;
+		this.glyphAtlasRenderer = glyphAtlasRenderer;
+		this.capacity = capacity;
+
+		this.tilesPerRow = (widthInCharacters + TILE_SIZE - 1) / TILE_SIZE;
+		this.tilesPerColumn = (heightInCharacters + TILE_SIZE - 1) / TILE_SIZE;
+		this.tileSlots = new int[tilesPerRow * tilesPerColumn];
+		Arrays.fill(tileSlots, NONE);
+		this.staleTiles = new long[(tileSlots.length + 63) >>> 6];
+
+		this.slotTiles = new int[capacity];
+		this.slotImages = new BufferedImage[capacity];
+		this.lruPrevious = new int[capacity];
+		this.lruNext = new int[capacity];
+	}
+
+	/**
+	 * Grows the capacity of the cache to twice the number of tiles that a viewport can intersect, so the tiles of
+	 * the viewport and of the region just scrolled away fit in the cache together.
+	 * The capacity is never reduced, and never grown beyond the number of tiles of the canvas.
+	 * @param viewport is the visible region of the canvas, in pixels
+	 */
+	public void fitViewport(Rectangle viewport) {
+		if (viewport == null)
+			throw new NullPointerException("viewport must not be null.");
+
+		int tileWidth = TILE_SIZE * charWidth;
+		int tileHeight = TILE_SIZE * charHeight;
+		long columns = Math.min((viewport.width + tileWidth - 1) / tileWidth + 1, tilesPerRow);
+		long rows = Math.min((viewport.height + tileHeight - 1) / tileHeight + 1, tilesPerColumn);
+		int required = (int) Math.min(2 * columns * rows, tileSlots.length);
+		if (required <= capacity)
+			return;
+
+		slotTiles = Arrays.copyOf(slotTiles, required);
+		slotImages = Arrays.copyOf(slotImages, required);
+		lruPrevious = Arrays.copyOf(lruPrevious, required);
+		lruNext = Arrays.copyOf(lruNext, required);
+		capacity = required;
+	}
+
+	/**
+	 * Marks as stale the bitmaps of the tiles that cover a rectangle of cells, so they are rendered again when they are painted.
+	 * The rectangle must be inside the canvas.
+	 * @param x is the <i>x</i>-coordinate of the first cell
+	 * @param y is the <i>y</i>-coordinate of the first cell
+	 * @param width is the width in characters of the rectangle
+	 * @param height is the height in characters of the rectangle
+	 */
+	public void markDirty(int x, int y, int width, int height) {
+		int lastColumn = (x + width - 1) / TILE_SIZE;
+		int lastRow = (y + height - 1) / TILE_SIZE;
+		for (int row = y / TILE_SIZE; row <= lastRow; row++) {
+			for (int column = x / TILE_SIZE; column <= lastColumn; column++) {
+				int tile = row * tilesPerRow + column;
+				if (tileSlots[tile] != NONE)
+					staleTiles[tile >>> 6] |= 1L << tile;
+			}
+		}
+	}
+
+	/**
+	 * Paints the tiles that intersect the clip, rendering the ones without an up to date bitmap.
+	 * @param g is the graphics to paint on, in the coordinates of the panel
+	 * @param cells are the cells of the canvas
+	 * @param clip is the region to paint, in pixels
+	 */
+	public void paint(Graphics g, CellBuffer cells, Rectangle clip) {
+		paint(g, cells, clip, null);
+	}
+
+	/**
+	 * Paints the tiles that intersect the clip, measuring the work done.
+	 * The cells of the painted tiles are counted as scanned, the ones of the tiles rendered again as redrawn.
+	 * @param g is the graphics to paint on, in the coordinates of the panel
+	 * @param cells are the cells of the canvas
+	 * @param clip is the region to paint, in pixels
+	 * @param sample is where the work is added, or null to not measure it
+	 */
+	void paint(Graphics g, CellBuffer cells, Rectangle clip, FrameSample sample) {
+		int tileWidth = TILE_SIZE * charWidth;
+		int tileHeight = TILE_SIZE * charHeight;
+		int firstColumn = Math.max(clip.x, 0) / tileWidth;
+		int firstRow = Math.max(clip.y, 0) / tileHeight;
+		int lastColumn = Math.min((clip.x + clip.width - 1) / tileWidth, tilesPerRow - 1);
+		int lastRow = Math.min((clip.y + clip.height - 1) / tileHeight, tilesPerColumn - 1);
+
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				BufferedImage bitmap = getTileBitmap(cells, row * tilesPerRow + column, sample);
+				int x = column * tileWidth;
+				int y = row * tileHeight;
+				int width = Math.min(TILE_SIZE, widthInCharacters - column * TILE_SIZE) * charWidth;
+				int height = Math.min(TILE_SIZE, heightInCharacters - row * TILE_SIZE) * charHeight;
+				long start = sample != null ? System.nanoTime() : 0;
+				g.drawImage(bitmap, x, y, x + width, y + height, 0, 0, width, height, null);
+				if (sample != null) {
+					sample.addBlitNanos(System.nanoTime() - start);
+					sample.addCells(width / charWidth * (height / charHeight), 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the up to date bitmap of a tile, rendering it when it is missing or stale.
+	 * @param cells are the cells of the canvas
+	 * @param tile is the index of the tile
+	 * @param sample is where the work is added, or null to not measure it
+	 * @return the bitmap of the tile
+	 */
+	private BufferedImage getTileBitmap(CellBuffer cells, int tile, FrameSample sample) {
+		int slot = tileSlots[tile];
+		if (slot != NONE) {
+			moveToHead(slot);
+			if ((staleTiles[tile >>> 6] & (1L << tile)) == 0)
+				return slotImages[slot];
+		} else {
+			if (size < capacity) {
+				slot = size++;
+				slotImages[slot] = new BufferedImage(TILE_SIZE * charWidth, TILE_SIZE * charHeight, BufferedImage.TYPE_INT_RGB);
+			} else {
+				slot = lruTail;
+				unlinkFromList(slot);
+				tileSlots[slotTiles[slot]] = NONE;
+			}
+			slotTiles[slot] = tile;
+			tileSlots[tile] = slot;
+			linkAtHead(slot);
+		}
+
+		renderTile(cells, tile, slotImages[slot], sample);
+		staleTiles[tile >>> 6] &= ~(1L << tile);
+		return slotImages[slot];
+	}
+
+	/**
+	 * Draws all the cells of a tile in its bitmap.
+	 * @param cells are the cells of the canvas
+	 * @param tile is the index of the tile
+	 * @param bitmap is the bitmap of the tile
+	 * @param sample is where the work is added, or null to not measure it
+	 */
+	private void renderTile(CellBuffer cells, int tile, BufferedImage bitmap, FrameSample sample) {
+		int left = (tile % tilesPerRow) * TILE_SIZE;
+		int top = (tile / tilesPerRow) * TILE_SIZE;
+		int right = Math.min(left + TILE_SIZE, widthInCharacters);
+		int bottom = Math.min(top + TILE_SIZE, heightInCharacters);
+
+		Graphics graphics = null;
+		if (glyphMaskRenderer != null)
+			glyphMaskRenderer.setOffscreenBuffer(bitmap);
+		else
+			graphics = bitmap.getGraphics();
+
+		for (int y = top; y < bottom; y++) {
+			for (int x = left; x < right; x++) {
+				long cell = cells.get(x, y);
+				char character = CellBuffer.characterOf(cell);
+				int fg = CellBuffer.foregroundOf(cell);
+				int bg = CellBuffer.backgroundOf(cell);
+				if (sample != null) {
+					renderCellMeasured(graphics, x - left, y - top, character, fg, bg, sample);
+				} else if (glyphMaskRenderer != null) {
+					glyphMaskRenderer.drawGlyph(x - left, y - top, character, fg, bg);
+				} else if (glyphAtlasRenderer != null) {
+					glyphAtlasRenderer.drawGlyph(graphics, x - left, y - top, character, fg, bg);
+				} else {
+					graphics.drawImage(glyphTintCache.getTintedGlyph(character, fg, bg), (x - left) * charWidth, (y - top) * charHeight, null);
+				}
+			}
+		}
+		if (sample != null)
+			sample.addCells(0, (right - left) * (bottom - top));
+
+		if (graphics != null)
+			graphics.dispose();
+	}
+
+	/**
+	 * Draws a cell in the bitmap of a tile, timing the tinting of the glyph and the copy of its pixels.
+	 * The mask renderer does both at once, its time is counted as copy; the atlas renderer times them itself.
+	 * @param graphics is the graphics of the bitmap, null with the mask renderer
+	 * @param x is the <i>x</i>-coordinate of the cell in the tile
+	 * @param y is the <i>y</i>-coordinate of the cell in the tile
+	 * @param character is the character of the cell
+	 * @param fg is the foreground color of the cell
+	 * @param bg is the background color of the cell
+	 * @param sample is where the times are added
+	 */
+	private void renderCellMeasured(Graphics graphics, int x, int y, char character, int fg, int bg, FrameSample sample) {
+		long start = System.nanoTime();
+		if (glyphMaskRenderer != null) {
+			glyphMaskRenderer.drawGlyph(x, y, character, fg, bg);
+			sample.addBlitNanos(System.nanoTime() - start);
+			return;
+		}
+		if (glyphAtlasRenderer != null) {
+			glyphAtlasRenderer.drawGlyph(graphics, x, y, character, fg, bg, sample);
+			return;
+		}
+
+		BufferedImage glyph = glyphTintCache.getTintedGlyph(character, fg, bg);
+		long tinted = System.nanoTime();
+		graphics.drawImage(glyph, x * charWidth, y * charHeight, null);
+		sample.addTintNanos(tinted - start);
+		sample.addBlitNanos(System.nanoTime() - tinted);
+	}
+
+	/**
+	 * Removes a slot from the LRU list.
+	 * @param slot is the slot to remove
+	 */
+	private void unlinkFromList(int slot) {
+		int previous = lruPrevious[slot];
+		int next = lruNext[slot];
+		if (previous != NONE) lruNext[previous] = next; else lruHead = next;
+		if (next != NONE) lruPrevious[next] = previous; else lruTail = previous;
+	}
+
+	/**
+	 * Inserts a slot at the head (most recently used) of the LRU list.
+	 * @param slot is the slot to insert
+	 */
+	private void linkAtHead(int slot) {
+		lruPrevious[slot] = NONE;
+		lruNext[slot] = lruHead;
+		if (lruHead != NONE) lruPrevious[lruHead] = slot;
+		lruHead = slot;
+		if (lruTail == NONE) lruTail = slot;
+	}
+
+	/**
+	 * Marks a slot as the most recently used.
+	 * @param slot is the slot just used
+	 */
+	private void moveToHead(int slot) {
+		if (lruHead == slot)
+			return;
+		unlinkFromList(slot);
+		linkAtHead(slot);
+	}
+
+	/**
+	 * The size getter
+	 * @return the number of tile bitmaps currently in the cache
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * The capacity getter
+	 * @return the maximum number of tile bitmaps in the cache
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+}
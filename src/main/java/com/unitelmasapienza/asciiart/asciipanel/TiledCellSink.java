@@ -0,0 +1,427 @@
+package com.unitelmasapienza.asciiart.asciipanel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * The class is the <b>tiled destination of the cells of drawings larger than the memory</b>.
+ *
+ * The drawing is split in square tiles, which are stored one after the other in a page file, column by column.
+ * Only a fixed number of tiles is kept in memory: a cell is written in its resident tile and, when a tile that is not resident
+ * is needed, the least recently used one is written back to the page file (if it has changed) and its memory is reused for
+ * the new tile. The memory used is therefore set by the constructor and does not depend on the size of the drawing, and no
+ * object is created for a cell.
+ *
+ * {@link AsciiTextParser} hands over the cells column by column, in the same order as the page file, so the parsing never reads
+ * a tile back from the page file when the resident tiles are at least as many as the tiles of a column of the drawing.
+ *
+ * Once the drawing has been received, its cells are read with {@link #getCell(int, int)} or a region of them is copied in a
+ * {@link CellBuffer} with {@link #copyTo(int, int, CellBuffer)}, for example to show it in an AsciiPanel.
+ *
+ * The class is not thread safe.
+ *
+ * @see AsciiTextParser#parse(String, AsciiCellSink) which streams a text file into it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class TiledCellSink implements AsciiCellSink, Closeable {
+
+	/**
+	 * The default side of a tile, in cells
+	 *
+	 */
+	public static final int DEFAULT_TILE_SIZE = 64;
+
+	/**
+	 * Is the value used to mark a free slot and a missing tile
+	 *
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The page file
+	 *
+	 */
+	private RandomAccessFile pageFile;
+
+	/**
+	 * The channel of the page file
+	 *
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The side of a tile, in cells
+	 *
+	 */
+	private int tileSize;
+
+	/**
+	 * The number of cells of a tile
+	 *
+	 */
+	private int tileCells;
+
+	/**
+	 * The maximum number of tiles kept in memory
+	 *
+	 */
+	private int residentTiles;
+
+	/**
+	 * The width of the drawing, in cells
+	 *
+	 */
+	private int width;
+
+	/**
+	 * The height of the drawing, in cells
+	 *
+	 */
+	private int height;
+
+	/**
+	 * The number of tiles in a column of the drawing
+	 *
+	 */
+	private int tilesDown;
+
+	/**
+	 * The cells of the resident tiles, in row-major order inside every tile.
+	 * The cells of slot <i>s</i> start at index <code>s * tileCells</code>.
+	 *
+	 */
+	private long[] slotCells;
+
+	/**
+	 * The tile kept in every slot, {@link #NONE} if the slot is free
+	 *
+	 */
+	private long[] slotTiles;
+
+	/**
+	 * Tells for every slot if its tile has changed since it was read from the page file
+	 *
+	 */
+	private boolean[] slotDirty;
+
+	/**
+	 * The use counter value of the last use of every slot
+	 *
+	 */
+	private long[] slotLastUse;
+
+	/**
+	 * The counter incremented at every use of a slot
+	 *
+	 */
+	private long useCounter;
+
+	/**
+	 * The slot used by the last accessed cell, checked first since adjacent cells are in the same tile
+	 *
+	 */
+	private int lastSlot = NONE;
+
+	/**
+	 * The bytes of the tile being read or written
+	 *
+	 */
+	private ByteBuffer pageBuffer;
+
+	/**
+	 * The view of {@link #pageBuffer} as cells
+	 *
+	 */
+	private LongBuffer pageCells;
+
+	/**
+	 * The number of tiles written to the page file
+	 *
+	 */
+	private long pageWrites;
+
+	/**
+	 * The number of tiles read from the page file
+	 *
+	 */
+	private long pageReads;
+
+	/**
+	 * Class constructor with the default tile size.
+	 * @param pageFile is the file where the tiles are stored; it is created if missing, and overwritten by every drawing
+	 * @param residentTiles is the maximum number of tiles kept in memory
+	 * @throws IOException if the page file can not be opened
+	 */
+	public TiledCellSink(File pageFile, int residentTiles) throws IOException {
+		this(pageFile, DEFAULT_TILE_SIZE, residentTiles);
+	}
+
+	/**
+	 * Class constructor specifying the tile size. The memory used for the cells is
+	 * <code>tileSize * tileSize * residentTiles * 8</code> bytes.
+	 * @param pageFile is the file where the tiles are stored; it is created if missing, and overwritten by every drawing
+	 * @param tileSize is the side of a tile, in cells
+	 * @param residentTiles is the maximum number of tiles kept in memory
+	 * @throws IOException if the page file can not be opened
+	 */
+	public TiledCellSink(File pageFile, int tileSize, int residentTiles) throws IOException {
+		if (pageFile == null)
+			throw new NullPointerException("pageFile must not be null.");
+
+		if (tileSize < 1 || tileSize > 1024)
+			throw new IllegalArgumentException("tileSize " + tileSize + " must be within range [1,1024].");
+
+		if (residentTiles < 1)
+			throw new IllegalArgumentException("residentTiles " + residentTiles + " must be greater than 0.");
+
+		if ((long) tileSize * tileSize * residentTiles > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(residentTiles + " tiles of " + tileSize + "x" + tileSize + " cells do not fit in memory.");
+
+		this.tileSize = tileSize;
+		this.tileCells = tileSize * tileSize;
+		this.residentTiles = residentTiles;
+		this.slotCells = new long[tileCells * residentTiles];
+		this.slotTiles = new long[residentTiles];
+		this.slotDirty = new boolean[residentTiles];
+		this.slotLastUse = new long[residentTiles];
+		this.pageBuffer = ByteBuffer.allocate(tileCells * 8);
+		this.pageCells = pageBuffer.asLongBuffer();
+		Arrays.fill(slotTiles, NONE);
+
+		this.pageFile = new RandomAccessFile(pageFile, "rw");
+		this.channel = this.pageFile.getChannel();
+	}
+
+	/**
+	 * Prepares the sink for a new drawing: the resident tiles are dropped and the page file is emptied,
+	 * so every cell starts as 0.
+	 *
+	 */
+	@Override
+	public void begin(int width, int height) throws IOException {
+		if (width < 1)
+			throw new IllegalArgumentException("width " + width + " must be greater than 0.");
+
+		if (height < 1)
+			throw new IllegalArgumentException("height " + height + " must be greater than 0.");
+
+		this.width = width;
+		this.height = height;
+		this.tilesDown = (height + tileSize - 1) / tileSize;
+		Arrays.fill(slotTiles, NONE);
+		Arrays.fill(slotDirty, false);
+		lastSlot = NONE;
+		channel.truncate(0);
+	}
+
+	/**
+	 * Writes a cell in its tile, bringing the tile in memory if it is not resident.
+	 *
+	 */
+	@Override
+	public void putCell(int x, int y, long cell) throws IOException {
+		int slot = slotOf(x, y);
+		slotCells[slot * tileCells + (y % tileSize) * tileSize + x % tileSize] = cell;
+		slotDirty[slot] = true;
+	}
+
+	/**
+	 * Reads a cell, bringing its tile in memory if it is not resident.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the packed cell
+	 * @throws IOException if the tile can not be read from the page file
+	 */
+	public long getCell(int x, int y) throws IOException {
+		int slot = slotOf(x, y);
+		return slotCells[slot * tileCells + (y % tileSize) * tileSize + x % tileSize];
+	}
+
+	/**
+	 * Copies a region of the drawing in a buffer. The region starts at the given cell and has the size of the buffer.
+	 * @param left is the <i>x</i>-coordinate of the first cell of the region
+	 * @param top is the <i>y</i>-coordinate of the first cell of the region
+	 * @param destination is the buffer to fill
+	 * @throws IOException if a tile can not be read from the page file
+	 */
+	public void copyTo(int left, int top, CellBuffer destination) throws IOException {
+		if (destination == null)
+			throw new NullPointerException("destination must not be null.");
+
+		if (left < 0 || top < 0 || left + destination.getWidth() > width || top + destination.getHeight() > height)
+			throw new IllegalArgumentException("region " + left + "," + top + " " + destination.getWidth() + "x" + destination.getHeight()
+					+ " must be inside the drawing of " + width + "x" + height + " cells.");
+
+		for (int y = 0; y < destination.getHeight(); y++) {
+			int x = 0;
+			while (x < destination.getWidth()) {
+				int sourceX = left + x;
+				int sourceY = top + y;
+				int run = Math.min(destination.getWidth() - x, tileSize - sourceX % tileSize);
+				int slot = slotOf(sourceX, sourceY);
+				destination.writeRun(destination.index(x, y), slotCells, slot * tileCells + (sourceY % tileSize) * tileSize + sourceX % tileSize, run);
+				x += run;
+			}
+		}
+	}
+
+	/**
+	 * Writes all the changed resident tiles to the page file.
+	 * @throws IOException if a tile can not be written
+	 */
+	public void flush() throws IOException {
+		for (int slot = 0; slot < residentTiles; slot++) {
+			if (slotDirty[slot])
+				writeTile(slot);
+		}
+	}
+
+	/**
+	 * Closes the page file. The file is not deleted.
+	 *
+	 */
+	@Override
+	public void close() throws IOException {
+		pageFile.close();
+	}
+
+	/**
+	 * Returns the slot of the tile of a cell, bringing the tile in memory if it is not resident.
+	 * @param x is the <i>x</i>-coordinate of the cell
+	 * @param y is the <i>y</i>-coordinate of the cell
+	 * @return the slot of the tile
+	 * @throws IOException if the page file can not be read or written
+	 */
+	private int slotOf(int x, int y) throws IOException {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IllegalArgumentException("cell " + x + "," + y + " must be inside the drawing of " + width + "x" + height + " cells.");
+
+		long tile = (long) (x / tileSize) * tilesDown + y / tileSize;
+		if (lastSlot != NONE && slotTiles[lastSlot] == tile)
+			return lastSlot;
+
+		int slot = NONE;
+		for (int s = 0; s < residentTiles; s++) {
+			if (slotTiles[s] == tile) {
+				slot = s;
+				break;
+			}
+		}
+		if (slot == NONE)
+			slot = loadTile(tile);
+		slotLastUse[slot] = ++useCounter;
+		lastSlot = slot;
+		return slot;
+	}
+
+	/**
+	 * Brings a tile in memory: in a free slot if any, otherwise in the least recently used one, which is written back first
+	 * if it has changed.
+	 * @param tile is the index of the tile
+	 * @return the slot of the tile
+	 * @throws IOException if the page file can not be read or written
+	 */
+	private int loadTile(long tile) throws IOException {
+		int slot = 0;
+		for (int s = 0; s < residentTiles; s++) {
+			if (slotTiles[s] == NONE) {
+				slot = s;
+				break;
+			}
+			if (slotLastUse[s] < slotLastUse[slot])
+				slot = s;
+		}
+		if (slotDirty[slot])
+			writeTile(slot);
+
+		readTile(slot, tile);
+		slotTiles[slot] = tile;
+		return slot;
+	}
+
+	/**
+	 * Reads a tile from the page file into a slot. The part of the tile beyond the end of the file is set to 0.
+	 * @param slot is the slot to fill
+	 * @param tile is the index of the tile
+	 * @throws IOException if the page file can not be read
+	 */
+	private void readTile(int slot, long tile) throws IOException {
+		long offset = tile * pageBuffer.capacity();
+		pageBuffer.clear();
+		while (pageBuffer.hasRemaining()) {
+			if (channel.read(pageBuffer, offset + pageBuffer.position()) < 0)
+				break;
+		}
+		if (pageBuffer.position() > 0)
+			pageReads++;
+		Arrays.fill(pageBuffer.array(), pageBuffer.position(), pageBuffer.capacity(), (byte) 0);
+
+		pageCells.clear();
+		pageCells.get(slotCells, slot * tileCells, tileCells);
+		slotDirty[slot] = false;
+	}
+
+	/**
+	 * Writes the tile of a slot to the page file.
+	 * @param slot is the slot to write
+	 * @throws IOException if the page file can not be written
+	 */
+	private void writeTile(int slot) throws IOException {
+		long offset = slotTiles[slot] * pageBuffer.capacity();
+		pageCells.clear();
+		pageCells.put(slotCells, slot * tileCells, tileCells);
+		pageBuffer.clear();
+		while (pageBuffer.hasRemaining())
+			channel.write(pageBuffer, offset + pageBuffer.position());
+		pageWrites++;
+		slotDirty[slot] = false;
+	}
+
+	/**
+	 * The width getter
+	 * @return the width of the drawing, in cells
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * The height getter
+	 * @return the height of the drawing, in cells
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * The tile size getter
+	 * @return the side of a tile, in cells
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * The page writes getter
+	 * @return the number of tiles written to the page file
+	 */
+	public long getPageWrites() {
+		return pageWrites;
+	}
+
+	/**
+	 * The page reads getter
+	 * @return the number of tiles read from the page file
+	 */
+	public long getPageReads() {
+		return pageReads;
+	}
+}
@@ -3,6 +3,8 @@ package com.unitelmasapienza.asciiart.asciipanel.factories;
 import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
 import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
 import com.unitelmasapienza.asciiart.asciipanel.AsciiPanelBuilder;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanelCanvasMode;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanelRenderingMode;
 
 /**
  * This is a factory class to implement the <b>Factory Design Pattern</b>.
@@ -32,6 +34,7 @@ public class AsciiPanelFactoryConcrete extends AsciiPanelFactory {
 	 * Thanks to the implementation of the <b>Builder Pattern</b>, in this method to create the AsciiPanel,
 	 * the concrete factory will only care about calling the cascade set methods of the builder, 
 	 * so here we will choose which fields we want to set for the creation of AsciiPanel object.
+	 * The canvas mode is chosen from the size of the canvas, so that the large canvases are drawn tile by tile.
 	 * 
 	 */
 	@Override
@@ -40,13 +43,11 @@ public class AsciiPanelFactoryConcrete extends AsciiPanelFactory {
 		AsciiPanel panel = builder.createAsciiPanel(width, height, font)
 				.defaultBackgroundColor()
 				.defaultForegroundColor()
+				.renderingMode(AsciiPanelRenderingMode.TINTED_GLYPHS)
+				.canvasMode(AsciiPanelCanvasMode.forCanvas(width, height, font))
 				
-				.panelCharsMatrix(null)
-				.panelCharsBackgroundColors(null)
-				.panelCharsForegroundColors(null)
-				
-				.panelOldCharsBackgroundColors(null)
-				.panelOldCharsForegroundColors(null)
+				.panelCells(null)
+				.panelOldCells(null)
 				
 				.build();
 		return panel;
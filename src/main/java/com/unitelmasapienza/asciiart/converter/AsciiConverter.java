@@ -0,0 +1,671 @@
+package com.unitelmasapienza.asciiart.converter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.DataBuffer;
+import java.awt.image.IndexColorModel;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.imageio.ImageIO;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFileFormat;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
+import com.unitelmasapienza.asciiart.asciipanel.CellBuffer;
+import com.unitelmasapienza.asciiart.asciipanel.GlyphDensityIndex;
+import com.unitelmasapienza.asciiart.asciipanel.GlyphMaskRenderer;
+import com.unitelmasapienza.asciiart.asciipanel.GlyphRegistry;
+
+/**
+ * The class is the <b>engine of the image to ascii conversion</b>.
+ * It has no dependency on Swing, so it is used both by the importing frame of the application
+ * and, through its {@link #main(String[])} method, as a batch converter that runs on machines without a display.
+ *
+ * Every pixel of the image becomes one cell: the brightest channel of the pixel, capped by the threshold, chooses the character
+ * through the {@link GlyphDensityIndex} of the font and the pixel color (reduced to the default 16 colours, if requested) becomes the foreground color. The background is black.
+ *
+ * @see com.unitelmasapienza.asciiart.imageeditor.listeners.ActionConvertListener which converts the image imported in the application.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class AsciiConverter {
+
+	/**
+	 * The threshold used when it is not given, the same proposed by the importing frame
+	 *
+	 */
+	public static final int DEFAULT_THRESHOLD = 240;
+
+	/**
+	 * The background color of every converted cell
+	 *
+	 */
+	private static final int BACKGROUND_RGB = Color.BLACK.getRGB();
+
+	/**
+	 * The number of rows under which a band is converted without being split further
+	 *
+	 */
+	private static final int BAND_HEIGHT = 32;
+
+	/**
+	 * Is the font of the converted images
+	 *
+	 */
+	private AsciiFont asciiFont;
+
+	/**
+	 * Are the glyphs of the font, loaded the first time an image is rendered
+	 *
+	 */
+	private BufferedImage[] glyphsList;
+
+	/**
+	 * Is the character written for every brightness, already capped by the threshold
+	 *
+	 */
+	private int[] characterForBrightness;
+
+	/**
+	 * Is the maximum brightness considered, the brighter pixels are treated as this value
+	 *
+	 */
+	private int threshold;
+
+	/**
+	 * Is the palette used for the characters colors
+	 *
+	 */
+	private AsciiConverterPaletteMode paletteMode;
+
+	/**
+	 * Tells if the images are converted in bands on the fork-join pool
+	 *
+	 */
+	private boolean parallel;
+
+	/**
+	 * Class constructor of a parallel converter.
+	 * @param font is the font used to choose and draw the characters
+	 * @param threshold is the maximum brightness considered, within range [0,255]
+	 * @param paletteMode is the palette used for the characters colors
+	 * @throws IOException if the font sprite can not be read
+	 */
+	public AsciiConverter(AsciiFont font, int threshold, AsciiConverterPaletteMode paletteMode) throws IOException {
+		this(font, threshold, paletteMode, true);
+	}
+
+	/**
+	 * Class constructor.
+	 * The glyph density index of the font is shared with the other converters of the same font, so building a converter is cheap.
+	 * @param font is the font used to choose and draw the characters
+	 * @param threshold is the maximum brightness considered, within range [0,255]
+	 * @param paletteMode is the palette used for the characters colors
+	 * @param parallel tells if the images are converted in bands on the fork-join pool or in the calling thread
+	 * @throws IOException if the font sprite can not be read
+	 */
+	public AsciiConverter(AsciiFont font, int threshold, AsciiConverterPaletteMode paletteMode, boolean parallel) throws IOException {
+		if (font == null)
+			throw new NullPointerException("font must not be null.");
+
+		if (paletteMode == null)
+			throw new NullPointerException("paletteMode must not be null.");
+
+		if (threshold < 0 || threshold > 255)
+			throw new IllegalArgumentException("threshold " + threshold + " must be within range [0,255].");
+
+		setAsciiFont(font);
+		setThreshold(threshold);
+		setPaletteMode(paletteMode);
+		setParallel(parallel);
+
+		GlyphDensityIndex densityIndex = GlyphDensityIndex.forFont(font);
+		int[] characters = new int[256];
+		for (int brightness = 0; brightness < 256; brightness++)
+			characters[brightness] = densityIndex.getGlyphForLuminance(Math.min(brightness, threshold));
+		setCharacterForBrightness(characters);
+	}
+
+	/**
+	 * Converts an image, one cell for every pixel.
+	 * When the converter is parallel and the image is taller than one band, the rows are split in bands
+	 * converted on the common fork-join pool; the result is the same of the sequential conversion.
+	 * @param image is the image to convert
+	 * @return the converted raster, with the same size of the image
+	 */
+	public AsciiRaster convert(BufferedImage image) {
+		if (image == null)
+			throw new NullPointerException("image must not be null.");
+
+		AsciiRaster raster = new AsciiRaster(image.getWidth(), image.getHeight());
+		if (isParallel() && image.getHeight() > BAND_HEIGHT)
+			ForkJoinPool.commonPool().invoke(new ConversionBand(image, raster.getRasterCells(), 0, image.getHeight()));
+		else
+			convertRows(image, raster.getRasterCells(), 0, image.getHeight());
+		return raster;
+	}
+
+	/**
+	 * Converts a band of rows of the image and writes them in the cells.
+	 * The pixels are read in bulk, one array for the whole band, and every cell is written directly in the packed array,
+	 * so bands that do not overlap can be converted at the same time.
+	 * @param image is the image to convert
+	 * @param cells are the cells of the raster, with the same size of the image
+	 * @param fromRow is the first row of the band
+	 * @param toRow is the row after the last one of the band
+	 */
+	private void convertRows(BufferedImage image, CellBuffer cells, int fromRow, int toRow) {
+		int width = image.getWidth();
+		int rows = toRow - fromRow;
+
+		int[] pixels = readRows(image, fromRow, rows);
+		int[] colors = pixels;
+		if (getPaletteMode() == AsciiConverterPaletteMode.DEFAULT_4BIT_COLORS)
+			colors = readRows(convert4BitDefaultColors(image.getSubimage(0, fromRow, width, rows)), 0, rows);
+
+		long[] data = cells.getCells();
+		int offset = cells.index(0, fromRow);
+		int[] characters = getCharacterForBrightness();
+		for (int i = 0; i < width * rows; i++) {
+			int pixel = pixels[i];
+			int brightness = Math.max(Math.max((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF), pixel & 0xFF);
+			data[offset + i] = CellBuffer.pack((char) characters[brightness], colors[i], BACKGROUND_RGB);
+		}
+	}
+
+	/**
+	 * Reads the RGB values of some rows of an image in one call.
+	 * Images with an int pixel layout are read from their raster as they are, the other ones through the color model.
+	 * @param image is the image to read
+	 * @param fromRow is the first row to read
+	 * @param rows is the number of rows to read
+	 * @return the pixels in row-major order; only the RGB bits are meaningful
+	 */
+	private static int[] readRows(BufferedImage image, int fromRow, int rows) {
+		int width = image.getWidth();
+		if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_INT_ARGB)
+			return (int[]) image.getRaster().getDataElements(0, fromRow, width, rows, null);
+		return image.getRGB(0, fromRow, width, rows, null, 0, width);
+	}
+
+	/**
+	 * Resizes an image and converts it.
+	 * If only one of the two sizes is given, the other one keeps the proportions of the image.
+	 * @param image is the image to convert
+	 * @param width is the width of the raster in cells, or 0 to compute it
+	 * @param height is the height of the raster in cells, or 0 to compute it
+	 * @return the converted raster
+	 */
+	public AsciiRaster convert(BufferedImage image, int width, int height) {
+		if (image == null)
+			throw new NullPointerException("image must not be null.");
+
+		if (width < 0)
+			throw new IllegalArgumentException("width " + width + " must not be negative.");
+
+		if (height < 0)
+			throw new IllegalArgumentException("height " + height + " must not be negative.");
+
+		if (width == 0 && height == 0)
+			return convert(image);
+
+		if (width == 0)
+			width = Math.max(1, Math.round((float) image.getWidth() * height / image.getHeight()));
+		if (height == 0)
+			height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+
+		return convert(resize(image, width, height));
+	}
+
+	/**
+	 * Draws a raster with the glyphs of the font of this converter.
+	 * @param raster is the raster to draw
+	 * @return an image of <code>width * glyphWidth</code> by <code>height * glyphHeight</code> pixels
+	 * @throws IOException if the font sprite can not be read
+	 */
+	public BufferedImage render(AsciiRaster raster) throws IOException {
+		if (raster == null)
+			throw new NullPointerException("raster must not be null.");
+
+		if (getGlyphsList() == null)
+			setGlyphsList(GlyphRegistry.getGlyphs(getAsciiFont()));
+
+		int glyphWidth = getGlyphsList()[0].getWidth();
+		int glyphHeight = getGlyphsList()[0].getHeight();
+		CellBuffer cells = raster.getRasterCells();
+
+		BufferedImage image = new BufferedImage(cells.getWidth() * glyphWidth, cells.getHeight() * glyphHeight, BufferedImage.TYPE_INT_RGB);
+		GlyphMaskRenderer renderer = new GlyphMaskRenderer(getGlyphsList(), glyphWidth, glyphHeight, image);
+		for (int y = 0; y < cells.getHeight(); y++)
+			for (int x = 0; x < cells.getWidth(); x++) {
+				long cell = cells.get(x, y);
+				renderer.drawGlyph(x, y, CellBuffer.characterOf(cell), CellBuffer.foregroundOf(cell), CellBuffer.backgroundOf(cell));
+			}
+		return image;
+	}
+
+	/**
+	 * Resizes an image with bilinear interpolation, as the importing frame does.
+	 * @param image is the image to resize
+	 * @param width is the new width in pixels
+	 * @param height is the new height in pixels
+	 * @return the resized image
+	 */
+	public static BufferedImage resize(BufferedImage image, int width, int height) {
+		BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = resized.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.drawImage(image, 0, 0, width, height, 0, 0, image.getWidth(), image.getHeight(), null);
+		graphics.dispose();
+		return resized;
+	}
+
+	/**
+	 * Converts the source image to 4-bit colour using the default 16-colour
+	 * palette:
+	 * <ul>
+	 * <li>black</li>
+	 * <li>dark red</li>
+	 * <li>dark green</li>
+	 * <li>dark yellow</li>
+	 * <li>dark blue</li>
+	 * <li>dark magenta</li>
+	 * <li>dark cyan</li>
+	 * <li>dark grey</li>
+	 * <li>light grey</li>
+	 * <li>red</li>
+	 * <li>green</li>
+	 * <li>yellow</li>
+	 * <li>blue</li>
+	 * <li>magenta</li>
+	 * <li>cyan</li>
+	 * <li>white</li>
+	 * </ul>
+	 * No transparency.
+	 *
+	 * @param src the source image to convert
+	 * @return a copy of the source image with a 4-bit colour depth, with the
+	 *         default colour pallette
+	 */
+	public static BufferedImage convert4BitDefaultColors(BufferedImage src) {
+		int[] cmap = new int[] { 0x000000, 0x800000, 0x008000, 0x808000, 0x000080, 0x800080, 0x008080, 0x808080,
+				0xC0C0C0, 0xFF0000, 0x00FF00, 0xFFFF00, 0x0000FF, 0xFF00FF, 0x00FFFF, 0xFFFFFF };
+		return convert4BitGivenColors(src, cmap);
+	}
+
+	/**
+	 * Converts the source image to 4-bit colour using the given colour map. No
+	 * transparency.
+	 *
+	 * @param src  the source image to convert
+	 * @param cmap the colour map, which should contain no more than 16 entries The
+	 *             entries are in the form RRGGBB (hex).
+	 * @return a copy of the source image with a 4-bit colour depth, with the custom
+	 *         colour pallette
+	 */
+	public static BufferedImage convert4BitGivenColors(BufferedImage src, int[] cmap) {
+		IndexColorModel icm = new IndexColorModel(4, cmap.length, cmap, 0, false, Transparency.OPAQUE,
+				DataBuffer.TYPE_BYTE);
+		BufferedImage dest = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_BYTE_BINARY, icm);
+		ColorConvertOp cco = new ColorConvertOp(src.getColorModel().getColorSpace(),
+				dest.getColorModel().getColorSpace(), null);
+		cco.filter(src, dest);
+
+		return dest;
+	}
+
+	/**
+	 * The <b>batch converter entry point</b>. It runs with <code>java.awt.headless=true</code>, so it does not need a display.
+	 * <pre>
+	 * AsciiConverter [options] &lt;image or directory&gt;...
+	 *   -w &lt;cells&gt;        width of the converted images (default: image width, or proportional to -h)
+	 *   -h &lt;cells&gt;        height of the converted images (default: image height, or proportional to -w)
+	 *   -t &lt;0-255&gt;        threshold (default: 240)
+	 *   -p &lt;default|full&gt; palette: the default 16 colours or all colors (default: full)
+	 *   -f &lt;font&gt;         font, one of the AsciiFont constants, e.g. CP437_16x16 (default)
+	 *   -F &lt;ascii|binary|png&gt; written file (default: ascii)
+	 *   -o &lt;directory&gt;    output directory (default: the directory of every image)
+	 * </pre>
+	 * The images in a directory are converted one by one; the directory is not searched recursively.
+	 * The process exits with status 1 if any image could not be converted, 2 if the arguments are wrong.
+	 * @param args are the command-line arguments
+	 */
+	public static void main(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		int width = 0;
+		int height = 0;
+		int threshold = DEFAULT_THRESHOLD;
+		AsciiConverterPaletteMode paletteMode = AsciiConverterPaletteMode.ALL_COLORS;
+		AsciiFont font = AsciiFont.CP437_16x16;
+		AsciiConverterOutputFormat format = AsciiConverterOutputFormat.ASCII;
+		File outputDirectory = null;
+		List<File> inputs = new ArrayList<File>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (!arg.startsWith("-")) {
+					inputs.add(new File(arg));
+					continue;
+				}
+				if (i + 1 == args.length)
+					throw new IllegalArgumentException("option " + arg + " needs a value.");
+				String value = args[++i];
+
+				if (arg.equals("-w")) width = Integer.parseInt(value);
+				else if (arg.equals("-h")) height = Integer.parseInt(value);
+				else if (arg.equals("-t")) threshold = Integer.parseInt(value);
+				else if (arg.equals("-p")) paletteMode = parsePaletteMode(value);
+				else if (arg.equals("-f")) font = parseFont(value);
+				else if (arg.equals("-F")) format = AsciiConverterOutputFormat.valueOf(value.toUpperCase());
+				else if (arg.equals("-o")) outputDirectory = new File(value);
+				else throw new IllegalArgumentException("unknown option " + arg + ".");
+			}
+			if (inputs.isEmpty())
+				throw new IllegalArgumentException("no image given.");
+		} catch (IllegalArgumentException e) {
+			System.err.println("AsciiConverter: " + e.getMessage());
+			System.err.println("usage: AsciiConverter [-w cells] [-h cells] [-t 0-255] [-p default|full] [-f font] [-F ascii|binary|png] [-o directory] <image or directory>...");
+			System.exit(2);
+			return;
+		}
+
+		if (outputDirectory != null && !outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+			System.err.println("AsciiConverter: can not create the directory " + outputDirectory + ".");
+			System.exit(1);
+			return;
+		}
+
+		AsciiConverter converter;
+		try {
+			converter = new AsciiConverter(font, threshold, paletteMode);
+		} catch (IOException e) {
+			System.err.println("AsciiConverter: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+
+		int failures = 0;
+		for (File image : collectImages(inputs)) {
+			File directory = outputDirectory != null ? outputDirectory : image.getAbsoluteFile().getParentFile();
+			File output = new File(directory, baseName(image) + "." + format.getExtension());
+			try {
+				converter.convertFile(image, output, width, height, format);
+				System.out.println(image + " -> " + output);
+			} catch (Exception e) {
+				System.err.println(image + ": " + e.getMessage());
+				failures++;
+			}
+		}
+		if (failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Reads an image file, converts it and writes the result.
+	 * @param image is the image file to read
+	 * @param output is the file to write
+	 * @param width is the width in cells, or 0 to compute it
+	 * @param height is the height in cells, or 0 to compute it
+	 * @param format is the kind of file to write
+	 * @throws IOException if the image can not be read or the result can not be written
+	 */
+	public void convertFile(File image, File output, int width, int height, AsciiConverterOutputFormat format) throws IOException {
+		BufferedImage source = ImageIO.read(image);
+		if (source == null)
+			throw new IOException("not a readable image.");
+
+		AsciiRaster raster = convert(source, width, height);
+		if (format == AsciiConverterOutputFormat.PNG)
+			ImageIO.write(render(raster), "png", output);
+		else if (format == AsciiConverterOutputFormat.BINARY)
+			raster.save(output.getPath(), AsciiFileFormat.BINARY);
+		else
+			raster.save(output.getPath());
+	}
+
+	/**
+	 * Expands the directories among the inputs into the images they contain.
+	 * @param inputs are the files and directories given on the command line
+	 * @return the image files to convert
+	 */
+	private static List<File> collectImages(List<File> inputs) {
+		List<String> imageExtensions = Arrays.asList(ImageIO.getReaderFileSuffixes());
+		List<File> images = new ArrayList<File>();
+		for (File input : inputs) {
+			if (!input.isDirectory()) {
+				images.add(input);
+				continue;
+			}
+			File[] children = input.listFiles();
+			if (children == null)
+				continue;
+			Arrays.sort(children);
+			for (File child : children) {
+				String name = child.getName();
+				int dot = name.lastIndexOf('.');
+				if (child.isFile() && dot > 0 && imageExtensions.contains(name.substring(dot + 1).toLowerCase()))
+					images.add(child);
+			}
+		}
+		return images;
+	}
+
+	/**
+	 * Returns the name of a file without its extension.
+	 * @param file is the file
+	 * @return the base name
+	 */
+	private static String baseName(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return dot > 0 ? name.substring(0, dot) : name;
+	}
+
+	/**
+	 * Parses the palette option.
+	 * @param value is <i>default</i> or <i>full</i>
+	 * @return the palette mode
+	 */
+	private static AsciiConverterPaletteMode parsePaletteMode(String value) {
+		if (value.equalsIgnoreCase("default"))
+			return AsciiConverterPaletteMode.DEFAULT_4BIT_COLORS;
+		if (value.equalsIgnoreCase("full"))
+			return AsciiConverterPaletteMode.ALL_COLORS;
+		throw new IllegalArgumentException("palette " + value + " must be default or full.");
+	}
+
+	/**
+	 * Finds the font with the given name among the constants of {@link AsciiFont}.
+	 * @param name is the name of the constant, e.g. CP437_16x16
+	 * @return the font
+	 */
+	private static AsciiFont parseFont(String name) {
+		for (Field field : AsciiFont.class.getFields()) {
+			if (field.getType() == AsciiFont.class && Modifier.isStatic(field.getModifiers()) && field.getName().equalsIgnoreCase(name)) {
+				try {
+					return (AsciiFont) field.get(null);
+				} catch (IllegalAccessException e) {
+					break;
+				}
+			}
+		}
+		throw new IllegalArgumentException("font " + name + " is not one of the AsciiFont constants.");
+	}
+
+	/**
+	 * The glyphs list getter
+	 * @return the glyphs of the font, null until the first render
+	 */
+	private BufferedImage[] getGlyphsList() {
+		return glyphsList;
+	}
+
+	/**
+	 * The glyphs list setter
+	 * @param glyphsList are the glyphs to set
+	 */
+	private void setGlyphsList(BufferedImage[] glyphsList) {
+		this.glyphsList = glyphsList;
+	}
+
+	/**
+	 * The font getter
+	 * @return the font of the converted images
+	 */
+	public AsciiFont getAsciiFont() {
+		return asciiFont;
+	}
+
+	/**
+	 * The font setter
+	 * @param asciiFont is the font to set
+	 */
+	private void setAsciiFont(AsciiFont asciiFont) {
+		this.asciiFont = asciiFont;
+	}
+
+	/**
+	 * The threshold getter
+	 * @return the maximum brightness considered
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * The threshold setter
+	 * @param threshold is the threshold to set
+	 */
+	private void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * The palette mode getter
+	 * @return the palette used for the characters colors
+	 */
+	public AsciiConverterPaletteMode getPaletteMode() {
+		return paletteMode;
+	}
+
+	/**
+	 * The palette mode setter
+	 * @param paletteMode is the palette mode to set
+	 */
+	private void setPaletteMode(AsciiConverterPaletteMode paletteMode) {
+		this.paletteMode = paletteMode;
+	}
+
+	/**
+	 * The characters table getter
+	 * @return the character written for every brightness
+	 */
+	private int[] getCharacterForBrightness() {
+		return characterForBrightness;
+	}
+
+	/**
+	 * The characters table setter
+	 * @param characterForBrightness is the table to set
+	 */
+	private void setCharacterForBrightness(int[] characterForBrightness) {
+		this.characterForBrightness = characterForBrightness;
+	}
+
+	/**
+	 * The parallel flag getter
+	 * @return true if the images are converted in bands on the fork-join pool
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * The parallel flag setter
+	 * @param parallel is the flag to set
+	 */
+	private void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * The fork-join task that converts a band of rows.
+	 * A band taller than {@link AsciiConverter#BAND_HEIGHT} is split in two halves converted in parallel.
+	 *
+	 */
+	private class ConversionBand extends RecursiveAction {
+
+		/**
+		 * The serial version
+		 *
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The image to convert
+		 *
+		 */
+		private final BufferedImage image;
+
+		/**
+		 * The cells to write
+		 *
+		 */
+		private final CellBuffer cells;
+
+		/**
+		 * The first row of the band
+		 *
+		 */
+		private final int fromRow;
+
+		/**
+		 * The row after the last one of the band
+		 *
+		 */
+		private final int toRow;
+
+		/**
+		 * Task constructor.
+		 * @param image is the image to convert
+		 * @param cells are the cells to write
+		 * @param fromRow is the first row of the band
+		 * @param toRow is the row after the last one of the band
+		 */
+		ConversionBand(BufferedImage image, CellBuffer cells, int fromRow, int toRow) {
+			this.image = image;
+			this.cells = cells;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		/**
+		 * Converts the band, or splits it if it is too tall.
+		 *
+		 */
+		@Override
+		protected void compute() {
+			if (toRow - fromRow <= BAND_HEIGHT) {
+				convertRows(image, cells, fromRow, toRow);
+				return;
+			}
+			int middle = (fromRow + toRow) >>> 1;
+			invokeAll(new ConversionBand(image, cells, fromRow, middle), new ConversionBand(image, cells, middle, toRow));
+		}
+	}
+}
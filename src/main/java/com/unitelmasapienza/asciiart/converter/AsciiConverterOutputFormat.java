@@ -0,0 +1,51 @@
+package com.unitelmasapienza.asciiart.converter;
+
+/**
+ * This enumeration lists the <b>files that the batch converter can write</b> for every converted image.
+ * 
+ * @see AsciiConverter#main(String[]) which writes the converted images.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum AsciiConverterOutputFormat {
+
+	/**
+	 * The text <code>.ascii</code> file that can be loaded in the application.
+	 */
+	ASCII("ascii"),
+
+	/**
+	 * The compact binary file that can be loaded in the application.
+	 * @see com.unitelmasapienza.asciiart.asciipanel.AsciiBinaryFormat
+	 */
+	BINARY("ascb"),
+
+	/**
+	 * A PNG image with the characters drawn with the glyphs of the font.
+	 * The extension keeps the <i>.ascii</i> part, so a PNG source is never overwritten by its render.
+	 */
+	PNG("ascii.png");
+
+	/**
+	 * The extension of the written files, without the dot
+	 *
+	 */
+	private String extension;
+
+	/**
+	 * Enumeration constructor.
+	 * @param extension is the extension of the written files
+	 */
+	private AsciiConverterOutputFormat(String extension) {
+		this.extension = extension;
+	}
+
+	/**
+	 * The extension getter
+	 * @return the extension of the written files, without the dot
+	 */
+	public String getExtension() {
+		return extension;
+	}
+}
@@ -0,0 +1,24 @@
+package com.unitelmasapienza.asciiart.converter;
+
+/**
+ * This enumeration lists the <b>palettes that can be used for the colors of a converted image</b>.
+ * 
+ * @see AsciiConverter which colors every character with the chosen palette.
+ * 
+ * @author Fulvio Zecchin
+ *
+ */
+public enum AsciiConverterPaletteMode {
+
+	/**
+	 * The image is first reduced to the default 16-colour palette.
+	 * @see AsciiConverter#convert4BitDefaultColors(java.awt.image.BufferedImage)
+	 */
+	DEFAULT_4BIT_COLORS,
+
+	/**
+	 * Every character takes the exact color of its pixel.
+	 * It is the <i>all colors</i> option of the importing frame.
+	 */
+	ALL_COLORS
+}
@@ -5,13 +5,14 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.util.Stack;
 
+import javax.management.JMException;
 import javax.swing.JColorChooser;
 
 import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
 import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
-import com.unitelmasapienza.asciiart.asciipanel.PanelChar;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiStroke;
+import com.unitelmasapienza.asciiart.asciipanel.RenderMetrics;
 import com.unitelmasapienza.asciiart.asciipanel.factories.AsciiPanelFactory;
 import com.unitelmasapienza.asciiart.asciipanel.factories.AsciiPanelFactoryConcrete;
 import com.unitelmasapienza.asciiart.imageeditor.factories.ImageEditorViewFactory;
@@ -39,40 +40,17 @@ import com.unitelmasapienza.asciiart.imageeditor.views.SelectCharView;
 public class ImageEditorController {
 	
 	/**
-	 * This field is to implement the stack of <b>Undo</b> function in application.
-	 * Every time that a character is drawn, here will be inserted a new PanelChar object which contains
-	 * its data.
-	 * When is clicked the Undo button, from this stack will be took the first element (last inserted) and relative character 
-	 * will be canceled from drawing panel.
-	 * This PanelChar, will be moved on the other stack <i>stackRedo</i> which represents the stack of <b>Redo</b> function in application.
-	 * 
-	 * So if is clicked the Redo button, after the re-painting of specific character, the relative PanelChar in stackRedo (last inserted) will be
-	 * moved on stackUndo, ready to be (another time) canceled by Undo click.
-	 * And so on...
-	 * 
-	 */
-	private static Stack<PanelChar> stackUndo;
-	
-	/**
-	 * This field is to implement the stack of <b>Redo</b> function in application.
-	 * Every time that a character is canceled by Undo function, here will be inserted a new PanelChar object which contains
-	 * its data.
-	 * When is clicked the Redo button, from this stack will be took the first element (last inserted) and relative character 
-	 * will be drawn in panel, at the same previous position (see PanelChar object fields).
-	 * This PanelChar, will be moved on the other stack <i>stackUndo</i> which represents the stack of <b>Undo</b> function in application.
-	 * 
-	 * So if is clicked the Redo button, after the re-painting of specific character, the relative PanelChar in stackRedo (last inserted) will be
-	 * moved on stackUndo, ready to be (another time) canceled by Undo click.
-	 * And so on...
+	 * The only instance of the class
 	 * 
 	 */
-	private static Stack<PanelChar> stackRedo;
+	public static ImageEditorController instance;
 	
 	/**
-	 * The only instance of the class
+	 * The system property that, when set to <code>true</code>, makes the canvas collect its render metrics from the start,
+	 * so they can be read through JMX without opening the overlay.
 	 * 
 	 */
-	public static ImageEditorController instance;
+	public static final String METRICS_PROPERTY = "asciiart.metrics";
 	
 	/**
 	 * The factory that concretely creates/initialize AsciiPanel (Model)
@@ -100,6 +78,19 @@ public class ImageEditorController {
 	 */
 	private ImageEditorView view;
 	
+	/**
+	 * The stroke being painted by dragging the mouse, null when no button is pressed with the paint tool.
+	 * 
+	 */
+	private AsciiStroke stroke;
+	
+	/**
+	 * The render metrics of the canvas, kept for the new canvases too. It is null until the metrics are enabled,
+	 * by the {@link #METRICS_PROPERTY} system property or by the <i>Render metrics</i> menu item.
+	 * 
+	 */
+	private RenderMetrics renderMetrics;
+	
 	/**
 	 * Public constructor to create the controller and initialize model and view.
 	 * It needs an AsciiPanelFactory to set the factory for instantiate AsciiPanel (Model).
@@ -111,9 +102,10 @@ public class ImageEditorController {
 		setViewFactory(viewFactory);
 		setModel(getPanelFactory().createAsciiPanel(80, 60, AsciiFont.CP437_16x16));
 		preparingModel(model);
+		if (Boolean.getBoolean(METRICS_PROPERTY))
+			model.setRenderMetrics(enableRenderMetrics());
 		setView(getViewFactory().createView());
 		getView().setPanel(model);
-		getView().add(model);
 		initController();
 		getView().setVisible(true);
 	}
@@ -133,38 +125,11 @@ public class ImageEditorController {
 		return instance;
 	}
 	
-	/**
-	 * <b>Singleton</b> implementation. Checks if an instance of the <b>Undo Stack</b> already exists and returns it. 
-	 * If it does not exist it creates and returns it.
-	 * 
-	 * @return stackUndo, the only stack for undo function on application.
-	 * 
-	 */
-	public static Stack<PanelChar> getStackUndoInstance() {
-		if(stackUndo == null)
-			stackUndo = new Stack<PanelChar>();
-		return stackUndo;
-	}
-	
-	/**
-	 * <b>Singleton</b> implementation. Checks if an instance of the <b>Redo Stack</b> already exists and returns it. 
-	 * If it does not exist it creates and returns it.
-	 * 
-	 * @return stackRedo, the only stack for redo function on application.
-	 * 
-	 */
-	public static Stack<PanelChar> getStackRedoInstance() {
-		if(stackRedo == null)
-			stackRedo = new Stack<PanelChar>();
-		return stackRedo;
-	}
-	
 	/**
 	 * This method sets graphical information for model
 	 * @param model is the model
 	 */
 	private void preparingModel(AsciiPanel model) {
-		model.setBounds(80, 0, 80 * 16, 80 * 16);
 		model.setCursorDistanceFromLeft(0);
 		model.setCursorDistanceFromTop(0);
 		model.write("Empty");
@@ -180,8 +145,6 @@ public class ImageEditorController {
 	private void initController() {
 		setListeners();
 		getView().updatePreview();
-		getStackUndoInstance();
-		getStackRedoInstance();
 	}
 	
 	/**
@@ -325,6 +288,16 @@ public class ImageEditorController {
 			}
 		});
 		
+		view.getMenuBarToolsMetrics().addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				boolean visible = view.getMenuBarToolsMetrics().isSelected();
+				if (visible)
+					model.setRenderMetrics(enableRenderMetrics());
+				model.setMetricsOverlayVisible(visible);
+			}
+		});
+		
 		view.getUndoButton().addActionListener(new ActionLoadListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
@@ -367,144 +340,72 @@ public class ImageEditorController {
 	
 	/**
 	 * Handles the click event on the application drawing canvas
-	 * Draws the selected character on the canvas
+	 * Draws the selected character on the canvas, starting a stroke that continues while the mouse is dragged
+	 * (see {@link #onCursorDrag(int, int)}) and ends when the button is released (see {@link #onRelease()}).
+	 * The right button erases instead.
 	 * 
 	 * @param button is the index of the button/function that is set
 	 */
 	public void onClick(int button) {
+		onRelease();
+
 		int valueX = model.getMouseCursorX();
 		int valueY = model.getMouseCursorY();
 
-		model.setCursorDistanceFromLeft(valueX);
-		model.setCursorDistanceFromTop(valueY);
-
-		if (button == 1) {
-			PanelChar character = new PanelChar(valueX, valueY, (char) (view.getSelectedChar() + 0), view.getDrawnCharColor(), view.getDrawnCharBackgroundColor());
-			pushInUndoStack(character);
-			model.write((char) (view.getSelectedChar() + 0), view.getDrawnCharColor(), view.getDrawnCharBackgroundColor());
-		}
+		if (button == 1)
+			stroke = model.beginStroke(valueX, valueY, (char) (view.getSelectedChar() + 0), view.getDrawnCharColor(), view.getDrawnCharBackgroundColor());
 		else
-			model.write((char) 0);
+			stroke = model.beginStroke(valueX, valueY, (char) 0, null, null);
 
-		model.repaint();
-	}
-	
-	/**
-	 * This method manage the insert in undo stack.
-	 * If the stack size is major of 20 (the max limit) it will remove the
-	 * last element in stack (first inserted) and push the new element on top.
-	 * 
-	 * @param character is the character to push into stack
-	 */
-	private void pushInUndoStack(PanelChar character) {
-		if(getStackUndoInstance().size() == 20) {
-			getStackUndoInstance().remove(0);
-			getStackUndoInstance().push(character);
-		} else getStackUndoInstance().push(character);
-	}
-	
-	/**
-	 * This method manage the insert in redo stack.
-	 * If the stack size is major of 20 (the max limit) it will remove the
-	 * last element in stack (first inserted) and push the new element on top.
-	 * 
-	 * @param character is the character to push into stack
-	 */
-	private void pushInRedoStack(PanelChar character) {
-		if(getStackRedoInstance().size() == 20) {
-			getStackRedoInstance().remove(0);
-			getStackRedoInstance().push(character);
-		} else getStackRedoInstance().push(character);
-	}
-	
-	/**
-	 * This method manage the remove in undo stack.
-	 * If there is something to remove from the stack, it will be remove the first (last inserted),
-	 * and return it, else it return null.
-	 * 
-	 * @return first PanelChar from the stack, null otherwise
-	 */
-	private PanelChar popInUndoStack() {
-		if(getStackUndoInstance().size() > 0) {
-			PanelChar lastChar = getStackUndoInstance().pop();
-			return lastChar;
-		} else return null;
-	}
-	
-	/**
-	 * This method manage the remove in redo stack.
-	 * If there is something to remove from the stack, it will be remove the first (last inserted),
-	 * and return it, else it return null.
-	 * 
-	 * @return first PanelChar from the stack, null otherwise
-	 */
-	private PanelChar popInRedoStack() {
-		if(getStackRedoInstance().size() > 0) {
-			PanelChar lastChar = getStackRedoInstance().pop();
-			return lastChar;
-		} else return null;
+		model.repaintDirty();
 	}
 	
 	/**
-	 * This method checks if is possible to an undo.
-	 * Simply check if there is something inside the undo stack (some operation).
+	 * Called when the mouse is dragged on the canvas. If a stroke is being painted, it is continued to the cell under the mouse,
+	 * painting all the cells in between, and the changed region is repainted once.
 	 * 
-	 * @return true if is possible to do an Undo, false otherwise.
+	 * @param x is the value of <i>x</i>-coordinate, in pixels
+	 * @param y is the value of <i>y</i>-coordinate, in pixels
 	 */
-	private boolean canUndo() {
-		return getStackUndoInstance().size() > 0 ? true : false;
+	public void onCursorDrag(int x, int y) {
+		model.moveMouseCursor(x, y);
+		if (stroke == null)
+			return;
+
+		stroke.lineTo(Math.floorDiv(x, model.getCharWidth()), Math.floorDiv(y, model.getCharHeight()));
+		model.repaintDirty();
 	}
 	
 	/**
-	 * This method checks if is possible to a redo.
-	 * Simply check if there is something inside the redo stack (some operation).
+	 * Called when the mouse button is released. It ends the stroke being painted, if any, which becomes a single undo step.
 	 * 
-	 * @return true if is possible to do an Redo, false otherwise.
 	 */
-	private boolean canRedo() {
-		return getStackRedoInstance().size() > 0 ? true : false;
+	public void onRelease() {
+		if (stroke == null)
+			return;
+
+		stroke.end();
+		stroke = null;
 	}
 	
 	/**
 	 * This method provides to do an Undo.
-	 * If is possible to proceed with undo, it take the first element in undo stack,
-	 * push it in redo stack (for eventual redo function of this) and cancel the relative
-	 * character from drawing panel.
+	 * It restores the cells changed by the last recorded operation (a click, a fill, a conversion or a load)
+	 * as they were before it, and repaints them.
 	 * 
 	 */
 	private void undo() {
-		if(canUndo()) {
-			PanelChar character = popInUndoStack();
-			pushInRedoStack(character);
-			int x = character.getX();
-			int y = character.getY();
-			model.setCursorDistanceFromLeft(x);
-			model.setCursorDistanceFromTop(y);
-			model.write((char) 0);
-			model.repaint();
-		}
+		if (model.undo())
+			model.repaintDirty();
 	}
 	
 	/**
 	 * This method provides to do a Redo.
-	 * If is possible to proceed with redo, it take the first element in redo stack,
-	 * push it in undo stack (for eventual undo function of this) and re-writing the relative
-	 * character in drawing panel.
+	 * It writes again the cells changed by the last undone operation, and repaints them.
 	 */
 	private void redo() {
-		if(canRedo()) {
-			PanelChar character = popInRedoStack();
-			pushInUndoStack(character);
-			int x = character.getX();
-			int y = character.getY();
-			char c = character.getSelectedChar();
-			Color foreground = character.getForegroundColor();
-			Color background = character.getBackgroundColor();
-			model.setCursorDistanceFromLeft(x);
-			model.setCursorDistanceFromTop(y);
-			model.write((char) (c + 0), foreground, background);
-			model.repaint();
-		}
+		if (model.redo())
+			model.repaintDirty();
 	}
 	
 	/**
@@ -517,12 +418,14 @@ public class ImageEditorController {
 		int valueX = model.getMouseCursorX();
 		int valueY = model.getMouseCursorY();
 
+		model.beginEdit();
 		if (button == 1) 
 			model.fill((char) (view.getSelectedChar() + 0), valueX, valueY, view.getDrawnCharColor(), view.getDrawnCharBackgroundColor());
 		else 
 			model.fill((char) (0), valueX, valueY, Color.black, Color.black);
+		model.endEdit();
 
-		model.repaint();
+		model.repaintDirty();
 	}
 	
 	/**
@@ -544,32 +447,60 @@ public class ImageEditorController {
 	 * @param height is the height of the new canvas
 	 */
 	public void reset(int width, int height) {
-		view.remove(model);
+		model.setMetricsOverlayVisible(false);
 		this.model = panelFactory.createAsciiPanel(width, height, AsciiFont.CP437_16x16);
+		if (renderMetrics != null)
+			model.setRenderMetrics(renderMetrics);
 		
 		model.clear();
 		model.setCursorDistanceFromLeft(0);
 		model.setCursorDistanceFromTop(0);
 		model.write("Empty");
-		model.setBounds(80, 0, width * 16, height * 16);
 		
 		view.setPanel(model);
-		view.add(model);
 		view.getPanel().addMouseListener(new ControllerMouseLintener(this));
 		view.getPanel().addMouseMotionListener(new ControllerMouseMotionLintener(this));
+		if (view.getMenuBarToolsMetrics().isSelected())
+			model.setMetricsOverlayVisible(true);
+	}
+	
+	/**
+	 * Returns the render metrics of the canvas, creating them the first time and registering them as a JMX MBean
+	 * (see {@link RenderMetrics#OBJECT_NAME}), so they can be read by any JMX console.
+	 * If the registration fails, the metrics are still collected and shown by the overlay.
+	 * 
+	 * @return the render metrics
+	 */
+	private RenderMetrics enableRenderMetrics() {
+		if (renderMetrics == null) {
+			renderMetrics = new RenderMetrics();
+			try {
+				renderMetrics.registerMBean();
+			} catch (JMException e) {
+				e.printStackTrace();
+			}
+		}
+		return renderMetrics;
 	}
 	
 	/**
 	 * Called when the mouse is moved within the canvas. 
-	 * Saves the <i>x</i> and <i>y</i> coordinates of the cursor and the selected button/function.
+	 * Moves the cursor of the panel to the cell under the mouse; the cell size comes from the font of the panel.
+	 * The panel repaints only when the cell changes, and at most once every frame.
 	 * @param button is the index of the button/function that is set
 	 * @param x is the value of <i>x</i>-coordinate
 	 * @param y is the value of <i>y</i>-coordinate
 	 */
 	public void onCursorMove(int button, int x, int y) {
-		view.getPanel().setMouseCursorX(x / 16);
-		view.getPanel().setMouseCursorY(y / 16);
-		view.getPanel().repaint();
+		view.getPanel().moveMouseCursor(x, y);
+	}
+	
+	/**
+	 * Called when the mouse leaves the canvas. It removes the outline of the cursor cell.
+	 * 
+	 */
+	public void onCursorExit() {
+		view.getPanel().hideMouseCursor();
 	}
 	
 	/**
@@ -56,6 +56,7 @@ public class ImageEditorViewFactoryConcrete extends ImageEditorViewFactory {
 				.paintToolsMenuItem()
 				.fillToolsMenuItem()
 				.pickToolsMenuItem()
+				.metricsToolsMenuItem()
 				.addToolsToMenuBar()
 				.build();
 		return view;
@@ -1,24 +1,20 @@
 package com.unitelmasapienza.asciiart.imageeditor.listeners;
 
-import java.awt.Color;
-import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorConvertOp;
-import java.awt.image.DataBuffer;
-import java.awt.image.IndexColorModel;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.swing.JCheckBox;
 import javax.swing.JTextField;
 import javax.swing.JToggleButton;
 
 import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
+import com.unitelmasapienza.asciiart.converter.AsciiConverter;
+import com.unitelmasapienza.asciiart.converter.AsciiConverterPaletteMode;
 import com.unitelmasapienza.asciiart.imageeditor.controllers.ImageEditorController;
 import com.unitelmasapienza.asciiart.imageeditor.views.ImageEditorView;
 import com.unitelmasapienza.asciiart.imageeditor.views.ImporterView;
+import com.unitelmasapienza.asciiart.imageeditor.workers.ImageConvertWorker;
 
 /**
  * The class represents the action listener for the <b>image conversion functionality</b>, after the image has been imported.
@@ -72,6 +68,8 @@ public class ActionConvertListener implements ActionListener {
 	 * 
 	 * If the input values are populated and correct, it converts the chosen image to an ascii image and draws it 
 	 * (in color or not depending on the value of the <i>tb</i> checkbox) in the main canvas/panel.
+	 * The conversion runs in background, in an {@link ImageConvertWorker}, and the canvas is changed only when it is complete.
+	 * @see AsciiConverter which is the conversion engine.
 	 */
 	@Override
 	public void actionPerformed(ActionEvent e) {
@@ -80,117 +78,13 @@ public class ActionConvertListener implements ActionListener {
 
 		System.out.println("Convert Pressed..");
 		if (bufferedImg != null) {
-			getAsciiPanel().clear();
 			int thresholdValue = Integer.parseInt(getThresholdTextbox().getText());
-			BufferedImage[] glyphsList = getAsciiPanel().getGlyphsList();
-
-			Map<Integer, Integer> index2numpixels = new HashMap<Integer, Integer>();
-			for (int i = 0; i < glyphsList.length; i++) {
-				BufferedImage bi = glyphsList[i];
-				if (bi == null)
-					continue;
-				int tot = 0;
-				for (int x = 0; x < bi.getWidth(); x++)
-					for (int y = 0; y < bi.getHeight(); y++) {
-						int c = bi.getRGB(x, y);
-						Color color = new Color(c, false);
-						if (color.getRed() > 0 || color.getGreen() > 0 || color.getBlue() > 0)
-							tot++;
-					}
-				int key = (int) ((float) (tot) / (float) (bi.getWidth() * bi.getHeight()) * 255.f);
-				if (!index2numpixels.containsKey(key))
-					index2numpixels.put(key, i);
-
-			}
-
-			int[][] bufferMatrix = new int[bufferedImg.getWidth()][bufferedImg.getHeight()];
-			// BufferedImage bi=ImageIO.read(new
-			// File("resources/bitmaps/80x50Stefano.png"));
-			for (int x = 0; x < bufferedImg.getWidth(); x++)
-				for (int y = 0; y < bufferedImg.getHeight(); y++) {
-					int c = bufferedImg.getRGB(x, y);
-					Color color = new Color(c);
-					int ri = Math.max(Math.max(color.getRed(), color.getGreen()), color.getBlue());
-					// if (cc.getRed()>0||cc.getGreen()>0||cc.getBlue()>0)
-					bufferMatrix[x][y] = Math.min(ri, thresholdValue);
-				}
-
-			if (!getAllColorsCheckbox().isSelected()) {
-				BufferedImage convertedImg = convert4BitDefaultColors(bufferedImg);
-				bufferedImg = convertedImg;
-			}
-			for (int x = 0; x < Math.min(bufferedImg.getWidth(), 80); x++)
-				for (int y = 0; y < Math.min(bufferedImg.getHeight(), 80); y++) {
-					int k = 255 - bufferMatrix[x][y];
-					// System.out.println("**"+k);
-					while (!index2numpixels.containsKey(k) && k > 0) {
-						k--;
-					}
-					getAsciiPanel().setCursorDistanceFromLeft(x);
-					getAsciiPanel().setCursorDistanceFromTop(y);
-					int c = bufferedImg.getRGB(x, y);
-					Color color = new Color(c);
-					getAsciiPanel().write((char) k, color);
-
-				}
-			getAsciiPanel().repaint();
-			ImporterView.getInstance().setVisible(false);
-			ImporterView.getInstance().close();
-		}
-	}
+			AsciiConverterPaletteMode paletteMode = getAllColorsCheckbox().isSelected()
+					? AsciiConverterPaletteMode.ALL_COLORS
+					: AsciiConverterPaletteMode.DEFAULT_4BIT_COLORS;
 
-	/**
-	 * Converts the source image to 4-bit colour using the default 16-colour
-	 * palette:
-	 * <ul>
-	 * <li>black</li>
-	 * <li>dark red</li>
-	 * <li>dark green</li>
-	 * <li>dark yellow</li>
-	 * <li>dark blue</li>
-	 * <li>dark magenta</li>
-	 * <li>dark cyan</li>
-	 * <li>dark grey</li>
-	 * <li>light grey</li>
-	 * <li>red</li>
-	 * <li>green</li>
-	 * <li>yellow</li>
-	 * <li>blue</li>
-	 * <li>magenta</li>
-	 * <li>cyan</li>
-	 * <li>white</li>
-	 * </ul>
-	 * No transparency.
-	 * 
-	 * @param src the source image to convert
-	 * @return a copy of the source image with a 4-bit colour depth, with the
-	 *         default colour pallette
-	 */
-	public static BufferedImage convert4BitDefaultColors(BufferedImage src) {
-		int[] cmap = new int[] { 0x000000, 0x800000, 0x008000, 0x808000, 0x000080, 0x800080, 0x008080, 0x808080,
-				0xC0C0C0, 0xFF0000, 0x00FF00, 0xFFFF00, 0x0000FF, 0xFF00FF, 0x00FFFF, 0xFFFFFF };
-		return convert4BitGivenColors(src, cmap);
-	}
-
-	/**
-	 * Converts the source image to 4-bit colour using the given colour map. No
-	 * transparency.
-	 * 
-	 * @param src  the source image to convert
-	 * @param cmap the colour map, which should contain no more than 16 entries The
-	 *             entries are in the form RRGGBB (hex).
-	 * @return a copy of the source image with a 4-bit colour depth, with the custom
-	 *         colour pallette
-	 */
-	public static BufferedImage convert4BitGivenColors(BufferedImage src, int[] cmap) {
-		IndexColorModel icm = new IndexColorModel(4, cmap.length, cmap, 0, false, Transparency.OPAQUE,
-				DataBuffer.TYPE_BYTE);
-		BufferedImage dest = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_BYTE_BINARY, icm);
-		ColorConvertOp cco = new ColorConvertOp(src.getColorModel().getColorSpace(),
-				dest.getColorModel().getColorSpace(), null);
-		cco.filter(src, dest);
-
-		return dest;
+			ImporterView.getInstance().startTask(new ImageConvertWorker(bufferedImg, getAsciiPanel(), thresholdValue, paletteMode));
+		}
 	}
 
 	/**
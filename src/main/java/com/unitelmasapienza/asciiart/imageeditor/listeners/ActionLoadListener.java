@@ -2,8 +2,10 @@ package com.unitelmasapienza.asciiart.imageeditor.listeners;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 
 import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
 
 import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
 import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
@@ -38,7 +40,8 @@ public class ActionLoadListener implements ActionListener {
 	 * <i>file</i> menu' in main frame ImageEditorView.
 	 * 
 	 * It starts with a file system path to navigate to in order to choose the image to load.
-	 * Once chosen it is loaded (painted) into the main canvas
+	 * Once chosen it is loaded (painted) into the main canvas.
+	 * If the file is malformed, an error dialog shows where the problem is and the canvas is not changed.
 	 */
 	@Override
 	public void actionPerformed(ActionEvent e) {
@@ -46,9 +49,19 @@ public class ActionLoadListener implements ActionListener {
 		int returnVal = fileChooser.showOpenDialog(getParentDialog());	
 
 		if(returnVal == JFileChooser.APPROVE_OPTION) {
-			AsciiRaster raster = AsciiRaster.createRasterFromFile(fileChooser.getSelectedFile().getAbsolutePath());
+			AsciiRaster raster;
+			try {
+				raster = AsciiRaster.createRasterFromFile(fileChooser.getSelectedFile().getAbsolutePath());
+			} catch (IOException e1) {
+				JOptionPane.showMessageDialog(ImageEditorController.getInstance().getView(), e1.getMessage(), "Load error", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
 			ImageEditorController.getInstance().reset(raster.getRasterLimitX(), raster.getRasterLimitY());
-			ImageEditorController.getInstance().getView().getPanel().paintRaster(raster, 0, 0, false);
+			AsciiPanel panel = ImageEditorController.getInstance().getView().getPanel();
+			panel.beginEdit();
+			panel.paintRaster(raster, 0, 0, false);
+			panel.endEdit();
+			panel.repaintDirty();
 		}
 	}
 
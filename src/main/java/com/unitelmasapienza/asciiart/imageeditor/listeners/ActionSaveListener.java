@@ -4,9 +4,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 import javax.swing.JFileChooser;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFileFormat;
 import com.unitelmasapienza.asciiart.imageeditor.controllers.ImageEditorController;
 import com.unitelmasapienza.asciiart.imageeditor.views.ImageEditorView;
+import com.unitelmasapienza.asciiart.imageeditor.workers.SaveWorker;
 
 /**
  * The class represents the listener for the <b>save functionality</b> of a drawn canvas.
@@ -29,14 +32,22 @@ public class ActionSaveListener implements ActionListener {
 	 * Describes the behavior when a is clicked the <i>Save...</i> button from <i>File</i> menu.
 	 * 
 	 * Opens a file system dialog that allows you to choose the location where you want to export the canvas as a file.
+	 * The dialog offers the text format and the compact binary format; the text one is used when no filter is chosen.
+	 * The drawing is saved in background by a {@link SaveWorker}, which reports the result when it is done.
 	 */
 	@Override
 	public void actionPerformed(ActionEvent e) {
 		JFileChooser fileChooser = new JFileChooser("resources/");
+		FileNameExtensionFilter textFilter = new FileNameExtensionFilter("Ascii text (*." + AsciiFileFormat.TEXT.getExtension() + ")", AsciiFileFormat.TEXT.getExtension());
+		FileNameExtensionFilter binaryFilter = new FileNameExtensionFilter("Ascii binary (*." + AsciiFileFormat.BINARY.getExtension() + ")", AsciiFileFormat.BINARY.getExtension());
+		fileChooser.addChoosableFileFilter(textFilter);
+		fileChooser.addChoosableFileFilter(binaryFilter);
 		int returnVal = fileChooser.showSaveDialog(ImageEditorController.getInstance().getView());
 
 		if (returnVal == JFileChooser.APPROVE_OPTION) {
-			ImageEditorController.getInstance().getView().getPanel().save(fileChooser.getSelectedFile().getAbsolutePath());
+			AsciiFileFormat format = fileChooser.getFileFilter() == binaryFilter ? AsciiFileFormat.BINARY : AsciiFileFormat.TEXT;
+			ImageEditorView view = ImageEditorController.getInstance().getView();
+			new SaveWorker(view, view.getPanel(), fileChooser.getSelectedFile(), format).execute();
 		}
 	}
 
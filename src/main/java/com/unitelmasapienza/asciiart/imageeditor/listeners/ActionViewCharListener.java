@@ -7,7 +7,8 @@ import com.unitelmasapienza.asciiart.imageeditor.controllers.ImageEditorControll
 import com.unitelmasapienza.asciiart.imageeditor.views.SelectCharView;
 
 /**
- * The class manages the <b>Action Listener for each character selected from the character palette frame</b>.
+ * The class manages the <b>Action Listener for the characters selected from the character palette frame</b>.
+ * The index of the selected character is the action command of the event.
  * 
  * @see SelectCharView that represents the character palette view frame of application.
  * 
@@ -16,29 +17,13 @@ import com.unitelmasapienza.asciiart.imageeditor.views.SelectCharView;
  */
 public class ActionViewCharListener implements ActionListener {
 
-	/**
-	 * Represents the index of the selected character
-	 * 
-	 */
-	private int selectedCharIndex;
-	
-	/**
-	 * The public constructor of the class.
-	 * As input it expects the index of the selected character.
-	 * 
-	 * @param index is the index of selected character.
-	 */
-	public ActionViewCharListener(int index) {
-		this.selectedCharIndex = index;
-	}
-	
 	/**
 	 * Describes the behavior when a character is selected from the palette frame.
 	 * 
 	 */
 	@Override
 	public void actionPerformed(ActionEvent e) {
-		ImageEditorController.getInstance().onSelectChar(selectedCharIndex);
+		ImageEditorController.getInstance().onSelectChar(Integer.parseInt(e.getActionCommand()));
 	}
 
 }
@@ -63,11 +63,13 @@ public class ControllerMouseLintener implements MouseListener {
 	}
 
 	/**
-	 * Implementation of MouseListener interface method
+	 * It is called when the mouse button is released, to end the stroke being painted.
 	 * 
 	 */
 	@Override
-	public void mouseReleased(MouseEvent e) {}
+	public void mouseReleased(MouseEvent e) {
+		getImageEditorController().onRelease();
+	}
 
 	/**
 	 * Implementation of MouseListener interface method
@@ -77,11 +79,13 @@ public class ControllerMouseLintener implements MouseListener {
 	public void mouseEntered(MouseEvent e) {}
 
 	/**
-	 * Implementation of MouseListener interface method
+	 * It is called when the mouse leaves the canvas, to remove the outline of the cursor cell.
 	 * 
 	 */
 	@Override
-	public void mouseExited(MouseEvent e) {}
+	public void mouseExited(MouseEvent e) {
+		getImageEditorController().onCursorExit();
+	}
 
 	/**
 	 * The controller field getter.
@@ -33,11 +33,14 @@ public class ControllerMouseMotionLintener implements MouseMotionListener {
 	}
 
 	/**
-	 * Implementation of MouseListener interface method
+	 * It gets the <i>x</i> and <i>y</i> coordinates of the cursor while a button is pressed and communicates them to the controller,
+	 * which continues the stroke being painted.
 	 * 
 	 */
 	@Override
-	public void mouseDragged(MouseEvent e) {}
+	public void mouseDragged(MouseEvent e) {
+		getImageEditorController().onCursorDrag(e.getX(), e.getY());
+	}
 
 	/**
 	 * It gets the <i>x</i> and <i>y</i> coordinates of the cursor and communicates them to the main ImageEditor frame.
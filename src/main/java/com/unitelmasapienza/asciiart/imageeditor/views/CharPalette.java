@@ -0,0 +1,246 @@
+package com.unitelmasapienza.asciiart.imageeditor.views;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+
+import com.unitelmasapienza.asciiart.asciipanel.GlyphAtlas;
+
+/**
+ * The class is the <b>character palette component</b> shown by the character palette frame.
+ *
+ * It is a single component that paints all the glyphs of a font copying its {@link GlyphAtlas} in one call, since the atlas
+ * already lays out the glyphs in a grid of {@link GlyphAtlas#COLUMNS} columns. A click is mapped to the character under the mouse
+ * with a division by the glyph size, so the palette needs no Swing component for each character.
+ *
+ * When a character is clicked, the action listeners are notified with the palette as source and the character index as
+ * action command.
+ *
+ * @see SelectCharView which shows it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class CharPalette extends JComponent {
+
+	/**
+	 * The identifier to serialize/deserialize the object
+	 *
+	 */
+	private static final long serialVersionUID = 4107238564032771946L;
+
+	/**
+	 * The color of the rectangle drawn over the character under the mouse
+	 *
+	 */
+	private static final Color HOVER_COLOR = new Color(255, 255, 255, 64);
+
+	/**
+	 * The color of the border drawn around the last selected character
+	 *
+	 */
+	private static final Color SELECTION_COLOR = Color.YELLOW;
+
+	/**
+	 * Is the value used when no character is under the mouse or selected
+	 *
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The atlas of the font whose characters are shown
+	 *
+	 */
+	private GlyphAtlas atlas;
+
+	/**
+	 * The index of the character under the mouse
+	 *
+	 */
+	private int hoverIndex = NONE;
+
+	/**
+	 * The index of the last selected character
+	 *
+	 */
+	private int selectedIndex = NONE;
+
+	/**
+	 * Class constructor. It sets the atlas to show and registers the mouse handling.
+	 * @param atlas is the atlas of the font whose characters are shown
+	 */
+	public CharPalette(GlyphAtlas atlas) {
+		setAtlas(atlas);
+		setOpaque(true);
+		setBackground(Color.BLACK);
+
+		MouseAdapter mouseHandler = new MouseAdapter() {
+			@Override
+			public void mousePressed(MouseEvent e) {
+				int index = indexAt(e.getX(), e.getY());
+				if (index != NONE)
+					selectCharacter(index);
+			}
+
+			@Override
+			public void mouseMoved(MouseEvent e) {
+				setHoverIndex(indexAt(e.getX(), e.getY()));
+			}
+
+			@Override
+			public void mouseExited(MouseEvent e) {
+				setHoverIndex(NONE);
+			}
+		};
+		addMouseListener(mouseHandler);
+		addMouseMotionListener(mouseHandler);
+	}
+
+	/**
+	 * Paints the background, the glyphs of the atlas and the highlights of the hovered and selected characters.
+	 *
+	 */
+	@Override
+	protected void paintComponent(Graphics g) {
+		g.setColor(getBackground());
+		g.fillRect(0, 0, getWidth(), getHeight());
+		g.drawImage(atlas.getImage(), 0, 0, null);
+
+		if (hoverIndex != NONE) {
+			Rectangle cell = cellBounds(hoverIndex);
+			g.setColor(HOVER_COLOR);
+			g.fillRect(cell.x, cell.y, cell.width, cell.height);
+		}
+		if (selectedIndex != NONE) {
+			Rectangle cell = cellBounds(selectedIndex);
+			g.setColor(SELECTION_COLOR);
+			g.drawRect(cell.x, cell.y, cell.width - 1, cell.height - 1);
+		}
+	}
+
+	/**
+	 * Returns the index of the character at a point of the palette.
+	 * @param x is the <i>x</i>-coordinate of the point, in pixels
+	 * @param y is the <i>y</i>-coordinate of the point, in pixels
+	 * @return the index of the character, or {@link #NONE} if the point is outside the characters
+	 */
+	private int indexAt(int x, int y) {
+		if (x < 0 || y < 0)
+			return NONE;
+
+		int column = x / atlas.getGlyphWidth();
+		int row = y / atlas.getGlyphHeight();
+		if (column >= GlyphAtlas.COLUMNS)
+			return NONE;
+
+		int index = row * GlyphAtlas.COLUMNS + column;
+		return index < atlas.getGlyphCount() ? index : NONE;
+	}
+
+	/**
+	 * Returns the bounds of a character in the palette.
+	 * @param index is the index of the character
+	 * @return the rectangle of the character, in pixels
+	 */
+	private Rectangle cellBounds(int index) {
+		return new Rectangle(atlas.getSourceX(index), atlas.getSourceY(index), atlas.getGlyphWidth(), atlas.getGlyphHeight());
+	}
+
+	/**
+	 * Selects a character and notifies the action listeners.
+	 * @param index is the index of the character
+	 */
+	private void selectCharacter(int index) {
+		setSelectedIndex(index);
+
+		ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, Integer.toString(index));
+		for (ActionListener listener : listenerList.getListeners(ActionListener.class))
+			listener.actionPerformed(event);
+	}
+
+	/**
+	 * Adds a listener notified when a character is selected.
+	 * @param listener is the listener to add
+	 */
+	public void addActionListener(ActionListener listener) {
+		listenerList.add(ActionListener.class, listener);
+	}
+
+	/**
+	 * Removes a listener added with {@link #addActionListener(ActionListener)}.
+	 * @param listener is the listener to remove
+	 */
+	public void removeActionListener(ActionListener listener) {
+		listenerList.remove(ActionListener.class, listener);
+	}
+
+	/**
+	 * The atlas getter
+	 * @return the atlas of the font whose characters are shown
+	 */
+	public GlyphAtlas getAtlas() {
+		return atlas;
+	}
+
+	/**
+	 * The atlas setter. The preferred size of the palette becomes the size of the atlas.
+	 * @param atlas is the atlas of the font whose characters are shown
+	 */
+	public void setAtlas(GlyphAtlas atlas) {
+		if (atlas == null)
+			throw new NullPointerException("atlas must not be null.");
+
+		this.atlas = atlas;
+		this.hoverIndex = NONE;
+		if (selectedIndex >= atlas.getGlyphCount())
+			selectedIndex = NONE;
+		setPreferredSize(new Dimension(atlas.getImage().getWidth(), atlas.getImage().getHeight()));
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * The selected index getter
+	 * @return the index of the last selected character, -1 if none
+	 */
+	public int getSelectedIndex() {
+		return selectedIndex;
+	}
+
+	/**
+	 * The selected index setter. It does not notify the listeners.
+	 * @param selectedIndex is the index of the character to show as selected, -1 for none
+	 */
+	public void setSelectedIndex(int selectedIndex) {
+		if (selectedIndex < NONE || selectedIndex >= atlas.getGlyphCount())
+			throw new IllegalArgumentException("selectedIndex " + selectedIndex + " must be within range [-1," + atlas.getGlyphCount() + "].");
+
+		if (this.selectedIndex != NONE)
+			repaint(cellBounds(this.selectedIndex));
+		this.selectedIndex = selectedIndex;
+		if (selectedIndex != NONE)
+			repaint(cellBounds(selectedIndex));
+	}
+
+	/**
+	 * The hover index setter. Only the cells of the old and the new hovered character are repainted.
+	 * @param hoverIndex is the index of the character under the mouse, -1 for none
+	 */
+	private void setHoverIndex(int hoverIndex) {
+		if (this.hoverIndex == hoverIndex)
+			return;
+
+		if (this.hoverIndex != NONE)
+			repaint(cellBounds(this.hoverIndex));
+		this.hoverIndex = hoverIndex;
+		if (hoverIndex != NONE)
+			repaint(cellBounds(hoverIndex));
+	}
+}
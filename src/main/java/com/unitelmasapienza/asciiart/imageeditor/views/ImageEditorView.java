@@ -1,14 +1,18 @@
 package com.unitelmasapienza.asciiart.imageeditor.views;
 
 import java.awt.Color;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
 
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFrame;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.WindowConstants;
 
 import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
@@ -38,6 +42,12 @@ public class ImageEditorView extends JFrame {
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The title of the application frame
+	 * 
+	 */
+	public static final String TITLE = "ASCII ART - Image Editor";
 
 	/**
 	 * MODEL
@@ -45,6 +55,12 @@ public class ImageEditorView extends JFrame {
 	 */
 	private AsciiPanel panel;
 
+	/**
+	 * The scroll pane that shows the panel (model), so that a canvas larger than the window can be scrolled
+	 * 
+	 */
+	private JScrollPane canvasScrollPane;
+
 	/**
 	 * Represents the color of the drawn character
 	 * 
@@ -185,6 +201,12 @@ public class ImageEditorView extends JFrame {
 	 */
 	private JMenuItem menuBarToolsPick;
 	
+	/**
+	 * In the choice menu in GUI palette, inside 'Tools' menu it represents the field 'Render metrics'
+	 * 
+	 */
+	private JCheckBoxMenuItem menuBarToolsMetrics;
+	
 	
 	/**
 	 * This is public constructor used by Builder to create physically the ImageEditorView object for application.
@@ -215,6 +237,7 @@ public class ImageEditorView extends JFrame {
 	 * @param paintToolsItem is the <i>Paint</i> menu item for Tools menu
 	 * @param fillToolsItem is the <i>Fill</i> menu item for Tools menu
 	 * @param pickToolsItem is the <i>Pick</i> menu item for Tools menu
+	 * @param metricsToolsItem is the <i>Render metrics</i> menu item for Tools menu
 	 * 
 	 */
 	public ImageEditorView(AsciiPanel selectedCharPreview, 
@@ -235,16 +258,29 @@ public class ImageEditorView extends JFrame {
 			JMenuItem importFileItem,
 			JMenuItem paintToolsItem,
 			JMenuItem fillToolsItem,
-			JMenuItem pickToolsItem
+			JMenuItem pickToolsItem,
+			JCheckBoxMenuItem metricsToolsItem
 			) {
 		
-		super("ASCII ART - Image Editor");
+		super(TITLE);
 		setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
 		this.setBounds(0, 0, 80 * 16 + 80, 60 * 16);
 		this.setLayout(null);
 		
 		controlTool.setLayout(null);
 		
+		//Canvas area, it takes all the space on the right of the tools
+		setCanvasScrollPane(new JScrollPane());
+		getCanvasScrollPane().setBounds(80, 0, 80 * 16, 60 * 16);
+		this.add(getCanvasScrollPane());
+		this.addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(ComponentEvent e) {
+				getCanvasScrollPane().setBounds(80, 0, Math.max(getContentPane().getWidth() - 80, 0), getContentPane().getHeight());
+				getCanvasScrollPane().revalidate();
+			}
+		});
+		
 		//GUI Buttons
 		setSelectedCharPreview(selectedCharPreview);
 		setCharColorPreview(charColorPreview);
@@ -263,7 +299,7 @@ public class ImageEditorView extends JFrame {
 		
 		//positioning top-menu bar
 		composingFileMenuBar(menuBar, fileMenu, newFileItem, loadFileItem, saveFileItem, importFileItem);
-		composingToolsMenuBar(menuBar, toolsMenu, paintToolsItem, fillToolsItem, pickToolsItem);
+		composingToolsMenuBar(menuBar, toolsMenu, paintToolsItem, fillToolsItem, pickToolsItem, metricsToolsItem);
 		
 		//make top-bar visible
 		this.setJMenuBar(menuBar);
@@ -348,6 +384,7 @@ public class ImageEditorView extends JFrame {
 	 * @param paintItem is the 'Paint' item on Tools Menu
 	 * @param fillItem is the 'Fill' item on Tools Menu
 	 * @param pickItem is the 'Pick' item on Tools Menu
+	 * @param metricsItem is the 'Render metrics' item on Tools Menu
 	 * 
 	 */
 	private void composingToolsMenuBar (
@@ -355,19 +392,22 @@ public class ImageEditorView extends JFrame {
 			JMenu toolsMenu,
 			JMenuItem paintItem,
 			JMenuItem fillItem,
-			JMenuItem pickItem) {
+			JMenuItem pickItem,
+			JCheckBoxMenuItem metricsItem) {
 		setMenuBarTools(toolsMenu);
 		
 		//setting tools menu items
 		setMenuBarToolsPaint(paintItem);
 		setMenuBarToolsFill(fillItem);
 		setMenuBarToolsPick(pickItem);
+		setMenuBarToolsMetrics(metricsItem);
 		
 		//add tools menu to top-bar
 		this.menuBar.add(getMenuBarTools());
 		if(getMenuBarToolsPaint() != null) getMenuBarTools().add(getMenuBarToolsPaint());
 		if(getMenuBarToolsFill() != null) getMenuBarTools().add(getMenuBarToolsFill());
 		if(getMenuBarToolsPick() != null) getMenuBarTools().add(getMenuBarToolsPick());
+		if(getMenuBarToolsMetrics() != null) getMenuBarTools().add(getMenuBarToolsMetrics());
 	}
 	
 	/**
@@ -394,11 +434,31 @@ public class ImageEditorView extends JFrame {
 
 	/**
 	 * The panel (model) setter.
+	 * The panel is shown in the canvas scroll pane, in place of the previous one.
 	 * 
 	 * @param panel the AsciiPanel to set on view.
 	 */
 	public void setPanel(AsciiPanel panel) {
 		this.panel = panel;
+		getCanvasScrollPane().setViewportView(panel);
+	}
+
+	/**
+	 * The canvas scroll pane getter.
+	 * 
+	 * @return the scroll pane that shows the panel.
+	 */
+	public JScrollPane getCanvasScrollPane() {
+		return canvasScrollPane;
+	}
+
+	/**
+	 * The canvas scroll pane setter.
+	 * 
+	 * @param canvasScrollPane the scroll pane to set.
+	 */
+	private void setCanvasScrollPane(JScrollPane canvasScrollPane) {
+		this.canvasScrollPane = canvasScrollPane;
 	}
 
 	/**
@@ -805,6 +865,24 @@ public class ImageEditorView extends JFrame {
 	public void setMenuBarToolsPick(JMenuItem menuBarToolsPick) {
 		this.menuBarToolsPick = menuBarToolsPick;
 	}
+
+	/**
+	 * The <i>Render metrics</i> item of menu tools getter.
+	 * 
+	 * @return the render metrics item of menu tools.
+	 */
+	public JCheckBoxMenuItem getMenuBarToolsMetrics() {
+		return menuBarToolsMetrics;
+	}
+
+	/**
+	 * The <i>Render metrics</i> item of menu tools setter.
+	 *  
+	 * @param menuBarToolsMetrics item to set
+	 */
+	public void setMenuBarToolsMetrics(JCheckBoxMenuItem menuBarToolsMetrics) {
+		this.menuBarToolsMetrics = menuBarToolsMetrics;
+	}
 	
 	
 	
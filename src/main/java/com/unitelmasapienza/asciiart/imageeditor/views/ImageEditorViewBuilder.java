@@ -5,6 +5,7 @@ import java.awt.image.BufferedImage;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
@@ -48,6 +49,7 @@ public class ImageEditorViewBuilder {
 	private JMenuItem menuBarToolsPaint;
 	private JMenuItem menuBarToolsFill;
 	private JMenuItem menuBarToolsPick;
+	private JCheckBoxMenuItem menuBarToolsMetrics;
 	
 	//This field will be passed to concrete view object already
 	private JPanel controlTool;
@@ -395,6 +397,21 @@ public class ImageEditorViewBuilder {
 		return this;
 	}
 	
+	/**
+	 * This method sets the 'Render metrics' menu option on top Tools menu bar, which shows the render metrics over the canvas.
+	 * Its input could be null. In this case, it will create a new menu item on Tools.
+	 * 
+	 * @param metricsToolsItem is the item to set
+	 * 
+	 * @return Builder itself, as <i>Builder Pattern</i>.
+	 */
+	public ImageEditorViewBuilder metricsToolsMenuItem(JCheckBoxMenuItem... metricsToolsItem) {
+		
+		if(metricsToolsItem.length > 0 && metricsToolsItem[0] != null) setMenuBarToolsMetrics(metricsToolsItem[0]);
+		else setMenuBarToolsMetrics(new JCheckBoxMenuItem("Render metrics"));
+		return this;
+	}
+	
 	/**
 	 * This method add all menu item to 'File' option of top menu bar.
 	 * 
@@ -435,6 +452,7 @@ public class ImageEditorViewBuilder {
 			if(getMenuBarToolsPaint() != null) getMenuBarTools().add(getMenuBarToolsPaint());
 			if(getMenuBarToolsFill() != null) getMenuBarTools().add(getMenuBarToolsFill());
 			if(getMenuBarToolsPick() != null) getMenuBarTools().add(getMenuBarToolsPick());
+			if(getMenuBarToolsMetrics() != null) getMenuBarTools().add(getMenuBarToolsMetrics());
 		}
 		
 		return this;
@@ -465,7 +483,8 @@ public class ImageEditorViewBuilder {
 				getMenuBarFileImport(),
 				getMenuBarToolsPaint(),
 				getMenuBarToolsFill(),
-				getMenuBarToolsPick()
+				getMenuBarToolsPick(),
+				getMenuBarToolsMetrics()
 				);
 	}
 	
@@ -830,6 +849,24 @@ public class ImageEditorViewBuilder {
 		this.menuBarToolsPick = menuBarToolsPick;
 	}
 	
+	/**
+	 * <b>Builder</b> Version of the menu bar Tools <i>Render metrics</i> item getter.
+	 * 
+	 * @return the menu item for 'Render metrics' option.
+	 */
+	private JCheckBoxMenuItem getMenuBarToolsMetrics() {
+		return menuBarToolsMetrics;
+	}
+
+	/**
+	 * <b>Builder</b> Version of the menu bar Tools <i>Render metrics</i> item setter.
+	 * 
+	 * @param menuBarToolsMetrics is the menu item for 'Render metrics' option to set.
+	 */
+	private void setMenuBarToolsMetrics(JCheckBoxMenuItem menuBarToolsMetrics) {
+		this.menuBarToolsMetrics = menuBarToolsMetrics;
+	}
+	
 	
 
 }
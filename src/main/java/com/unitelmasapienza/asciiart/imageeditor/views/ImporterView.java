@@ -1,16 +1,25 @@
 package com.unitelmasapienza.asciiart.imageeditor.views;
 
 
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
+import javax.swing.JProgressBar;
 import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.WindowConstants;
 
 import com.unitelmasapienza.asciiart.imageeditor.controllers.ImageEditorController;
 import com.unitelmasapienza.asciiart.imageeditor.listeners.ActionConvertListener;
 import com.unitelmasapienza.asciiart.imageeditor.listeners.ActionImportListener;
+import com.unitelmasapienza.asciiart.imageeditor.workers.ImageConvertWorker;
+import com.unitelmasapienza.asciiart.imageeditor.workers.ImageImportWorker;
 /**
  * The class manages the <b>importing images frame</b> into the canvas of application.
  * 
@@ -18,6 +27,9 @@ import com.unitelmasapienza.asciiart.imageeditor.listeners.ActionImportListener;
  *      and calls the importing action at the click of the <b>Import...</b> button under <i>File</i> menu.
  * @see ActionImportListener which is the related Action Listener.
  * 
+ * The import and the conversion run in background tasks ({@link ImageImportWorker} and {@link ImageConvertWorker}),
+ * whose progress is shown by the progress bar of the frame. Only one task runs at a time: starting a new one cancels the previous one.
+ * 
  * @author Fulvio Zecchin
  *
  */
@@ -58,6 +70,18 @@ public class ImporterView extends JDialog {
 	 * 
 	 */
 	private JCheckBox allColorsCheckbox;
+	
+	/**
+	 * Represents the progress bar of the running import or conversion
+	 * 
+	 */
+	private JProgressBar progressBar;
+	
+	/**
+	 * The running import or conversion, null when there is none
+	 * 
+	 */
+	private SwingWorker<?, ?> task;
 
 	/**
 	 * The only instance of the class
@@ -84,7 +108,7 @@ public class ImporterView extends JDialog {
 	private ImporterView() {
 		super.setTitle("Import Image");
 		setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
-		this.setBounds(0, 0, 320, 230);
+		this.setBounds(0, 0, 320, 260);
 		this.setResizable(false);
 		this.setLayout(null);
 		setThresholdLabel(new JLabel("Threshold:"));
@@ -92,6 +116,7 @@ public class ImporterView extends JDialog {
 		setAllColorsCheckbox(new JCheckBox("all colors", true));
 		setConvertButton(new JButton("Convert"));
 		setImportButton(new JButton("Import ..."));
+		setProgressBar(new JProgressBar(0, 100));
 		getImportButton().addActionListener(new ActionImportListener());
 		getConvertButton().addActionListener(new ActionConvertListener(ImageEditorController.getInstance().getModel(), getThresholdTextbox(), getAllColorsCheckbox()));
 		this.add(getImportButton());
@@ -99,11 +124,61 @@ public class ImporterView extends JDialog {
 		this.add(getThresholdTextbox());
 		this.add(getAllColorsCheckbox());
 		this.add(getConvertButton());
+		this.add(getProgressBar());
 		getImportButton().setBounds(0, 0, 320, 40);
 		getThresholdLabel().setBounds(0, 40, 320, 40);
 		getThresholdTextbox().setBounds(0, 80, 320, 40);
 		getAllColorsCheckbox().setBounds(0, 120, 320, 40);
 		getConvertButton().setBounds(0, 160, 320, 40);
+		getProgressBar().setBounds(0, 200, 320, 20);
+		this.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				cancelTask();
+			}
+		});
+	}
+
+	/**
+	 * Runs an import or a conversion in background, cancelling the one that is running.
+	 * The progress bar follows the progress of the task and the <b>Convert</b> button is disabled until it is done.
+	 * 
+	 * @param task is the task to run, it must not have been started
+	 */
+	public void startTask(SwingWorker<?, ?> task) {
+		cancelTask();
+		setTask(task);
+		getProgressBar().setValue(0);
+		getConvertButton().setEnabled(false);
+		task.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				if (evt.getSource() != getTask())
+					return;
+
+				if ("progress".equals(evt.getPropertyName())) {
+					getProgressBar().setValue((Integer) evt.getNewValue());
+				} else if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+					setTask(null);
+					getConvertButton().setEnabled(true);
+				}
+			}
+		});
+		task.execute();
+	}
+
+	/**
+	 * Cancels the running import or conversion, if there is one. A cancelled task does not change the view or the canvas.
+	 * 
+	 */
+	public void cancelTask() {
+		if (getTask() == null)
+			return;
+
+		getTask().cancel(true);
+		setTask(null);
+		getProgressBar().setValue(0);
+		getConvertButton().setEnabled(true);
 	}
 
 	/**
@@ -111,6 +186,7 @@ public class ImporterView extends JDialog {
 	 * 
 	 */
 	public void close() {
+		cancelTask();
 		instance.setVisible(false);
 		instance.dispose();
 		instance = null;
@@ -206,4 +282,40 @@ public class ImporterView extends JDialog {
 	public void setAllColorsCheckbox(JCheckBox allColorsCheckbox) {
 		this.allColorsCheckbox = allColorsCheckbox;
 	}
+
+	/**
+	 * The progress bar getter
+	 * 
+	 * @return the progressBar
+	 */
+	public JProgressBar getProgressBar() {
+		return progressBar;
+	}
+
+	/**
+	 * The progress bar setter
+	 * 
+	 * @param progressBar is the progress bar to set
+	 */
+	public void setProgressBar(JProgressBar progressBar) {
+		this.progressBar = progressBar;
+	}
+
+	/**
+	 * The running task getter
+	 * 
+	 * @return the running import or conversion, null when there is none
+	 */
+	private SwingWorker<?, ?> getTask() {
+		return task;
+	}
+
+	/**
+	 * The running task setter
+	 * 
+	 * @param task is the task to set
+	 */
+	private void setTask(SwingWorker<?, ?> task) {
+		this.task = task;
+	}
 }
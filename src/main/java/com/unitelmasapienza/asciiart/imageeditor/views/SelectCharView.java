@@ -1,20 +1,23 @@
 package com.unitelmasapienza.asciiart.imageeditor.views;
 
-import java.awt.image.BufferedImage;
-import java.util.List;
+import java.io.IOException;
 
-import javax.swing.ImageIcon;
-import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.WindowConstants;
 
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
+import com.unitelmasapienza.asciiart.asciipanel.GlyphRegistry;
 import com.unitelmasapienza.asciiart.imageeditor.controllers.ImageEditorController;
 import com.unitelmasapienza.asciiart.imageeditor.listeners.ActionViewCharListener;
 
 /**
  * The class manages the <b>character palette frame</b> for choosing and selecting the character to draw.
  * 
+ * The characters are shown by a single {@link CharPalette} component that paints the glyph atlas of the font in use.
+ * The frame is created once and only hidden when closed; when it is shown again the palette is switched to the font of the
+ * canvas only if it has changed, and the atlas of every font is taken from the {@link GlyphRegistry}, so opening it is immediate.
+ * 
  * @see ActionViewCharListener which is the related Action Listener.
  * 
  * @author Fulvio Zecchin
@@ -36,10 +39,16 @@ public class SelectCharView extends JDialog {
 	private JLabel frameLabel;
 	
 	/**
-	 * Represents the list of characters (treated as buttons) that you can select.
+	 * Represents the palette of the characters that you can select.
+	 * 
+	 */
+	private CharPalette charsPalette;
+
+	/**
+	 * The font whose characters are shown in the palette.
 	 * 
 	 */
-	private List<JButton> charsPalette;
+	private AsciiFont paletteFont;
 	
 	/**
 	 * The only instance of the class.
@@ -56,6 +65,8 @@ public class SelectCharView extends JDialog {
 	public static SelectCharView getInstance() {
 		if (instance == null)
 			instance = new SelectCharView();
+		else
+			instance.updatePaletteFont();
 		return instance;
 	}
 
@@ -66,29 +77,41 @@ public class SelectCharView extends JDialog {
 	private SelectCharView() {
 		super.setTitle("Character Selector");
 		setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
-		this.setBounds(0, 0, 16 * 16, 16 * 16 + 32);
 		this.setResizable(false);
-		this.setLayout(null);
-		ImageEditorController controller = ImageEditorController.getInstance();
-		BufferedImage[] glyphsList = controller.getModel().getGlyphsList();
-		for (int i = 0; i < glyphsList.length; i++) {
-			int x = i % 16;
-			int y = i / 16;
-			JButton charAsButton = new JButton(new ImageIcon(glyphsList[i]));
-			this.add(charAsButton);
-			charAsButton.setBounds(x * 16, y * 16, 16, 16);
-			charAsButton.addActionListener(new ActionViewCharListener(i));
+		updatePaletteFont();
+	}
+
+	/**
+	 * Shows in the palette the characters of the font used by the canvas. Nothing happens if the font has not changed.
+	 * 
+	 */
+	private void updatePaletteFont() {
+		AsciiFont font = ImageEditorController.getInstance().getModel().getAsciiFont();
+		if (font.equals(getPaletteFont()))
+			return;
+
+		try {
+			if (getCharsPalette() == null) {
+				setCharsPalette(new CharPalette(GlyphRegistry.getAtlas(font)));
+				getCharsPalette().addActionListener(new ActionViewCharListener());
+				this.add(getCharsPalette());
+			} else {
+				getCharsPalette().setAtlas(GlyphRegistry.getAtlas(font));
+			}
+			setPaletteFont(font);
+			this.pack();
+		} catch (IOException e) {
+			System.err.println("updatePaletteFont(): " + e.getMessage());
 		}
 	}
 
 	/**
 	 * Describes the behavior when the character palette frame is closed.
+	 * The frame is only hidden, so that it is ready the next time it is shown.
 	 * 
 	 */
 	public void close() {
 		instance.setVisible(false);
-		instance.dispose();
-		instance = null;
 	}
 
 	/**
@@ -112,20 +135,38 @@ public class SelectCharView extends JDialog {
 	/**
 	 * The chars palette getter.
 	 * 
-	 * @return the list with all chars as button.
+	 * @return the palette with all chars.
 	 */
-	private List<JButton> getCharsPalette() {
+	private CharPalette getCharsPalette() {
 		return charsPalette;
 	}
 
 	/**
-	 * The chars palette getter.
+	 * The chars palette setter.
 	 * 
-	 * @param charsPalette the list with all chars as button to set.
+	 * @param charsPalette the palette with all chars to set.
 	 */
-	private void setCharsPalette(List<JButton> charsPalette) {
+	private void setCharsPalette(CharPalette charsPalette) {
 		this.charsPalette = charsPalette;
 	}
+
+	/**
+	 * The palette font getter.
+	 * 
+	 * @return the font whose characters are shown in the palette.
+	 */
+	private AsciiFont getPaletteFont() {
+		return paletteFont;
+	}
+
+	/**
+	 * The palette font setter.
+	 * 
+	 * @param paletteFont the font whose characters are shown in the palette to set.
+	 */
+	private void setPaletteFont(AsciiFont paletteFont) {
+		this.paletteFont = paletteFont;
+	}
 	
 	
 }
@@ -0,0 +1,127 @@
+package com.unitelmasapienza.asciiart.imageeditor.workers;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFont;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiRaster;
+import com.unitelmasapienza.asciiart.converter.AsciiConverter;
+import com.unitelmasapienza.asciiart.converter.AsciiConverterPaletteMode;
+import com.unitelmasapienza.asciiart.imageeditor.views.ImporterView;
+
+/**
+ * The class is the <b>background task that converts the imported image</b> into characters and draws it on the canvas.
+ *
+ * The conversion runs in a worker thread and produces a raster that nobody else can see; the canvas is changed only when the task
+ * completes, on the event dispatch thread, in a single step: the canvas is cleared and the raster is painted as one edit,
+ * so it is undone in one step, and then the importing frame is closed. A cancelled task leaves the canvas as it is.
+ *
+ * @see ImporterView#startTask(SwingWorker) which runs it and shows its progress.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class ImageConvertWorker extends SwingWorker<AsciiRaster, Void> {
+
+	/**
+	 * The imported image, already resized to the canvas
+	 *
+	 */
+	private BufferedImage image;
+
+	/**
+	 * The canvas the converted image is drawn on
+	 *
+	 */
+	private AsciiPanel panel;
+
+	/**
+	 * The font of the canvas, read on the event dispatch thread when the task is created
+	 *
+	 */
+	private AsciiFont font;
+
+	/**
+	 * The maximum brightness considered, within range [0,255]
+	 *
+	 */
+	private int threshold;
+
+	/**
+	 * The palette of the characters colors
+	 *
+	 */
+	private AsciiConverterPaletteMode paletteMode;
+
+	/**
+	 * Class constructor. It must be called on the event dispatch thread.
+	 * @param image is the imported image, already resized to the canvas
+	 * @param panel is the canvas the converted image is drawn on
+	 * @param threshold is the maximum brightness considered, within range [0,255]
+	 * @param paletteMode is the palette of the characters colors
+	 */
+	public ImageConvertWorker(BufferedImage image, AsciiPanel panel, int threshold, AsciiConverterPaletteMode paletteMode) {
+		if (image == null)
+			throw new NullPointerException("image must not be null.");
+
+		if (panel == null)
+			throw new NullPointerException("panel must not be null.");
+
+		this.image = image;
+		this.panel = panel;
+		this.font = panel.getAsciiFont();
+		this.threshold = threshold;
+		this.paletteMode = paletteMode;
+	}
+
+	/**
+	 * Converts the image, in a worker thread.
+	 * @return the converted raster, or null if the task has been cancelled
+	 * @throws IOException if the font sprite can not be read
+	 */
+	@Override
+	protected AsciiRaster doInBackground() throws IOException {
+		AsciiConverter converter = new AsciiConverter(font, threshold, paletteMode);
+		if (isCancelled())
+			return null;
+
+		setProgress(50);
+		AsciiRaster raster = converter.convert(image);
+		setProgress(100);
+		return raster;
+	}
+
+	/**
+	 * Draws the converted raster on the canvas and closes the importing frame, on the event dispatch thread,
+	 * or shows why the conversion failed.
+	 *
+	 */
+	@Override
+	protected void done() {
+		if (isCancelled())
+			return;
+
+		AsciiRaster raster;
+		try {
+			raster = get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException e) {
+			JOptionPane.showMessageDialog(ImporterView.getInstance(), e.getCause().getMessage(), "Convert error", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		panel.beginEdit();
+		panel.clear();
+		panel.paintRaster(raster, 0, 0, false);
+		panel.endEdit();
+		panel.repaintDirty();
+		ImporterView.getInstance().close();
+	}
+}
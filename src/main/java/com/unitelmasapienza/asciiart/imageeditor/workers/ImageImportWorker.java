@@ -0,0 +1,176 @@
+package com.unitelmasapienza.asciiart.imageeditor.workers;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import com.unitelmasapienza.asciiart.converter.AsciiConverter;
+import com.unitelmasapienza.asciiart.imageeditor.controllers.ImageEditorController;
+import com.unitelmasapienza.asciiart.imageeditor.views.ImporterView;
+
+/**
+ * The class is the <b>background task that imports an image</b>: it decodes the chosen file and resizes it to the size
+ * of the canvas, one pixel for every cell, without blocking the event dispatch thread.
+ *
+ * The progress of the decoding is reported through {@link #getProgress()}, the resize takes the last 10%.
+ * The task can be cancelled at any time: the decoding is aborted at the next progress notification of the image reader.
+ * When it completes, the resized image is handed to the view on the event dispatch thread, ready to be converted;
+ * a cancelled task hands nothing.
+ *
+ * @see ImporterView#startTask(SwingWorker) which runs it and shows its progress.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class ImageImportWorker extends SwingWorker<BufferedImage, Void> {
+
+	/**
+	 * The progress reached when the image has been decoded, the rest is the resize
+	 *
+	 */
+	private static final int DECODED_PROGRESS = 90;
+
+	/**
+	 * The image file to import
+	 *
+	 */
+	private File file;
+
+	/**
+	 * The width of the canvas, in characters
+	 *
+	 */
+	private int width;
+
+	/**
+	 * The height of the canvas, in characters
+	 *
+	 */
+	private int height;
+
+	/**
+	 * Class constructor.
+	 * @param file is the image file to import
+	 * @param width is the width of the canvas, in characters
+	 * @param height is the height of the canvas, in characters
+	 */
+	public ImageImportWorker(File file, int width, int height) {
+		if (file == null)
+			throw new NullPointerException("file must not be null.");
+
+		if (width < 1)
+			throw new IllegalArgumentException("width " + width + " must be greater than 0.");
+
+		if (height < 1)
+			throw new IllegalArgumentException("height " + height + " must be greater than 0.");
+
+		this.file = file;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Decodes and resizes the image, in a worker thread.
+	 * @return the resized image, or null if the task has been cancelled
+	 * @throws IOException if the file can not be read or it is not an image
+	 */
+	@Override
+	protected BufferedImage doInBackground() throws IOException {
+		BufferedImage image = read();
+		if (isCancelled())
+			return null;
+
+		setProgress(DECODED_PROGRESS);
+		BufferedImage resized = AsciiConverter.resize(image, width, height);
+		setProgress(100);
+		return resized;
+	}
+
+	/**
+	 * Decodes the image, reporting the progress of the image reader and aborting it when the task is cancelled.
+	 * @return the decoded image, which may be incomplete if the task has been cancelled
+	 * @throws IOException if the file can not be read or it is not an image
+	 */
+	private BufferedImage read() throws IOException {
+		ImageInputStream in = ImageIO.createImageInputStream(file);
+		if (in == null)
+			throw new IOException(file.getName() + " can not be read.");
+
+		try {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext())
+				throw new IOException(file.getName() + " is not a supported image.");
+
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				reader.addIIOReadProgressListener(new IIOReadProgressListener() {
+
+					@Override
+					public void imageProgress(ImageReader source, float percentageDone) {
+						if (isCancelled())
+							source.abort();
+						else
+							setProgress(Math.min((int) (percentageDone * DECODED_PROGRESS / 100), DECODED_PROGRESS));
+					}
+
+					@Override
+					public void sequenceStarted(ImageReader source, int minIndex) {}
+
+					@Override
+					public void sequenceComplete(ImageReader source) {}
+
+					@Override
+					public void imageStarted(ImageReader source, int imageIndex) {}
+
+					@Override
+					public void imageComplete(ImageReader source) {}
+
+					@Override
+					public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {}
+
+					@Override
+					public void thumbnailProgress(ImageReader source, float percentageDone) {}
+
+					@Override
+					public void thumbnailComplete(ImageReader source) {}
+
+					@Override
+					public void readAborted(ImageReader source) {}
+				});
+				return reader.read(0);
+			} finally {
+				reader.dispose();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Hands the resized image to the view, on the event dispatch thread, or shows why the import failed.
+	 *
+	 */
+	@Override
+	protected void done() {
+		if (isCancelled())
+			return;
+
+		try {
+			ImageEditorController.getInstance().getView().setImportBI(get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			JOptionPane.showMessageDialog(ImporterView.getInstance(), e.getCause().getMessage(), "Import error", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.unitelmasapienza.asciiart.imageeditor.workers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFileFormat;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiFileWriter;
+import com.unitelmasapienza.asciiart.asciipanel.AsciiPanel;
+import com.unitelmasapienza.asciiart.asciipanel.CellBuffer;
+import com.unitelmasapienza.asciiart.imageeditor.views.ImageEditorView;
+
+/**
+ * The class is the <b>background task that saves the drawing</b>, so large drawings are saved without freezing the editor.
+ *
+ * The cells of the canvas are copied when the task is created, on the event dispatch thread, and only the copy is written,
+ * so the drawing can be changed while it is being saved and the file holds the drawing as it was when the save was chosen.
+ * The file is written atomically by the {@link AsciiFileWriter}. When the task completes, on the event dispatch thread,
+ * the title of the editor shows the saved file, or a dialog shows why the save failed; in that case the file is left as it was.
+ *
+ * @see com.unitelmasapienza.asciiart.imageeditor.listeners.ActionSaveListener which runs it.
+ *
+ * @author Fulvio Zecchin
+ *
+ */
+public class SaveWorker extends SwingWorker<Void, Void> {
+
+	/**
+	 * The view that shows the result of the save
+	 *
+	 */
+	private ImageEditorView view;
+
+	/**
+	 * The copy of the cells of the canvas that is written
+	 *
+	 */
+	private CellBuffer cells;
+
+	/**
+	 * The file to write
+	 *
+	 */
+	private File file;
+
+	/**
+	 * The format of the file
+	 *
+	 */
+	private AsciiFileFormat format;
+
+	/**
+	 * Class constructor, it copies the cells of the canvas. It must be called on the event dispatch thread.
+	 * @param view is the view that shows the result of the save
+	 * @param panel is the canvas to save
+	 * @param file is the file to write
+	 * @param format is the format of the file
+	 */
+	public SaveWorker(ImageEditorView view, AsciiPanel panel, File file, AsciiFileFormat format) {
+		if (panel == null)
+			throw new NullPointerException("panel must not be null.");
+
+		if (file == null)
+			throw new NullPointerException("file must not be null.");
+
+		if (format == null)
+			throw new NullPointerException("format must not be null.");
+
+		this.view = view;
+		this.cells = panel.getPanelCells().copy();
+		this.file = file;
+		this.format = format;
+	}
+
+	/**
+	 * Writes the copy of the cells, in a worker thread.
+	 * @return nothing
+	 * @throws IOException if the file can not be written
+	 */
+	@Override
+	protected Void doInBackground() throws IOException {
+		AsciiFileWriter.write(cells, file.getAbsolutePath(), format);
+		return null;
+	}
+
+	/**
+	 * Reports the result of the save, on the event dispatch thread.
+	 *
+	 */
+	@Override
+	protected void done() {
+		try {
+			get();
+			view.setTitle(ImageEditorView.TITLE + " - " + file.getName());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			JOptionPane.showMessageDialog(view, file.getName() + " has not been saved: " + e.getCause().getMessage(), "Save error", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+}